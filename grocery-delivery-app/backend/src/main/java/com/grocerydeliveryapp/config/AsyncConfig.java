@@ -0,0 +1,77 @@
+package com.grocerydeliveryapp.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.task.TaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.scheduling.annotation.AsyncAnnotationBeanPostProcessor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class AsyncConfig {
+
+    // Declaring any executor bean switches off Boot's default one, so keep it
+    // (still configured through spring.task.execution.*) for @Async methods
+    @Primary
+    @Bean(name = {
+            TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME,
+            AsyncAnnotationBeanPostProcessor.DEFAULT_TASK_EXECUTOR_BEAN_NAME
+    })
+    public ThreadPoolTaskExecutor applicationTaskExecutor(TaskExecutorBuilder builder) {
+        return builder.build();
+    }
+
+    // Gateway calls get their own bounded pool so slow payments can neither hold
+    // servlet threads nor grow without limit
+    @Bean
+    public ThreadPoolTaskExecutor paymentExecutor(
+            @Value("${app.payment.executor.core-size:8}") int coreSize,
+            @Value("${app.payment.executor.max-size:32}") int maxSize,
+            @Value("${app.payment.executor.queue-capacity:500}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(coreSize);
+        executor.setMaxPoolSize(maxSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("payment-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+
+    // Template rendering is CPU-bound, so the pool is sized to the cores; the caller waits
+    // for its batch. The queue is bounded so that, once it is full, the caller renders the
+    // chunk itself instead of piling up work
+    @Bean
+    public ThreadPoolTaskExecutor emailRenderExecutor(
+            @Value("${app.mail.render.pool-size:0}") int poolSize,
+            @Value("${app.mail.render.queue-capacity:20}") int queueCapacity) {
+        int threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("email-render-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        return executor;
+    }
+
+    // Catalog import row validation is CPU-bound as well; the importer waits for each chunk.
+    // With the queue bounded, concurrent imports that fill it validate on their own thread
+    @Bean
+    public ThreadPoolTaskExecutor catalogImportExecutor(
+            @Value("${app.catalog.import.validation-threads:0}") int poolSize,
+            @Value("${app.catalog.import.validation-queue-capacity:50}") int queueCapacity) {
+        int threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("catalog-import-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        return executor;
+    }
+}
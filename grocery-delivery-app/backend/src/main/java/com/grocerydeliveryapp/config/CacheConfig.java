@@ -0,0 +1,23 @@
+package com.grocerydeliveryapp.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.Pageable;
+
+@Configuration
+public class CacheConfig {
+
+    // Keep in sync with spring.cache.cache-names so the caches exist (and are
+    // registered with actuator metrics) at startup
+    public static final String PRODUCTS = "products";
+    public static final String FEATURED_PRODUCTS = "featuredProducts";
+    public static final String DISCOUNTED_PRODUCTS = "discountedProducts";
+    public static final String CATEGORY_PAGES = "categoryPages";
+
+    public static String categoryPageKey(String category, Pageable pageable) {
+        return category + "|" + pageable.getPageNumber() + "|" + pageable.getPageSize() + "|" + pageable.getSort();
+    }
+
+    public static boolean isCategoryPageKey(Object key, String category) {
+        return key instanceof String && ((String) key).startsWith(category + "|");
+    }
+}
@@ -0,0 +1,108 @@
+package com.grocerydeliveryapp.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Lets a STOMP session opt into Smile (binary JSON) for the tracking topics by sending
+// "payload-format: smile" on CONNECT. Payloads are still serialized once as JSON; sessions that
+// opted in get a Smile copy transcoded once per distinct payload and shared across subscribers.
+// Binary frames need a native WebSocket connection (/ws/websocket); SockJS clients must stay on JSON
+@Slf4j
+@Component
+public class CompactPayloadInterceptor implements ChannelInterceptor {
+
+    public static final String FORMAT_HEADER = "payload-format";
+    public static final String FORMAT_SMILE = "smile";
+
+    private static final String TRACKING_PREFIX = "/topic/order/";
+
+    private final ObjectMapper jsonMapper = new ObjectMapper();
+    private final ObjectMapper smileMapper = new SmileMapper();
+    private final Set<String> compactSessions = ConcurrentHashMap.newKeySet();
+
+    // Keyed by payload content: a broadcast fans out one payload to every subscriber, and with
+    // a broker relay each copy arrives as a separate array holding the same bytes
+    private final Cache<ByteBuffer, byte[]> transcoded;
+
+    public CompactPayloadInterceptor(@Value("${app.websocket.compact.cache-size:10000}") long cacheSize) {
+        this.transcoded = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .build();
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        MessageHeaders headers = message.getHeaders();
+        SimpMessageType type = SimpMessageHeaderAccessor.getMessageType(headers);
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(headers);
+        if (type == null || sessionId == null) {
+            return message;
+        }
+        switch (type) {
+            case CONNECT:
+                if (FORMAT_SMILE.equalsIgnoreCase(SimpMessageHeaderAccessor.getFirstNativeHeader(FORMAT_HEADER, headers))) {
+                    compactSessions.add(sessionId);
+                }
+                return message;
+            case DISCONNECT:
+                compactSessions.remove(sessionId);
+                return message;
+            case MESSAGE:
+                return compactSessions.contains(sessionId) ? toSmile(message) : message;
+            default:
+                return message;
+        }
+    }
+
+    public boolean isCompact(String sessionId) {
+        return compactSessions.contains(sessionId);
+    }
+
+    private Message<?> toSmile(Message<?> message) {
+        String destination = SimpMessageHeaderAccessor.getDestination(message.getHeaders());
+        MimeType contentType = message.getHeaders().get(MessageHeaders.CONTENT_TYPE, MimeType.class);
+        if (destination == null || !destination.startsWith(TRACKING_PREFIX)
+                || contentType == null || !MimeTypeUtils.APPLICATION_JSON.isCompatibleWith(contentType)
+                || !(message.getPayload() instanceof byte[])) {
+            return message;
+        }
+        byte[] json = (byte[]) message.getPayload();
+        byte[] smile = transcoded.get(ByteBuffer.wrap(json), key -> transcode(json));
+        if (smile == null) {
+            return message;
+        }
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.wrap(message);
+        // octet-stream is what makes the STOMP handler write a binary WebSocket frame
+        accessor.setContentType(MimeTypeUtils.APPLICATION_OCTET_STREAM);
+        accessor.setNativeHeader(FORMAT_HEADER, FORMAT_SMILE);
+        return MessageBuilder.createMessage(smile, accessor.getMessageHeaders());
+    }
+
+    private byte[] transcode(byte[] json) {
+        try {
+            return smileMapper.writeValueAsBytes(jsonMapper.readTree(json));
+        } catch (IOException e) {
+            log.warn("Could not transcode tracking payload to Smile, sending JSON", e);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.grocerydeliveryapp.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+// Two Hikari pools: the primary takes writes and anything not marked read-only, the optional
+// replica serves @Transactional(readOnly = true) work such as catalog reads, so browsing can
+// not starve checkout of connections. Without a replica URL both keys route to the primary
+@Slf4j
+@Configuration
+public class DataSourceConfig {
+
+    // Pool settings come from spring.datasource.hikari.*
+    @Bean
+    @FlywayDataSource
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    @ConfigurationProperties("app.datasource.replica")
+    @ConditionalOnProperty("app.datasource.replica.url")
+    public DataSourceProperties replicaDataSourceProperties() {
+        return new DataSourceProperties();
+    }
+
+    // Pool settings come from app.datasource.replica.hikari.*
+    @Bean
+    @ConfigurationProperties("app.datasource.replica.hikari")
+    @ConditionalOnProperty("app.datasource.replica.url")
+    public HikariDataSource replicaDataSource(
+            @Qualifier("replicaDataSourceProperties") DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                 @Qualifier("replicaDataSource") ObjectProvider<DataSource> replica) {
+        DataSource readOnly = replica.getIfAvailable(() -> primary);
+        log.info("Read-only transactions use the {} pool", readOnly == primary ? "primary" : "replica");
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(ReadReplicaRoutingDataSource.PRIMARY, primary);
+        targets.put(ReadReplicaRoutingDataSource.REPLICA, readOnly);
+        ReadReplicaRoutingDataSource routing = new ReadReplicaRoutingDataSource();
+        routing.setTargetDataSources(targets);
+        routing.setDefaultTargetDataSource(primary);
+        routing.afterPropertiesSet();
+
+        // The transaction manager asks for a connection before the read-only flag is bound;
+        // the proxy defers picking a pool until the first statement runs
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+}
@@ -0,0 +1,18 @@
+package com.grocerydeliveryapp.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Sends connections taken inside @Transactional(readOnly = true) to the replica and everything
+// else to the primary. Only sees the flag once the transaction is set up, so it has to sit
+// behind a LazyConnectionDataSourceProxy (see DataSourceConfig)
+public class ReadReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public static final String PRIMARY = "primary";
+    public static final String REPLICA = "replica";
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly() ? REPLICA : PRIMARY;
+    }
+}
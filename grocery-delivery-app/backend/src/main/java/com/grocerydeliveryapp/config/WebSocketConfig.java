@@ -1,20 +1,82 @@
 package com.grocerydeliveryapp.config;
 
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.messaging.simp.config.StompBrokerRelayRegistration;
+import org.springframework.util.StringUtils;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
 
 @Configuration
 @EnableWebSocketMessageBroker
+@RequiredArgsConstructor
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    public static final String BROKER_SIMPLE = "simple";
+    public static final String BROKER_RELAY = "relay";
+
+    // simple: in-memory broker, one node only; relay: external STOMP broker shared by all nodes
+    @Value("${app.websocket.broker:simple}")
+    private String brokerMode;
+
+    @Value("${app.websocket.relay.host:localhost}")
+    private String relayHost;
+
+    @Value("${app.websocket.relay.port:61613}")
+    private int relayPort;
+
+    @Value("${app.websocket.relay.login:guest}")
+    private String relayLogin;
+
+    @Value("${app.websocket.relay.passcode:guest}")
+    private String relayPasscode;
+
+    @Value("${app.websocket.relay.virtual-host:}")
+    private String relayVirtualHost;
+
+    private final CompactPayloadInterceptor compactPayloadInterceptor;
+
+    @Value("${app.websocket.inbound.core-pool-size:8}")
+    private int inboundCorePoolSize;
+
+    @Value("${app.websocket.inbound.max-pool-size:16}")
+    private int inboundMaxPoolSize;
+
+    @Value("${app.websocket.inbound.queue-capacity:1000}")
+    private int inboundQueueCapacity;
+
+    @Value("${app.websocket.outbound.core-pool-size:8}")
+    private int outboundCorePoolSize;
+
+    @Value("${app.websocket.outbound.max-pool-size:32}")
+    private int outboundMaxPoolSize;
+
+    @Value("${app.websocket.outbound.queue-capacity:5000}")
+    private int outboundQueueCapacity;
+
+    @Value("${app.websocket.transport.message-size-limit:8192}")
+    private int messageSizeLimit;
+
+    @Value("${app.websocket.transport.send-buffer-size-limit:8192}")
+    private int sendBufferSizeLimit;
+
+    @Value("${app.websocket.transport.send-time-limit-ms:20000}")
+    private int sendTimeLimit;
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
-        // Enable a simple memory-based message broker to send messages to clients
         // Prefix for messages FROM server TO client
-        config.enableSimpleBroker("/topic", "/queue", "/user");
+        if (BROKER_RELAY.equalsIgnoreCase(brokerMode)) {
+            enableBrokerRelay(config);
+        } else {
+            // Enable a simple memory-based message broker to send messages to clients
+            config.enableSimpleBroker("/topic", "/queue");
+        }
         
         // Prefix for messages FROM client TO server
         config.setApplicationDestinationPrefixes("/app");
@@ -23,6 +85,56 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
         config.setUserDestinationPrefix("/user");
     }
 
+    // Every node publishes to and subscribes through the external broker, so a client
+    // connected to any node sees updates committed on any other
+    private void enableBrokerRelay(MessageBrokerRegistry config) {
+        StompBrokerRelayRegistration relay = config.enableStompBrokerRelay("/topic", "/queue")
+                .setRelayHost(relayHost)
+                .setRelayPort(relayPort)
+                .setClientLogin(relayLogin)
+                .setClientPasscode(relayPasscode)
+                .setSystemLogin(relayLogin)
+                .setSystemPasscode(relayPasscode)
+                // /user destinations resolve to sessions on whichever node holds them
+                .setUserDestinationBroadcast("/topic/unresolved-user-destination")
+                .setUserRegistryBroadcast("/topic/simp-user-registry");
+        if (StringUtils.hasText(relayVirtualHost)) {
+            relay.setVirtualHost(relayVirtualHost);
+        }
+    }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        // Frames from clients: subscriptions, courier pings and other @MessageMapping calls
+        registration.taskExecutor()
+                .corePoolSize(inboundCorePoolSize)
+                .maxPoolSize(inboundMaxPoolSize)
+                .queueCapacity(inboundQueueCapacity);
+        // Sees CONNECT/DISCONNECT to track which sessions asked for compact payloads
+        registration.interceptors(compactPayloadInterceptor);
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        // Frames to clients. A slow client holds at most one of these threads, and only
+        // until the send time limit below, so the pool stays free for everyone else
+        registration.taskExecutor()
+                .corePoolSize(outboundCorePoolSize)
+                .maxPoolSize(outboundMaxPoolSize)
+                .queueCapacity(outboundQueueCapacity);
+        registration.interceptors(compactPayloadInterceptor);
+    }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        // Each session buffers what it cannot send yet. Once that buffer passes its limit, or a
+        // single send blocks past the time limit, the session is closed as SESSION_NOT_RELIABLE
+        // instead of backing up the outbound channel; WebSocketSessionMonitor counts those
+        registration.setMessageSizeLimit(messageSizeLimit);
+        registration.setSendBufferSizeLimit(sendBufferSizeLimit);
+        registration.setSendTimeLimit(sendTimeLimit);
+    }
+
     @Override
     public void registerStompEndpoints(StompEndpointRegistry registry) {
         // WebSocket endpoint that clients will use to connect to our WebSocket server
@@ -3,9 +3,14 @@ package com.grocerydeliveryapp.controller;
 import com.grocerydeliveryapp.dto.auth.*;
 import com.grocerydeliveryapp.service.AuthService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
+import javax.persistence.EntityNotFoundException;
 import javax.validation.Valid;
 
 @RestController
@@ -31,6 +36,14 @@ public class AuthController {
         return ResponseEntity.ok(authService.verifyOtp(request));
     }
 
+    @PostMapping("/logout-all")
+    public ResponseEntity<AuthResponse> logoutAll(@AuthenticationPrincipal UserDetails userDetails) {
+        if (userDetails == null) {
+            throw new BadCredentialsException("Not authenticated");
+        }
+        return ResponseEntity.ok(authService.revokeTokens(userDetails.getUsername()));
+    }
+
     @PostMapping("/resend-otp")
     public ResponseEntity<AuthResponse> resendOtp(@RequestParam String email) {
         return ResponseEntity.ok(authService.resendOtp(email));
@@ -54,6 +67,19 @@ public class AuthController {
         return ResponseEntity.ok(true); // Placeholder response
     }
 
+    // Handled here rather than by the global advice, which the RuntimeException handler below would shadow
+    @ExceptionHandler(BadCredentialsException.class)
+    public ResponseEntity<AuthResponse> handleBadCredentialsException(BadCredentialsException e) {
+        return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                .body(new AuthResponse(e.getMessage()));
+    }
+
+    @ExceptionHandler(EntityNotFoundException.class)
+    public ResponseEntity<AuthResponse> handleEntityNotFoundException(EntityNotFoundException e) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(new AuthResponse(e.getMessage()));
+    }
+
     @ExceptionHandler(RuntimeException.class)
     public ResponseEntity<AuthResponse> handleRuntimeException(RuntimeException e) {
         return ResponseEntity.badRequest()
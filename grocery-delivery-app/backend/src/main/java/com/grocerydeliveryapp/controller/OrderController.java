@@ -1,20 +1,31 @@
 package com.grocerydeliveryapp.controller;
 
+import com.grocerydeliveryapp.dto.common.CursorPage;
 import com.grocerydeliveryapp.dto.order.OrderRequest;
 import com.grocerydeliveryapp.dto.order.OrderResponse;
+import com.grocerydeliveryapp.dto.order.OrderStatisticsResponse;
 import com.grocerydeliveryapp.model.OrderStatus;
+import com.grocerydeliveryapp.service.DeliveryDelayMonitor;
+import com.grocerydeliveryapp.service.OrderExportService;
 import com.grocerydeliveryapp.service.OrderService;
+import com.grocerydeliveryapp.service.OrderStatisticsService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
+import java.io.IOException;
+import java.time.LocalDateTime;
 
 @RestController
 @RequestMapping("/api/orders")
@@ -23,6 +34,9 @@ import javax.validation.Valid;
 public class OrderController {
 
     private final OrderService orderService;
+    private final DeliveryDelayMonitor deliveryDelayMonitor;
+    private final OrderStatisticsService orderStatisticsService;
+    private final OrderExportService orderExportService;
 
     @PostMapping
     public ResponseEntity<OrderResponse> createOrder(
@@ -56,6 +70,16 @@ public class OrderController {
         return ResponseEntity.ok(orderService.getUserOrders(userId, pageRequest));
     }
 
+    @GetMapping("/user/scroll")
+    public ResponseEntity<CursorPage<OrderResponse>> scrollUserOrders(
+            @AuthenticationPrincipal UserDetails userDetails,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "10") int size) {
+
+        Long userId = Long.parseLong(userDetails.getUsername());
+        return ResponseEntity.ok(orderService.scrollUserOrders(userId, after, size));
+    }
+
     @PostMapping("/{orderId}/cancel")
     public ResponseEntity<OrderResponse> cancelOrder(
             @PathVariable Long orderId,
@@ -96,15 +120,40 @@ public class OrderController {
     public ResponseEntity<Page<OrderResponse>> getDelayedOrders(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
-        // Implementation needed in OrderService
-        return ResponseEntity.ok().build();
+        // Served from the delay monitor's index rather than a scan of the orders table
+        Page<Long> delayedIds = deliveryDelayMonitor.getDelayedOrderIds(PageRequest.of(page, size));
+        return ResponseEntity.ok(new PageImpl<>(
+                orderService.getOrdersByIds(delayedIds.getContent()),
+                delayedIds.getPageable(),
+                delayedIds.getTotalElements()));
     }
 
     @GetMapping("/admin/statistics")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<Object> getOrderStatistics() {
-        // Implementation needed in OrderService
-        return ResponseEntity.ok().build();
+    public ResponseEntity<OrderStatisticsResponse> getOrderStatistics() {
+        // Served from running counters rather than aggregates over the orders table
+        return ResponseEntity.ok(orderStatisticsService.getStatistics());
+    }
+
+    @GetMapping("/admin/export")
+    @PreAuthorize("hasRole('ADMIN')")
+    public void exportOrders(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) OrderStatus status,
+            @RequestParam(required = false) String paymentMethod,
+            @RequestParam(defaultValue = "CSV") OrderExportService.Format format,
+            HttpServletResponse response) throws IOException {
+        // Checked before any header is set, so a bad range still gets a plain 400 error body
+        if (!from.isBefore(to)) {
+            throw new IllegalStateException("Export range must end after it starts");
+        }
+        // Rows are written to the response as they are read, never collected first
+        response.setContentType(format.getContentType());
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"orders." + format.getExtension() + "\"");
+        orderExportService.exportOrders(from, to, status, paymentMethod, format, response.getOutputStream());
     }
 
     // Delivery Partner endpoints
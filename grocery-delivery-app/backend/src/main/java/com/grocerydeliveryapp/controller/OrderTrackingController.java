@@ -1,70 +1,90 @@
 package com.grocerydeliveryapp.controller;
 
+import com.grocerydeliveryapp.dto.order.CourierLocationPing;
 import com.grocerydeliveryapp.dto.order.OrderResponse;
-import com.grocerydeliveryapp.model.OrderStatus;
+import com.grocerydeliveryapp.dto.order.OrderTrackingUpdate;
+import com.grocerydeliveryapp.service.CourierLocationBroadcaster;
 import com.grocerydeliveryapp.service.OrderService;
+import com.grocerydeliveryapp.service.OrderTrackingBroadcaster;
 import lombok.RequiredArgsConstructor;
 import org.springframework.messaging.handler.annotation.DestinationVariable;
 import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.messaging.handler.annotation.SendTo;
+import org.springframework.messaging.simp.SimpAttributes;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Controller;
 
+import javax.validation.Valid;
+import java.security.Principal;
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Controller
 @RequiredArgsConstructor
 public class OrderTrackingController {
 
+    static final String COURIER_ROLE = "ROLE_DELIVERY_PARTNER";
+    static final String CLEARED_ORDERS_ATTRIBUTE = "courier.clearedOrders";
+
     private final OrderService orderService;
     private final SimpMessagingTemplate messagingTemplate;
+    private final CourierLocationBroadcaster locationBroadcaster;
+    private final OrderTrackingBroadcaster trackingBroadcaster;
 
     @MessageMapping("/order.track/{orderId}")
     @SendTo("/topic/order/{orderId}")
-    public OrderResponse trackOrder(@DestinationVariable Long orderId) {
-        return orderService.getOrderById(orderId, null); // null for userId as this is public tracking
+    public OrderTrackingUpdate trackOrder(@DestinationVariable Long orderId) {
+        // null for userId as this is public tracking
+        return OrderTrackingUpdate.from(orderService.getOrderById(orderId, null));
     }
 
-    // Method to be called from OrderService when order status changes
-    public void sendOrderStatusUpdate(Long orderId, Long userId, OrderStatus newStatus) {
-        // Send to specific user's queue
-        String userDestination = String.format("/queue/user/%d/orders/%d", userId, orderId);
-        OrderResponse orderResponse = orderService.getOrderById(orderId, userId);
-        messagingTemplate.convertAndSend(userDestination, orderResponse);
-
-        // Send to public topic (for tracking without authentication)
-        String publicDestination = String.format("/topic/order/%d", orderId);
-        messagingTemplate.convertAndSend(publicDestination, orderResponse);
+    // Courier devices report here; subscribers receive the coalesced position on the next tick
+    @MessageMapping("/courier.location/{orderId}")
+    public void receiveLocation(@DestinationVariable Long orderId, @Payload @Valid CourierLocationPing ping,
+                                Principal principal, SimpMessageHeaderAccessor headers) {
+        requireAssignedCourier(orderId, principal, headers);
+        long timestamp = ping.getTimestamp() != null ? ping.getTimestamp() : System.currentTimeMillis();
+        locationBroadcaster.record(orderId, ping.getLatitude(), ping.getLongitude(), timestamp);
+    }
 
-        // Send delivery partner updates if order is out for delivery
-        if (newStatus == OrderStatus.OUT_FOR_DELIVERY) {
-            sendDeliveryPartnerUpdate(orderId, orderResponse);
+    // Only the courier assigned to the order may move its pin. Pings arrive every few seconds,
+    // so the assignment is looked up once per session and order and then remembered on the session
+    @SuppressWarnings("unchecked")
+    private void requireAssignedCourier(Long orderId, Principal principal, SimpMessageHeaderAccessor headers) {
+        if (!(principal instanceof Authentication) || ((Authentication) principal).getAuthorities().stream()
+                .noneMatch(authority -> COURIER_ROLE.equals(authority.getAuthority()))) {
+            throw new AccessDeniedException("Courier authentication required");
+        }
+        Set<Long> cleared = null;
+        Map<String, Object> sessionAttributes = headers.getSessionAttributes();
+        if (sessionAttributes != null) {
+            // The attribute map itself is not thread-safe; pings on one session can run in parallel
+            synchronized (new SimpAttributes(headers.getSessionId(), sessionAttributes).getSessionMutex()) {
+                cleared = (Set<Long>) sessionAttributes.computeIfAbsent(
+                        CLEARED_ORDERS_ATTRIBUTE, key -> ConcurrentHashMap.newKeySet());
+            }
+        }
+        if (cleared != null && cleared.contains(orderId)) {
+            return;
+        }
+        if (!orderService.isAssignedCourier(orderId, principal.getName())) {
+            throw new AccessDeniedException("Order " + orderId + " is not assigned to this courier");
+        }
+        if (cleared != null) {
+            cleared.add(orderId);
         }
     }
 
     // Method to send location updates for orders that are out for delivery
     public void sendLocationUpdate(Long orderId, Double latitude, Double longitude) {
-        Map<String, Object> locationUpdate = new HashMap<>();
-        locationUpdate.put("orderId", orderId);
-        locationUpdate.put("latitude", latitude);
-        locationUpdate.put("longitude", longitude);
-        locationUpdate.put("timestamp", LocalDateTime.now());
-
-        String destination = String.format("/topic/order/%d/location", orderId);
-        messagingTemplate.convertAndSend(destination, locationUpdate);
-    }
-
-    private void sendDeliveryPartnerUpdate(Long orderId, OrderResponse orderResponse) {
-        Map<String, Object> deliveryUpdate = new HashMap<>();
-        deliveryUpdate.put("orderId", orderId);
-        deliveryUpdate.put("estimatedDeliveryTime", orderResponse.getEstimatedDeliveryTime());
-        deliveryUpdate.put("deliveryPartnerName", orderResponse.getDeliveryPartnerName());
-        deliveryUpdate.put("deliveryPartnerPhone", orderResponse.getDeliveryPartnerPhone());
-
-        String destination = String.format("/topic/order/%d/delivery", orderId);
-        messagingTemplate.convertAndSend(destination, deliveryUpdate);
+        locationBroadcaster.record(orderId, latitude, longitude, System.currentTimeMillis());
     }
 
     // Method to send order preparation updates
@@ -81,19 +101,7 @@ public class OrderTrackingController {
 
     // Method to notify about delivery delays
     public void sendDeliveryDelayNotification(Long orderId, Long userId, String reason, int delayMinutes) {
-        Map<String, Object> delayUpdate = new HashMap<>();
-        delayUpdate.put("orderId", orderId);
-        delayUpdate.put("reason", reason);
-        delayUpdate.put("delayMinutes", delayMinutes);
-        delayUpdate.put("newEstimatedTime", LocalDateTime.now().plusMinutes(delayMinutes));
-
-        // Send to specific user
-        String userDestination = String.format("/queue/user/%d/orders/%d/delay", userId, orderId);
-        messagingTemplate.convertAndSend(userDestination, delayUpdate);
-
-        // Send to public topic
-        String publicDestination = String.format("/topic/order/%d/delay", orderId);
-        messagingTemplate.convertAndSend(publicDestination, delayUpdate);
+        trackingBroadcaster.sendDeliveryDelayNotification(orderId, userId, reason, delayMinutes);
     }
 
     // Method to send delivery completion confirmation
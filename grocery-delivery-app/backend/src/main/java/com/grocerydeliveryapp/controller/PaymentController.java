@@ -4,6 +4,7 @@ import com.grocerydeliveryapp.dto.order.OrderResponse;
 import com.grocerydeliveryapp.exception.PaymentException;
 import com.grocerydeliveryapp.model.Order;
 import com.grocerydeliveryapp.service.OrderService;
+import com.grocerydeliveryapp.service.PaymentIdempotencyService;
 import com.grocerydeliveryapp.service.PaymentService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
@@ -13,6 +14,8 @@ import org.springframework.web.bind.annotation.*;
 
 import javax.validation.Valid;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @RestController
 @RequestMapping("/api/payments")
@@ -22,32 +25,73 @@ public class PaymentController {
 
     private final PaymentService paymentService;
     private final OrderService orderService;
+    private final PaymentIdempotencyService paymentIdempotencyService;
 
+    // Returns immediately; the servlet thread is released while the gateway call
+    // runs on the payment executor, and the order is updated in its own short transaction.
+    // Retries carrying the same Idempotency-Key get the original bill instead of a second charge.
     @PostMapping("/process/{orderId}")
-    public ResponseEntity<Map<String, Object>> processPayment(
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> processPayment(
             @PathVariable Long orderId,
             @RequestParam String paymentMethod,
             @RequestBody(required = false) Map<String, String> paymentDetails,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
             @AuthenticationPrincipal UserDetails userDetails) {
         
         Long userId = Long.parseLong(userDetails.getUsername());
         OrderResponse orderResponse = orderService.getOrderById(orderId, userId);
-        Order order = orderService.getOrderEntity(orderId); // You'll need to add this method to OrderService
 
+        CompletableFuture<Map<String, Object>> payment;
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            payment = submitPayment(orderId, paymentMethod, paymentDetails);
+        } else {
+            String scopedKey = userId + ":" + orderId + ":" + idempotencyKey;
+            String fingerprint = PaymentIdempotencyService.fingerprint(
+                    orderId, orderResponse.getTotalAmount(), paymentMethod);
+            payment = paymentIdempotencyService.execute(scopedKey, fingerprint,
+                    () -> submitPayment(orderId, paymentMethod, paymentDetails));
+        }
+        return payment.thenApply(ResponseEntity::ok);
+    }
+
+    private CompletableFuture<Map<String, Object>> submitPayment(
+            Long orderId, String paymentMethod, Map<String, String> paymentDetails) {
+        Order order = orderService.getOrderEntity(orderId);
+        if ("PAID".equals(order.getPaymentStatus())) {
+            throw PaymentException.alreadyPaid(order.getPaymentTransactionId());
+        }
+
+        CompletableFuture<Map<String, Object>> payment;
         try {
-            Map<String, Object> paymentResult = paymentService.processPayment(order, paymentMethod, paymentDetails);
-            
+            payment = paymentService.processPayment(order, paymentMethod, paymentDetails);
+        } catch (PaymentException e) {
+            // Rejected before reaching the gateway
+            orderService.updateOrderPaymentStatus(orderId, "FAILED", e.getTransactionId());
+            throw e;
+        }
+
+        return payment.handle((paymentResult, error) -> {
+            if (error != null) {
+                // Payment failed, update order status
+                PaymentException paymentError = toPaymentException(error);
+                orderService.updateOrderPaymentStatus(orderId, "FAILED", paymentError.getTransactionId());
+                throw paymentError;
+            }
+
             // Update order status after successful payment
             if (!"COD".equalsIgnoreCase(paymentMethod)) {
                 orderService.updateOrderPaymentStatus(orderId, "PAID", paymentResult.get("transactionId").toString());
             }
+            return paymentResult;
+        });
+    }
 
-            return ResponseEntity.ok(paymentResult);
-        } catch (PaymentException e) {
-            // Payment failed, update order status
-            orderService.updateOrderPaymentStatus(orderId, "FAILED", e.getTransactionId());
-            throw e;
+    private PaymentException toPaymentException(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof PaymentException) {
+            return (PaymentException) cause;
         }
+        return new PaymentException("Payment processing failed", cause);
     }
 
     @PostMapping("/verify-upi")
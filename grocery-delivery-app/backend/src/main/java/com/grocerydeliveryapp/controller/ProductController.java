@@ -1,7 +1,13 @@
 package com.grocerydeliveryapp.controller;
 
+import com.grocerydeliveryapp.dto.common.CursorPage;
+import com.grocerydeliveryapp.dto.product.ProductImportReport;
 import com.grocerydeliveryapp.dto.product.ProductRequest;
 import com.grocerydeliveryapp.dto.product.ProductResponse;
+import com.grocerydeliveryapp.dto.product.StockAdjustmentRequest;
+import com.grocerydeliveryapp.dto.product.StockAdjustmentResponse;
+import com.grocerydeliveryapp.service.InventoryService;
+import com.grocerydeliveryapp.service.ProductImportService;
 import com.grocerydeliveryapp.service.ProductService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
@@ -11,7 +17,9 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.util.List;
 
@@ -22,6 +30,8 @@ import java.util.List;
 public class ProductController {
 
     private final ProductService productService;
+    private final ProductImportService productImportService;
+    private final InventoryService inventoryService;
 
     @GetMapping
     public ResponseEntity<Page<ProductResponse>> getAllProducts(
@@ -36,6 +46,14 @@ public class ProductController {
         return ResponseEntity.ok(productService.getAllProducts(pageRequest));
     }
 
+    @GetMapping("/scroll")
+    public ResponseEntity<CursorPage<ProductResponse>> scrollProducts(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "20") int size) {
+
+        return ResponseEntity.ok(productService.scrollProducts(after, size));
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<ProductResponse> getProductById(@PathVariable Long id) {
         return ResponseEntity.ok(productService.getProductById(id));
@@ -129,6 +147,21 @@ public class ProductController {
         return ResponseEntity.noContent().build();
     }
 
+    // The feed is the raw request body, read as a stream rather than buffered as a multipart upload
+    @PostMapping("/admin/import")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ProductImportReport> importProducts(
+            @RequestParam(defaultValue = "CSV") ProductImportService.Format format,
+            HttpServletRequest request) throws IOException {
+        return ResponseEntity.ok(productImportService.importProducts(request.getInputStream(), format));
+    }
+
+    @PostMapping("/admin/stock")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StockAdjustmentResponse> adjustStock(@Valid @RequestBody StockAdjustmentRequest request) {
+        return ResponseEntity.ok(inventoryService.adjustStock(request.getAdjustments()));
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<String> handleException(Exception e) {
         return ResponseEntity.badRequest().body(e.getMessage());
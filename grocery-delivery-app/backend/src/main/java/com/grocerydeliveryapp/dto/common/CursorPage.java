@@ -0,0 +1,31 @@
+package com.grocerydeliveryapp.dto.common;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+    private List<T> content;
+    private int size;
+    private boolean hasNext;
+    // Pass back as "after" to fetch the next page; null on the last page
+    private String nextCursor;
+
+    public static <E, T> CursorPage<T> of(Slice<E> slice, Function<E, T> mapper, Function<E, PageCursor> cursorOf) {
+        List<E> rows = slice.getContent();
+        String nextCursor = slice.hasNext() && !rows.isEmpty()
+                ? cursorOf.apply(rows.get(rows.size() - 1)).encode()
+                : null;
+        List<T> content = rows.stream().map(mapper).collect(Collectors.toList());
+        return new CursorPage<>(content, content.size(), slice.hasNext(), nextCursor);
+    }
+}
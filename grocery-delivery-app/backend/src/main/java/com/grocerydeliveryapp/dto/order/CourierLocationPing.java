@@ -0,0 +1,21 @@
+package com.grocerydeliveryapp.dto.order;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import javax.validation.constraints.NotNull;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CourierLocationPing {
+    @NotNull
+    private Double latitude;
+
+    @NotNull
+    private Double longitude;
+
+    // Device time of the fix in epoch millis; server receive time is used when absent
+    private Long timestamp;
+}
@@ -0,0 +1,19 @@
+package com.grocerydeliveryapp.dto.order;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// Compact wire format for /topic/order/{id}/location; sent many times a second across all orders
+@Getter
+@AllArgsConstructor
+public class LocationUpdate {
+    private final long id;
+    private final double lat;
+    private final double lng;
+    private final long ts;
+
+    // Same schema version as OrderTrackingUpdate, so clients check one field on every tracking topic
+    public int getV() {
+        return OrderTrackingUpdate.VERSION;
+    }
+}
@@ -0,0 +1,43 @@
+package com.grocerydeliveryapp.dto.order;
+
+import com.grocerydeliveryapp.model.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderStatisticsResponse {
+    private long totalOrders;
+    private Map<OrderStatus, Long> ordersByStatus;
+
+    // Value of delivered orders
+    private BigDecimal revenue;
+
+    // Null until the first delivered order is rated
+    private Double averageRating;
+    private long ratedOrders;
+
+    // Orders placed in each of the last hours, oldest first
+    private List<HourlyOrders> ordersPerHour;
+
+    // When this node last merged its counters with the shared totals
+    private LocalDateTime checkpointedAt;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class HourlyOrders {
+        private LocalDateTime hour;
+        private long orders;
+    }
+}
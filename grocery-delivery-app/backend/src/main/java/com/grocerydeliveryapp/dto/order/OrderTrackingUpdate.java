@@ -0,0 +1,46 @@
+package com.grocerydeliveryapp.dto.order;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.grocerydeliveryapp.model.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+// Slim payload for the public /topic/order/{id} tracking topics. Carries only what a tracking
+// screen renders, never customer, billing or payment details. Bump VERSION when fields change
+// meaning; clients ignore fields they do not know
+@Getter
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class OrderTrackingUpdate {
+
+    public static final int VERSION = 1;
+
+    private final int v;
+    private final long id;
+    private final OrderStatus status;
+    // Epoch millis, cheaper to encode and parse than ISO timestamps
+    private final Long eta;
+    private final Long deliveredAt;
+    private final String partnerName;
+    private final String partnerPhone;
+    private final long ts;
+
+    public static OrderTrackingUpdate from(OrderResponse order) {
+        return new OrderTrackingUpdate(
+                VERSION,
+                order.getId(),
+                order.getStatus(),
+                toEpochMillis(order.getEstimatedDeliveryTime()),
+                toEpochMillis(order.getActualDeliveryTime()),
+                order.getDeliveryPartnerName(),
+                order.getDeliveryPartnerPhone(),
+                System.currentTimeMillis());
+    }
+
+    private static Long toEpochMillis(LocalDateTime time) {
+        return time != null ? time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : null;
+    }
+}
@@ -0,0 +1,49 @@
+package com.grocerydeliveryapp.dto.product;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductImportReport {
+    private long totalRows;
+    private long inserted;
+    private long updated;
+    private long rejectedCount;
+
+    // The first rejected rows only, up to app.catalog.import.max-reported-rejections
+    private List<RejectedRow> rejected;
+    private List<ChunkStats> chunks;
+    private long elapsedMs;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RejectedRow {
+        // Line in the feed where the row starts
+        private long line;
+        private String sku;
+        private List<String> errors;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ChunkStats {
+        private int chunk;
+        private int rows;
+        private int inserted;
+        private int updated;
+        private int rejected;
+        private long elapsedMs;
+        private double rowsPerSecond;
+    }
+}
@@ -6,10 +6,14 @@ import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import javax.validation.constraints.Size;
 import java.math.BigDecimal;
 
 @Data
 public class ProductRequest {
+    @Size(max = 64, message = "SKU must be at most 64 characters")
+    private String sku;
+
     @NotBlank(message = "Product name is required")
     private String name;
 
@@ -1,5 +1,6 @@
 package com.grocerydeliveryapp.dto.product;
 
+import com.grocerydeliveryapp.model.Product;
 import lombok.Data;
 import lombok.Builder;
 import lombok.NoArgsConstructor;
@@ -9,11 +10,12 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class ProductResponse {
     private Long id;
+    private String sku;
     private String name;
     private String description;
     private BigDecimal price;
@@ -37,6 +39,30 @@ public class ProductResponse {
     private String discountTag;
     private String stockStatus;
     
+    public static ProductResponse from(Product product) {
+        ProductResponse response = ProductResponse.builder()
+                .id(product.getId())
+                .sku(product.getSku())
+                .name(product.getName())
+                .description(product.getDescription())
+                .price(product.getPrice())
+                .stockQuantity(product.getStockQuantity())
+                .category(product.getCategory())
+                .imageUrl(product.getImageUrl())
+                .isAvailable(product.isAvailable())
+                .discountPercentage(product.getDiscountPercentage())
+                .unit(product.getUnit())
+                .brand(product.getBrand())
+                .isFeatured(product.isFeatured())
+                .nutritionalInfo(product.getNutritionalInfo())
+                .createdAt(product.getCreatedAt())
+                .updatedAt(product.getUpdatedAt())
+                .build();
+
+        response.calculateDerivedFields();
+        return response;
+    }
+
     public void calculateDerivedFields() {
         // Calculate discounted price
         if (discountPercentage != null && discountPercentage > 0) {
@@ -0,0 +1,37 @@
+package com.grocerydeliveryapp.dto.product;
+
+import lombok.Data;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import java.util.List;
+
+@Data
+public class StockAdjustmentRequest {
+
+    public enum Mode {
+        // Replace the stock level with the warehouse count
+        ABSOLUTE,
+        // Add to (or, when negative, take from) the stock level
+        DELTA
+    }
+
+    // Applied in this order, so a SKU may appear more than once
+    @NotEmpty(message = "At least one adjustment is required")
+    @Size(max = 10000, message = "At most 10000 adjustments per request")
+    private List<@Valid Adjustment> adjustments;
+
+    @Data
+    public static class Adjustment {
+        @NotBlank(message = "SKU is required")
+        private String sku;
+
+        @NotNull(message = "Quantity is required")
+        private Integer quantity;
+
+        private Mode mode = Mode.ABSOLUTE;
+    }
+}
@@ -0,0 +1,23 @@
+package com.grocerydeliveryapp.dto.product;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockAdjustmentResponse {
+    private int applied;
+    private List<RejectedAdjustment> rejected;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RejectedAdjustment {
+        private String sku;
+        private String reason;
+    }
+}
@@ -0,0 +1,103 @@
+package com.grocerydeliveryapp.event;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.ClassUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Fans committed order status changes out to every OrderStatusSubscriber.
+// Each subscriber has its own striped single-thread lanes: events for one order always
+// land on the same lane and are handled in commit order, while a slow subscriber only
+// delays itself.
+@Slf4j
+@Component
+public class OrderEventBus implements DisposableBean {
+
+    private final List<Subscription> subscriptions = new ArrayList<>();
+    private final LongAdder dropped = new LongAdder();
+
+    public OrderEventBus(List<OrderStatusSubscriber> subscribers,
+                         @Value("${app.order-events.lanes:4}") int lanes,
+                         @Value("${app.order-events.queue-capacity:10000}") int queueCapacity) {
+        for (OrderStatusSubscriber subscriber : subscribers) {
+            subscriptions.add(new Subscription(subscriber, lanes, queueCapacity));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        subscriptions.forEach(subscription -> subscription.submit(event));
+    }
+
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        subscriptions.forEach(Subscription::shutdown);
+        for (Subscription subscription : subscriptions) {
+            subscription.awaitTermination(5, TimeUnit.SECONDS);
+        }
+    }
+
+    private class Subscription {
+        private final OrderStatusSubscriber subscriber;
+        private final String name;
+        private final ExecutorService[] lanes;
+
+        private Subscription(OrderStatusSubscriber subscriber, int laneCount, int queueCapacity) {
+            this.subscriber = subscriber;
+            this.name = ClassUtils.getUserClass(subscriber).getSimpleName();
+            this.lanes = new ExecutorService[laneCount];
+            String prefix = "order-events-" + name + "-";
+            for (int i = 0; i < laneCount; i++) {
+                lanes[i] = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                        new LinkedBlockingQueue<>(queueCapacity), new CustomizableThreadFactory(prefix + i + "-"));
+            }
+        }
+
+        private void submit(OrderStatusChangedEvent event) {
+            ExecutorService lane = lanes[Math.floorMod(event.getOrderId().hashCode(), lanes.length)];
+            try {
+                lane.execute(() -> deliver(event));
+            } catch (RejectedExecutionException e) {
+                // Lane is saturated; never block the committing thread for a notification
+                dropped.increment();
+                log.warn("Dropped status change of order {} for {}: lane full", event.getOrderId(), name);
+            }
+        }
+
+        private void deliver(OrderStatusChangedEvent event) {
+            try {
+                subscriber.onOrderStatusChanged(event);
+            } catch (Exception e) {
+                log.error("{} failed on status change of order {}", name, event.getOrderId(), e);
+            }
+        }
+
+        private void shutdown() {
+            for (ExecutorService lane : lanes) {
+                lane.shutdown();
+            }
+        }
+
+        private void awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+            for (ExecutorService lane : lanes) {
+                lane.awaitTermination(timeout, unit);
+            }
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.grocerydeliveryapp.event;
+
+import com.grocerydeliveryapp.dto.order.OrderResponse;
+import com.grocerydeliveryapp.model.OrderStatus;
+import lombok.Getter;
+
+import java.time.Instant;
+
+// Published after an order's status changes; carries the already-mapped order so
+// subscribers never have to go back to the database for it
+@Getter
+public class OrderStatusChangedEvent {
+
+    private final Long orderId;
+    private final Long userId;
+
+    // Null when the order has just been placed
+    private final OrderStatus previousStatus;
+    private final OrderStatus newStatus;
+    private final OrderResponse order;
+    private final Instant occurredAt;
+
+    public OrderStatusChangedEvent(Long userId, OrderStatus previousStatus, OrderResponse order) {
+        this.orderId = order.getId();
+        this.userId = userId;
+        this.previousStatus = previousStatus;
+        this.newStatus = order.getStatus();
+        this.order = order;
+        this.occurredAt = Instant.now();
+    }
+}
@@ -0,0 +1,7 @@
+package com.grocerydeliveryapp.event;
+
+// Consumer of order status changes; called on an OrderEventBus lane, never on the request thread
+public interface OrderStatusSubscriber {
+
+    void onOrderStatusChanged(OrderStatusChangedEvent event);
+}
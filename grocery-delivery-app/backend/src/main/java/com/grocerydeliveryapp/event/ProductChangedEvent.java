@@ -0,0 +1,30 @@
+package com.grocerydeliveryapp.event;
+
+import lombok.Getter;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Set;
+
+@Getter
+public class ProductChangedEvent {
+
+    private final Set<Long> productIds;
+
+    // Categories whose listings may have gained or lost a product
+    private final Set<String> categories;
+
+    // True when listing membership may have changed (create, delete, price or flag edits),
+    // false for stock-only changes
+    private final boolean listingsChanged;
+
+    public ProductChangedEvent(Collection<Long> productIds, Collection<String> categories, boolean listingsChanged) {
+        this.productIds = Set.copyOf(productIds);
+        this.categories = Set.copyOf(categories);
+        this.listingsChanged = listingsChanged;
+    }
+
+    public static ProductChangedEvent stockChanged(Collection<Long> productIds) {
+        return new ProductChangedEvent(productIds, Collections.emptySet(), false);
+    }
+}
@@ -0,0 +1,11 @@
+package com.grocerydeliveryapp.event;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+// Published when anything that feeds a user's authorities changes (roles, verification)
+@Getter
+@RequiredArgsConstructor
+public class UserSecurityChangedEvent {
+    private final String username;
+}
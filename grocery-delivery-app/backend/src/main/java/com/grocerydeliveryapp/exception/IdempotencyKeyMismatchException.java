@@ -0,0 +1,8 @@
+package com.grocerydeliveryapp.exception;
+
+// An Idempotency-Key was sent again with a request that differs from the one it was first used for
+public class IdempotencyKeyMismatchException extends RuntimeException {
+    public IdempotencyKeyMismatchException(String message) {
+        super(message);
+    }
+}
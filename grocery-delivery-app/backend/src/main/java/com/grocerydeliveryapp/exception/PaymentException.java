@@ -38,6 +38,7 @@ public class PaymentException extends RuntimeException {
         UPI_TIMEOUT,
         TRANSACTION_FAILED,
         PAYMENT_GATEWAY_ERROR,
+        ALREADY_PAID,
         GENERAL_ERROR
     }
 
@@ -86,6 +87,14 @@ public class PaymentException extends RuntimeException {
         );
     }
 
+    public static PaymentException alreadyPaid(String transactionId) {
+        return new PaymentException(
+            "Order has already been paid",
+            transactionId,
+            PaymentErrorType.ALREADY_PAID
+        );
+    }
+
     public static PaymentException gatewayError(String transactionId, String gatewayMessage) {
         return new PaymentException(
             "Payment gateway error: " + gatewayMessage,
@@ -0,0 +1,73 @@
+package com.grocerydeliveryapp.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import javax.persistence.*;
+import javax.validation.constraints.NotNull;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "email_outbox", indexes = {
+        @Index(name = "idx_email_outbox_status_next_attempt", columnList = "status, next_attempt_at")
+})
+public class EmailOutboxMessage {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "email_outbox_seq")
+    @SequenceGenerator(name = "email_outbox_seq", sequenceName = "email_outbox_seq", allocationSize = 50)
+    private Long id;
+
+    @NotNull
+    @Column(nullable = false)
+    private String recipient;
+
+    @NotNull
+    @Column(nullable = false)
+    private String subject;
+
+    // Plain-text body; null when the message is rendered from a template
+    @Lob
+    private String body;
+
+    private String templateName;
+
+    // Template variables as JSON, rendered only when the message is sent
+    @Lob
+    private String templateModel;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private EmailOutboxStatus status;
+
+    private int attempts;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(length = 1000)
+    private String lastError;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    private LocalDateTime sentAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        if (status == null) {
+            status = EmailOutboxStatus.PENDING;
+        }
+        if (nextAttemptAt == null) {
+            nextAttemptAt = createdAt;
+        }
+    }
+
+    public boolean isTemplated() {
+        return templateName != null;
+    }
+}
@@ -0,0 +1,7 @@
+package com.grocerydeliveryapp.model;
+
+public enum EmailOutboxStatus {
+    PENDING,
+    SENT,
+    FAILED
+}
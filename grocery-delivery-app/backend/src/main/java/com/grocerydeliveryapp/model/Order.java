@@ -14,18 +14,20 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        @Index(name = "idx_orders_user_created_at_id", columnList = "user_id, created_at, id")
+})
 public class Order {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
     @OneToMany(cascade = CascadeType.ALL, orphanRemoval = true)
-    @JoinColumn(name = "order_id")
+    @JoinColumn(name = "order_id", nullable = false, updatable = false)
     private List<OrderItem> orderItems = new ArrayList<>();
 
     private BigDecimal totalAmount;
@@ -47,6 +49,8 @@ public class Order {
 
     private String transactionId;
 
+    private String paymentTransactionId;
+
     private LocalDateTime estimatedDeliveryTime;
 
     private LocalDateTime actualDeliveryTime;
@@ -16,10 +16,11 @@ import java.math.BigDecimal;
 @Table(name = "order_items")
 public class OrderItem {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_items_seq")
+    @SequenceGenerator(name = "order_items_seq", sequenceName = "order_items_seq", allocationSize = 50)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "product_id", nullable = false)
     private Product product;
 
@@ -37,7 +38,7 @@ public class OrderItem {
 
     @PrePersist
     @PreUpdate
-    protected void calculateSubtotal() {
+    public void calculateSubtotal() {
         if (priceAtTime != null && quantity != null) {
             BigDecimal total = priceAtTime.multiply(BigDecimal.valueOf(quantity));
             if (discountAtTime != null) {
@@ -0,0 +1,41 @@
+package com.grocerydeliveryapp.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "payment_idempotency_records", indexes = {
+        @Index(name = "idx_payment_idempotency_created_at", columnList = "created_at")
+})
+public class PaymentIdempotencyRecord {
+    // Scoped as "<userId>:<orderId>:<client key>"
+    @Id
+    @Column(name = "idempotency_key", length = 255)
+    private String idempotencyKey;
+
+    // Bill returned to the client, serialized as JSON
+    @Lob
+    @Column(name = "response_body", nullable = false)
+    private String responseBody;
+
+    // Order, amount and payment method of the request that first used the key
+    @Column(name = "request_fingerprint", length = 255)
+    private String requestFingerprint;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        if (createdAt == null) {
+            createdAt = LocalDateTime.now();
+        }
+    }
+}
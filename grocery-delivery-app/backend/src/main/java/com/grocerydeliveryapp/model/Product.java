@@ -15,12 +15,18 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "products")
+@Table(name = "products", indexes = {
+        @Index(name = "idx_products_created_at_id", columnList = "created_at, id")
+})
 public class Product {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    // Supplier SKU; catalog imports match existing products on it
+    @Column(unique = true, length = 64)
+    private String sku;
+
     @NotBlank
     private String name;
 
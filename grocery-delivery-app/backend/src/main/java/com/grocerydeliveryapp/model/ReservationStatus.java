@@ -0,0 +1,7 @@
+package com.grocerydeliveryapp.model;
+
+public enum ReservationStatus {
+    HELD,
+    COMMITTED,
+    RELEASED
+}
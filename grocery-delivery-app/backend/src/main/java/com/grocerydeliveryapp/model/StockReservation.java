@@ -0,0 +1,60 @@
+package com.grocerydeliveryapp.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import javax.persistence.*;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Positive;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "stock_reservations")
+public class StockReservation {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "stock_reservations_seq")
+    @SequenceGenerator(name = "stock_reservations_seq", sequenceName = "stock_reservations_seq", allocationSize = 50)
+    private Long id;
+
+    @NotNull
+    @Column(name = "order_id", nullable = false)
+    private Long orderId;
+
+    @NotNull
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @NotNull
+    @Positive
+    private Integer quantity;
+
+    @Enumerated(EnumType.STRING)
+    private ReservationStatus status;
+
+    // Held reservations are given back to the shelf once this passes
+    private LocalDateTime expiresAt;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        updatedAt = LocalDateTime.now();
+        if (status == null) {
+            status = ReservationStatus.HELD;
+        }
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+}
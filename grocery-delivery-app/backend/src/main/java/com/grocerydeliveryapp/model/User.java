@@ -39,6 +39,10 @@ public class User {
 
     private boolean isEmailVerified;
 
+    // Stamped into every token as "ver"; bumping it revokes all tokens issued before
+    @Column(name = "token_version", nullable = false)
+    private long tokenVersion;
+
     @ElementCollection(fetch = FetchType.EAGER)
     private Set<String> roles = new HashSet<>();
 
@@ -0,0 +1,16 @@
+package com.grocerydeliveryapp.repository;
+
+import com.grocerydeliveryapp.model.OrderStatus;
+
+import java.time.LocalDateTime;
+
+// Just enough of an order to schedule its delay check
+public interface DeliveryDeadline {
+    Long getId();
+
+    Long getUserId();
+
+    OrderStatus getStatus();
+
+    LocalDateTime getEstimatedDeliveryTime();
+}
@@ -0,0 +1,37 @@
+package com.grocerydeliveryapp.repository;
+
+import com.grocerydeliveryapp.model.EmailOutboxMessage;
+import com.grocerydeliveryapp.model.EmailOutboxStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface EmailOutboxRepository extends JpaRepository<EmailOutboxMessage, Long> {
+
+    // Lock the next due messages; rows already locked by another dispatcher are skipped, not waited on
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "javax.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT m FROM EmailOutboxMessage m WHERE m.status = :status AND m.nextAttemptAt <= :now " +
+           "ORDER BY m.nextAttemptAt, m.id")
+    List<EmailOutboxMessage> lockDue(@Param("status") EmailOutboxStatus status,
+                                     @Param("now") LocalDateTime now,
+                                     Pageable pageable);
+
+    long countByStatus(EmailOutboxStatus status);
+
+    // Drop delivered messages once they are no longer useful for auditing
+    @Modifying
+    @Query("DELETE FROM EmailOutboxMessage m WHERE m.status = :status AND m.sentAt < :cutoff")
+    int deleteSentBefore(@Param("status") EmailOutboxStatus status, @Param("cutoff") LocalDateTime cutoff);
+}
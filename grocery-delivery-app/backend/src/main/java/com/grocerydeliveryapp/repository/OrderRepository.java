@@ -5,20 +5,54 @@ import com.grocerydeliveryapp.model.OrderStatus;
 import com.grocerydeliveryapp.model.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
     
-    // Find orders by user
+    // Load a single order with everything needed to render it in one query
+    @Override
+    @EntityGraph(attributePaths = {"user", "orderItems", "orderItems.product"})
+    Optional<Order> findById(Long id);
+
+    // Find orders by user; items and products of the page are batch fetched
+    // (hibernate.default_batch_fetch_size) since joining a collection would break paging
+    @EntityGraph(attributePaths = {"user"})
     Page<Order> findByUser(User user, Pageable pageable);
     
+    // Keyset pagination over a user's orders, newest first; Slice skips the count query
+    @EntityGraph(attributePaths = {"user"})
+    @Query("SELECT o FROM Order o WHERE o.user = :user ORDER BY o.createdAt DESC, o.id DESC")
+    Slice<Order> findFirstKeysetPageByUser(@Param("user") User user, Pageable pageable);
+
+    @EntityGraph(attributePaths = {"user"})
+    @Query("SELECT o FROM Order o WHERE o.user = :user AND " +
+           "(o.createdAt < :createdAt OR (o.createdAt = :createdAt AND o.id < :id)) " +
+           "ORDER BY o.createdAt DESC, o.id DESC")
+    Slice<Order> findKeysetPageByUserAfter(
+        @Param("user") User user,
+        @Param("createdAt") LocalDateTime createdAt,
+        @Param("id") Long id,
+        Pageable pageable
+    );
+    
     // Find orders by status
     List<Order> findByStatus(OrderStatus status);
     
@@ -28,6 +62,25 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     // Find orders created between dates
     List<Order> findByCreatedAtBetween(LocalDateTime startDate, LocalDateTime endDate);
     
+    // Orders placed in [from, to), optionally of one status and payment method, for the admin export.
+    // Rows are pulled from the cursor a fetch at a time and loaded read-only, so no dirty-checking
+    // snapshots are kept; must be consumed inside a transaction and closed
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READONLY, value = "true"),
+            @QueryHint(name = HINT_CACHEABLE, value = "false")
+    })
+    @Query("SELECT o FROM Order o WHERE o.createdAt >= :from AND o.createdAt < :to " +
+           "AND (:status IS NULL OR o.status = :status) " +
+           "AND (:paymentMethod IS NULL OR o.paymentMethod = :paymentMethod) " +
+           "ORDER BY o.createdAt, o.id")
+    Stream<Order> streamForExport(
+        @Param("from") LocalDateTime from,
+        @Param("to") LocalDateTime to,
+        @Param("status") OrderStatus status,
+        @Param("paymentMethod") String paymentMethod
+    );
+    
     // Find orders by payment method
     List<Order> findByPaymentMethod(String paymentMethod);
     
@@ -50,9 +103,22 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     @Query("SELECT o FROM Order o WHERE o.estimatedDeliveryTime < CURRENT_TIMESTAMP AND " +
            "o.status NOT IN ('DELIVERED', 'CANCELLED', 'REFUNDED')")
     List<Order> findDelayedOrders();
+
+    // Deadlines of every order still on its way; read once to seed DeliveryDelayMonitor
+    @Query("SELECT o.id AS id, o.user.id AS userId, o.status AS status, " +
+           "o.estimatedDeliveryTime AS estimatedDeliveryTime FROM Order o " +
+           "WHERE o.estimatedDeliveryTime IS NOT NULL AND o.status NOT IN :finished")
+    List<DeliveryDeadline> findActiveDeliveryDeadlines(@Param("finished") Collection<OrderStatus> finished);
+
+    @Query("SELECT o.id AS id, o.user.id AS userId, o.status AS status, " +
+           "o.estimatedDeliveryTime AS estimatedDeliveryTime FROM Order o WHERE o.id = :id")
+    Optional<DeliveryDeadline> findDeliveryDeadline(@Param("id") Long id);
     
     // Find orders by delivery partner
     List<Order> findByDeliveryPartnerName(String deliveryPartnerName);
+
+    // Whether the order is assigned to the given delivery partner
+    boolean existsByIdAndDeliveryPartnerName(Long id, String deliveryPartnerName);
     
     // Find unrated delivered orders
     List<Order> findByStatusAndIsRatedFalse(OrderStatus status);
@@ -63,6 +129,20 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     // Calculate average rating for delivered orders
     @Query("SELECT AVG(o.rating) FROM Order o WHERE o.status = 'DELIVERED' AND o.rating IS NOT NULL")
     Double calculateAverageRating();
+
+    // Baselines for OrderStatisticsService, read only when its summary table is still empty
+    @Query("SELECT o.status AS status, COUNT(o) AS orders, SUM(o.totalAmount) AS amount " +
+           "FROM Order o GROUP BY o.status")
+    List<StatusTotals> sumByStatus();
+
+    @Query("SELECT SUM(o.rating) FROM Order o WHERE o.status = 'DELIVERED' AND o.rating IS NOT NULL")
+    Long sumDeliveredRatings();
+
+    @Query("SELECT COUNT(o) FROM Order o WHERE o.status = 'DELIVERED' AND o.rating IS NOT NULL")
+    Long countDeliveredRatings();
+
+    @Query("SELECT o.createdAt FROM Order o WHERE o.createdAt >= :since")
+    List<LocalDateTime> findCreatedAtSince(@Param("since") LocalDateTime since);
     
     // Find orders requiring attention (delayed or with issues)
     @Query("SELECT o FROM Order o WHERE " +
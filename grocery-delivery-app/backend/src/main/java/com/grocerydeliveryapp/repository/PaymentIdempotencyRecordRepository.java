@@ -0,0 +1,19 @@
+package com.grocerydeliveryapp.repository;
+
+import com.grocerydeliveryapp.model.PaymentIdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface PaymentIdempotencyRecordRepository extends JpaRepository<PaymentIdempotencyRecord, String> {
+
+    // Drop replay records that are past the retention window
+    @Modifying
+    @Query("DELETE FROM PaymentIdempotencyRecord r WHERE r.createdAt < :cutoff")
+    int deleteCreatedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
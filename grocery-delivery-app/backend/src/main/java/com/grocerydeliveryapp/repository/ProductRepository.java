@@ -3,26 +3,37 @@ package com.grocerydeliveryapp.repository;
 import com.grocerydeliveryapp.model.Product;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
     
+    // Keyset pagination, newest first; Slice skips the count query
+    @Query("SELECT p FROM Product p ORDER BY p.createdAt DESC, p.id DESC")
+    Slice<Product> findFirstKeysetPage(Pageable pageable);
+
+    @Query("SELECT p FROM Product p WHERE p.createdAt < :createdAt OR " +
+           "(p.createdAt = :createdAt AND p.id < :id) " +
+           "ORDER BY p.createdAt DESC, p.id DESC")
+    Slice<Product> findKeysetPageAfter(
+        @Param("createdAt") LocalDateTime createdAt,
+        @Param("id") Long id,
+        Pageable pageable
+    );
+    
     // Find products by category
     Page<Product> findByCategory(String category, Pageable pageable);
     
-    // Search products by name or description containing keyword
-    @Query("SELECT p FROM Product p WHERE " +
-           "LOWER(p.name) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
-           "LOWER(p.description) LIKE LOWER(CONCAT('%', :keyword, '%'))")
-    Page<Product> searchProducts(@Param("keyword") String keyword, Pageable pageable);
-    
     // Find products by price range
     Page<Product> findByPriceBetween(BigDecimal minPrice, BigDecimal maxPrice, Pageable pageable);
     
@@ -66,4 +77,26 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
         @Param("brand") String brand,
         Pageable pageable
     );
+    
+    // Take stock in a single conditional statement; returns 0 when not enough is left
+    @Modifying
+    @Query("UPDATE Product p SET " +
+           "p.isAvailable = CASE WHEN p.stockQuantity > :quantity THEN true ELSE false END, " +
+           "p.stockQuantity = p.stockQuantity - :quantity, " +
+           "p.updatedAt = CURRENT_TIMESTAMP " +
+           "WHERE p.id = :productId AND p.stockQuantity >= :quantity")
+    int decrementStock(@Param("productId") Long productId, @Param("quantity") Integer quantity);
+    
+    // Put stock back on the shelf
+    @Modifying
+    @Query("UPDATE Product p SET p.stockQuantity = p.stockQuantity + :quantity, p.isAvailable = true, " +
+           "p.updatedAt = CURRENT_TIMESTAMP WHERE p.id = :productId")
+    int incrementStock(@Param("productId") Long productId, @Param("quantity") Integer quantity);
+
+    // SKU lookups for bulk stock adjustments and catalog imports
+    @Query("SELECT p.id FROM Product p WHERE p.sku IN :skus")
+    List<Long> findIdsBySkuIn(@Param("skus") Collection<String> skus);
+
+    @Query("SELECT p.sku FROM Product p WHERE p.sku IN :skus")
+    List<String> findSkusIn(@Param("skus") Collection<String> skus);
 }
@@ -0,0 +1,14 @@
+package com.grocerydeliveryapp.repository;
+
+import com.grocerydeliveryapp.model.OrderStatus;
+
+import java.math.BigDecimal;
+
+// Order count and value of one status; seeds and reconciles OrderStatisticsService
+public interface StatusTotals {
+    OrderStatus getStatus();
+
+    Long getOrders();
+
+    BigDecimal getAmount();
+}
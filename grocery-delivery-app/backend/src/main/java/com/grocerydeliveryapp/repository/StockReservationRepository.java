@@ -0,0 +1,42 @@
+package com.grocerydeliveryapp.repository;
+
+import com.grocerydeliveryapp.model.ReservationStatus;
+import com.grocerydeliveryapp.model.StockReservation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface StockReservationRepository extends JpaRepository<StockReservation, Long> {
+
+    // Find reservations of an order in the given states
+    List<StockReservation> findByOrderIdAndStatusIn(Long orderId, Collection<ReservationStatus> statuses);
+
+    // Find orders whose held stock has outlived the reservation window
+    @Query("SELECT DISTINCT r.orderId FROM StockReservation r WHERE r.status = :status AND r.expiresAt < :now")
+    List<Long> findOrderIdsWithExpiredReservations(@Param("status") ReservationStatus status,
+                                                   @Param("now") LocalDateTime now);
+
+    // Move all reservations of an order from one state to another
+    @Modifying
+    @Query("UPDATE StockReservation r SET r.status = :target, r.updatedAt = CURRENT_TIMESTAMP " +
+           "WHERE r.orderId = :orderId AND r.status = :current")
+    int transitionStatus(@Param("orderId") Long orderId,
+                         @Param("current") ReservationStatus current,
+                         @Param("target") ReservationStatus target);
+
+    // Move a single reservation on, but only from one of the given states; returns 0 when
+    // another transaction got to it first
+    @Modifying
+    @Query("UPDATE StockReservation r SET r.status = :target, r.updatedAt = CURRENT_TIMESTAMP " +
+           "WHERE r.id = :id AND r.status IN :current")
+    int claim(@Param("id") Long id,
+              @Param("current") Collection<ReservationStatus> current,
+              @Param("target") ReservationStatus target);
+}
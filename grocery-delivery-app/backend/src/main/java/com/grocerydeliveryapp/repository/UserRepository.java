@@ -2,6 +2,9 @@ package com.grocerydeliveryapp.repository;
 
 import com.grocerydeliveryapp.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -13,4 +16,11 @@ public interface UserRepository extends JpaRepository<User, Long> {
     boolean existsByUsername(String username);
     boolean existsByEmail(String email);
     Optional<User> findByEmailAndOtp(String email, String otp);
+
+    @Query("SELECT u.tokenVersion FROM User u WHERE u.username = :username")
+    Optional<Long> findTokenVersionByUsername(@Param("username") String username);
+
+    @Modifying
+    @Query("UPDATE User u SET u.tokenVersion = u.tokenVersion + 1 WHERE u.username = :username")
+    int incrementTokenVersion(@Param("username") String username);
 }
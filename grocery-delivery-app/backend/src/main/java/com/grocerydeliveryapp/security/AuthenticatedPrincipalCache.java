@@ -0,0 +1,110 @@
+package com.grocerydeliveryapp.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.grocerydeliveryapp.event.UserSecurityChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Date;
+import java.util.HexFormat;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+@Component
+public class AuthenticatedPrincipalCache {
+
+    // Token hash -> principal it was verified for; raw tokens are never kept in memory
+    private final Cache<String, CachedPrincipal> principals;
+
+    private final TokenVersionRegistry tokenVersionRegistry;
+
+    public AuthenticatedPrincipalCache(
+            TokenVersionRegistry tokenVersionRegistry,
+            @Value("${app.security.principal-cache.max-size:10000}") long maxSize,
+            @Value("${app.security.principal-cache.ttl-seconds:300}") long ttlSeconds) {
+        this.tokenVersionRegistry = tokenVersionRegistry;
+        long ttlNanos = Duration.ofSeconds(ttlSeconds).toNanos();
+        this.principals = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<String, CachedPrincipal>() {
+                    @Override
+                    public long expireAfterCreate(String key, CachedPrincipal value, long currentTime) {
+                        // Never outlive the token itself
+                        long untilTokenExpiry = TimeUnit.MILLISECONDS.toNanos(
+                                value.tokenExpiry.getTime() - System.currentTimeMillis());
+                        return Math.max(0, Math.min(ttlNanos, untilTokenExpiry));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, CachedPrincipal value, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, value, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, CachedPrincipal value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    public UserDetails get(String token) {
+        String key = hash(token);
+        CachedPrincipal cached = principals.getIfPresent(key);
+        if (cached == null || cached.tokenExpiry.before(new Date())) {
+            return null;
+        }
+        // A sign-out on another instance only reaches us through the version registry
+        if (cached.tokenVersion != null
+                && !tokenVersionRegistry.isCurrent(cached.userDetails.getUsername(), cached.tokenVersion)) {
+            principals.invalidate(key);
+            return null;
+        }
+        return cached.userDetails;
+    }
+
+    public void put(String token, UserDetails userDetails, Date tokenExpiry, Long tokenVersion) {
+        principals.put(hash(token), new CachedPrincipal(userDetails, tokenExpiry, tokenVersion));
+    }
+
+    public void invalidateUser(String username) {
+        principals.asMap().values().removeIf(cached -> cached.userDetails.getUsername().equals(username));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserSecurityChanged(UserSecurityChangedEvent event) {
+        invalidateUser(event.getUsername());
+        log.debug("Dropped cached principals for {}", event.getUsername());
+    }
+
+    private String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static class CachedPrincipal {
+        private final UserDetails userDetails;
+        private final Date tokenExpiry;
+        // Null for tokens issued before version stamps existed
+        private final Long tokenVersion;
+
+        private CachedPrincipal(UserDetails userDetails, Date tokenExpiry, Long tokenVersion) {
+            this.userDetails = userDetails;
+            this.tokenExpiry = tokenExpiry;
+            this.tokenVersion = tokenVersion;
+        }
+    }
+}
@@ -3,6 +3,7 @@ package com.grocerydeliveryapp.security;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
@@ -25,26 +26,41 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private UserDetailsService userDetailsService;
 
+    @Autowired
+    private AuthenticatedPrincipalCache principalCache;
+
+    @Autowired
+    private TokenVersionRegistry tokenVersionRegistry;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, 
                                   HttpServletResponse response, 
                                   FilterChain filterChain) throws ServletException, IOException {
         try {
             String jwt = parseJwt(request);
-            if (jwt != null) {
-                String username = jwtUtil.extractUsername(jwt);
+            if (jwt != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+                // Hot path: a token we have already verified maps straight to its principal
+                UserDetails userDetails = principalCache.get(jwt);
 
-                if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                    UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+                if (userDetails == null) {
+                    // Verify the signature once and read everything off the parsed token
+                    ParsedToken parsed = jwtUtil.parse(jwt);
+                    UserDetails resolved = parsed.isSelfContained()
+                            ? fromClaims(parsed)
+                            : loadAndValidate(parsed);
+                    if (resolved != null) {
+                        principalCache.put(jwt, resolved, parsed.getExpiration(), parsed.getVersion());
+                        userDetails = resolved;
+                    }
+                }
 
-                    if (jwtUtil.validateToken(jwt, userDetails)) {
-                        UsernamePasswordAuthenticationToken authentication = 
-                            new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
-                        
-                        authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                if (userDetails != null) {
+                    UsernamePasswordAuthenticationToken authentication = 
+                        new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+                    
+                    authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
-                        SecurityContextHolder.getContext().setAuthentication(authentication);
-                    }
+                    SecurityContextHolder.getContext().setAuthentication(authentication);
                 }
             }
         } catch (Exception e) {
@@ -54,11 +70,33 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    // Roles come from the signed token; only the version stamp is checked, against memory
+    private UserDetails fromClaims(ParsedToken parsed) {
+        if (parsed.getSubject() == null
+                || !tokenVersionRegistry.isCurrent(parsed.getSubject(), parsed.getVersion())) {
+            return null;
+        }
+        return User.withUsername(parsed.getSubject())
+                .password("")
+                .authorities(parsed.getAuthorities())
+                .build();
+    }
+
+    // Tokens issued before roles were embedded still need the user record
+    private UserDetails loadAndValidate(ParsedToken parsed) {
+        if (parsed.getSubject() == null) {
+            return null;
+        }
+        UserDetails loaded = userDetailsService.loadUserByUsername(parsed.getSubject());
+        return jwtUtil.validateToken(parsed, loaded) ? loaded : null;
+    }
+
     private String parseJwt(HttpServletRequest request) {
         String headerAuth = request.getHeader("Authorization");
 
         if (StringUtils.hasText(headerAuth) && headerAuth.startsWith("Bearer ")) {
-            return headerAuth.substring(7);
+            String token = headerAuth.substring(7);
+            return StringUtils.hasText(token) ? token : null;
         }
 
         return null;
@@ -1,25 +1,56 @@
 package com.grocerydeliveryapp.security;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
+import javax.crypto.SecretKey;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Component
 public class JwtUtil {
 
-    @Value("${jwt.secret}")
-    private String secret;
+    static final String AUTHORITIES_CLAIM = "authorities";
+    static final String VERSION_CLAIM = "ver";
 
-    @Value("${jwt.expiration}")
-    private Long expiration;
+    // HS256 needs at least 256 bits of key material
+    private static final int MIN_KEY_BYTES = 32;
+
+    private final SecretKey signingKey;
+    private final JwtParser parser;
+    private final long expiration;
+
+    public JwtUtil(@Value("${jwt.secret}") String secret,
+                   @Value("${jwt.expiration}") long expiration) {
+        this.signingKey = signingKey(secret);
+        // Immutable and thread-safe once built, so one instance serves every request
+        this.parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+        this.expiration = expiration;
+    }
+
+    // Verifies the signature and expiry once; throws the usual JwtException subtypes on failure
+    @SuppressWarnings("unchecked")
+    public ParsedToken parse(String token) {
+        Claims claims = extractAllClaims(token);
+        Number version = claims.get(VERSION_CLAIM, Number.class);
+        return new ParsedToken(claims.getSubject(), claims.getExpiration(),
+                claims.get(AUTHORITIES_CLAIM, List.class), version == null ? null : version.longValue());
+    }
 
     public String extractUsername(String token) {
         return extractClaim(token, Claims::getSubject);
@@ -34,31 +65,70 @@ public class JwtUtil {
         return claimsResolver.apply(claims);
     }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts.parser().setSigningKey(secret).parseClaimsJws(token).getBody();
+    public Claims extractAllClaims(String token) {
+        return parser.parseClaimsJws(token).getBody();
     }
 
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    public Boolean isTokenExpired(String token) {
+        return parse(token).isExpired();
     }
 
     public String generateToken(UserDetails userDetails) {
+        return generateToken(new HashMap<>(), userDetails);
+    }
+
+    // Carries the user's roles and token version so requests can be authenticated without a lookup
+    public String generateToken(UserDetails userDetails, long tokenVersion) {
         Map<String, Object> claims = new HashMap<>();
-        return createToken(claims, userDetails.getUsername());
+        claims.put(VERSION_CLAIM, tokenVersion);
+        return generateToken(claims, userDetails);
     }
 
-    private String createToken(Map<String, Object> claims, String subject) {
+    public String generateToken(Map<String, Object> extraClaims, UserDetails userDetails) {
+        Map<String, Object> claims = new HashMap<>(extraClaims);
+        claims.put(AUTHORITIES_CLAIM, authorityNames(userDetails.getAuthorities()));
+        return createToken(claims, userDetails.getUsername(), expiration);
+    }
+
+    public String createToken(Map<String, Object> claims, String subject, long validityMillis) {
+        long now = System.currentTimeMillis();
         return Jwts.builder()
                 .setClaims(claims)
                 .setSubject(subject)
-                .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(SignatureAlgorithm.HS256, secret)
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + validityMillis))
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
     public Boolean validateToken(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+        return validateToken(parse(token), userDetails);
+    }
+
+    public boolean validateToken(ParsedToken token, UserDetails userDetails) {
+        return token.getSubject() != null
+                && token.getSubject().equals(userDetails.getUsername())
+                && !token.isExpired();
+    }
+
+    private static List<String> authorityNames(Collection<? extends GrantedAuthority> authorities) {
+        return authorities.stream()
+                .map(GrantedAuthority::getAuthority)
+                .collect(Collectors.toList());
+    }
+
+    // Same key the old setSigningKey(String)/signWith(HS256, String) calls derived, so tokens
+    // issued before the cached key was introduced still verify
+    private static SecretKey signingKey(String secret) {
+        byte[] keyBytes = Decoders.BASE64.decode(secret);
+        if (keyBytes.length < MIN_KEY_BYTES) {
+            // Stretch short secrets instead of failing with a WeakKeyException at startup
+            try {
+                keyBytes = MessageDigest.getInstance("SHA-256").digest(keyBytes);
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 is not available", e);
+            }
+        }
+        return Keys.hmacShaKeyFor(keyBytes);
     }
 }
@@ -0,0 +1,46 @@
+package com.grocerydeliveryapp.security;
+
+import lombok.Getter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+
+// Result of verifying a token once; everything the request needs is read off this
+@Getter
+public final class ParsedToken {
+
+    private final String subject;
+    private final Date expiration;
+    private final List<GrantedAuthority> authorities;
+    // Null for tokens issued before version stamps existed
+    private final Long version;
+
+    ParsedToken(String subject, Date expiration, Collection<String> authorities, Long version) {
+        this.subject = subject;
+        this.version = version;
+        this.expiration = new Date(expiration.getTime());
+        this.authorities = authorities == null
+                ? Collections.emptyList()
+                : authorities.stream()
+                        .<GrantedAuthority>map(SimpleGrantedAuthority::new)
+                        .collect(Collectors.toUnmodifiableList());
+    }
+
+    public Date getExpiration() {
+        return new Date(expiration.getTime());
+    }
+
+    // Self-contained tokens can be authenticated from their claims alone
+    public boolean isSelfContained() {
+        return version != null;
+    }
+
+    public boolean isExpired() {
+        return expiration.before(new Date());
+    }
+}
@@ -0,0 +1,56 @@
+package com.grocerydeliveryapp.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.grocerydeliveryapp.event.UserSecurityChangedEvent;
+import com.grocerydeliveryapp.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+
+@Slf4j
+@Component
+public class TokenVersionRegistry {
+
+    // Stand-in version for users that no longer exist, so none of their tokens match
+    private static final long UNKNOWN_USER = -1L;
+
+    private final UserRepository userRepository;
+
+    // username -> current token version. Local changes evict at once; the TTL bounds how long
+    // a bump made on another instance goes unseen here
+    private final Cache<String, Long> versions;
+
+    public TokenVersionRegistry(
+            UserRepository userRepository,
+            @Value("${app.security.token-version.max-size:10000}") long maxSize,
+            @Value("${app.security.token-version.ttl-seconds:30}") long ttlSeconds) {
+        this.userRepository = userRepository;
+        this.versions = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+    }
+
+    public boolean isCurrent(String username, long tokenVersion) {
+        return currentVersion(username) == tokenVersion;
+    }
+
+    public long currentVersion(String username) {
+        return versions.get(username, key ->
+                userRepository.findTokenVersionByUsername(key).orElse(UNKNOWN_USER));
+    }
+
+    public void evict(String username) {
+        versions.invalidate(username);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserSecurityChanged(UserSecurityChangedEvent event) {
+        evict(event.getUsername());
+        log.debug("Reloading token version for {}", event.getUsername());
+    }
+}
@@ -1,17 +1,21 @@
 package com.grocerydeliveryapp.service;
 
 import com.grocerydeliveryapp.dto.auth.*;
+import com.grocerydeliveryapp.event.UserSecurityChangedEvent;
 import com.grocerydeliveryapp.model.User;
 import com.grocerydeliveryapp.repository.UserRepository;
 import com.grocerydeliveryapp.security.JwtUtil;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.EntityNotFoundException;
 import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.Random;
@@ -25,6 +29,7 @@ public class AuthService {
     private final JwtUtil jwtUtil;
     private final AuthenticationManager authenticationManager;
     private final EmailService emailService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public AuthResponse register(RegisterRequest request) {
@@ -82,7 +87,7 @@ public class AuthService {
                 return new AuthResponse("Please verify your email first. A new verification code has been sent.");
             }
 
-            String token = jwtUtil.generateToken(authentication.getPrincipal());
+            String token = jwtUtil.generateToken((UserDetails) authentication.getPrincipal(), user.getTokenVersion());
 
             return new AuthResponse(
                 token,
@@ -111,13 +116,18 @@ public class AuthService {
         user.setOtp(null);
         user.setOtpExpiryTime(null);
         userRepository.save(user);
+        // Principals cached while unverified carry the old enabled flag
+        eventPublisher.publishEvent(new UserSecurityChangedEvent(user.getUsername()));
 
         String token = jwtUtil.generateToken(
             org.springframework.security.core.userdetails.User
                 .withUsername(user.getUsername())
                 .password(user.getPassword())
-                .authorities("ROLE_USER")
-                .build()
+                .authorities(user.getRoles().stream()
+                    .map(role -> "ROLE_" + role.toUpperCase())
+                    .toArray(String[]::new))
+                .build(),
+            user.getTokenVersion()
         );
 
         return new AuthResponse(
@@ -130,6 +140,16 @@ public class AuthService {
         );
     }
 
+    @Transactional
+    public AuthResponse revokeTokens(String username) {
+        if (userRepository.incrementTokenVersion(username) == 0) {
+            throw new EntityNotFoundException("User not found");
+        }
+        // Every token stamped with the old version stops authenticating after commit
+        eventPublisher.publishEvent(new UserSecurityChangedEvent(username));
+        return new AuthResponse("Signed out of all sessions");
+    }
+
     @Transactional
     public AuthResponse resendOtp(String email) {
         User user = userRepository.findByEmail(email)
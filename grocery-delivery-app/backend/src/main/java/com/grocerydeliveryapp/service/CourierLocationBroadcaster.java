@@ -0,0 +1,98 @@
+package com.grocerydeliveryapp.service;
+
+import com.grocerydeliveryapp.dto.order.LocationUpdate;
+import com.grocerydeliveryapp.event.OrderStatusChangedEvent;
+import com.grocerydeliveryapp.event.OrderStatusSubscriber;
+import com.grocerydeliveryapp.model.OrderStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Courier pings are folded into the latest position per order and pushed on a fixed tick,
+// so broker load follows active orders x tick rate rather than however often devices report
+@Component
+public class CourierLocationBroadcaster implements OrderStatusSubscriber {
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final long maxAgeMillis;
+
+    // Newest position per order not yet broadcast
+    private final Map<Long, LocationUpdate> pending = new ConcurrentHashMap<>();
+
+    // Timestamp of the last position broadcast per order, to reject pings that arrive late
+    private final Map<Long, Long> lastBroadcast = new ConcurrentHashMap<>();
+
+    private final Counter acceptedPings;
+    private final Counter stalePings;
+    private final Counter broadcasts;
+
+    public CourierLocationBroadcaster(SimpMessagingTemplate messagingTemplate,
+                                      MeterRegistry meterRegistry,
+                                      @Value("${app.tracking.location.max-age-ms:10000}") long maxAgeMillis) {
+        this.messagingTemplate = messagingTemplate;
+        this.maxAgeMillis = maxAgeMillis;
+        this.acceptedPings = pingCounter(meterRegistry, "accepted");
+        this.stalePings = pingCounter(meterRegistry, "stale");
+        this.broadcasts = Counter.builder("tracking.location.broadcasts")
+                .description("Location updates pushed to the broker")
+                .register(meterRegistry);
+    }
+
+    public void record(Long orderId, double latitude, double longitude, long timestamp) {
+        Long sent = lastBroadcast.get(orderId);
+        if (sent != null && timestamp <= sent) {
+            stalePings.increment();
+            return;
+        }
+        LocationUpdate update = new LocationUpdate(orderId, latitude, longitude, timestamp);
+        // Out-of-order pings lose to whatever newer fix is already waiting
+        pending.merge(orderId, update, (waiting, incoming) -> incoming.getTs() >= waiting.getTs() ? incoming : waiting);
+        acceptedPings.increment();
+    }
+
+    @Scheduled(fixedRateString = "${app.tracking.location.tick-ms:500}")
+    public void flush() {
+        long oldestUseful = System.currentTimeMillis() - maxAgeMillis;
+        for (Long orderId : pending.keySet()) {
+            LocationUpdate update = pending.remove(orderId);
+            if (update == null) {
+                continue;
+            }
+            if (update.getTs() < oldestUseful) {
+                stalePings.increment();
+                continue;
+            }
+            lastBroadcast.merge(orderId, update.getTs(), Math::max);
+            messagingTemplate.convertAndSend(String.format("/topic/order/%d/location", orderId), update);
+            broadcasts.increment();
+        }
+        // Anything older than this would be dropped as stale anyway
+        lastBroadcast.values().removeIf(timestamp -> timestamp < oldestUseful);
+    }
+
+    public int pendingCount() {
+        return pending.size();
+    }
+
+    // Finished orders stop being tracked
+    @Override
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        if (event.getNewStatus() == OrderStatus.DELIVERED || event.getNewStatus() == OrderStatus.CANCELLED) {
+            pending.remove(event.getOrderId());
+            lastBroadcast.remove(event.getOrderId());
+        }
+    }
+
+    private static Counter pingCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("tracking.location.pings")
+                .description("Courier location pings received")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
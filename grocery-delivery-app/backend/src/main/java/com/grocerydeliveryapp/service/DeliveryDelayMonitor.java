@@ -0,0 +1,206 @@
+package com.grocerydeliveryapp.service;
+
+import com.grocerydeliveryapp.event.OrderStatusChangedEvent;
+import com.grocerydeliveryapp.event.OrderStatusSubscriber;
+import com.grocerydeliveryapp.model.OrderStatus;
+import com.grocerydeliveryapp.repository.DeliveryDeadline;
+import com.grocerydeliveryapp.repository.OrderRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+// Keeps the ETA of every active order in a deadline index, soonest first, and notifies an order's
+// trackers on the first tick after it passes its ETA. The index is seeded from the database once
+// and then follows order status events, so a tick only ever looks at the head of the index and
+// loads the few orders that are actually due, never the whole orders table
+@Slf4j
+@Component
+public class DeliveryDelayMonitor implements OrderStatusSubscriber {
+
+    static final Set<OrderStatus> FINISHED = EnumSet.of(OrderStatus.DELIVERED, OrderStatus.CANCELLED, OrderStatus.REFUNDED);
+
+    private static final String DELAY_REASON = "Your order is taking longer than expected";
+
+    private static final Comparator<Deadline> SOONEST_FIRST = Comparator
+            .comparing((Deadline deadline) -> deadline.dueAt)
+            .thenComparing(deadline -> deadline.orderId);
+
+    private final OrderRepository orderRepository;
+    private final OrderTrackingBroadcaster trackingBroadcaster;
+    private final boolean enabled;
+    private final int extensionMinutes;
+
+    // Guarded by this; touched by the status event lane and the scheduler
+    private final TreeSet<Deadline> deadlines = new TreeSet<>(SOONEST_FIRST);
+    private final Map<Long, Deadline> deadlineByOrder = new HashMap<>();
+
+    // Orders past their original ETA -> that ETA
+    private final Map<Long, LocalDateTime> delayed = new HashMap<>();
+
+    public DeliveryDelayMonitor(OrderRepository orderRepository,
+                                OrderTrackingBroadcaster trackingBroadcaster,
+                                @Value("${app.delivery.delay-monitor.enabled:true}") boolean enabled,
+                                @Value("${app.delivery.delay-monitor.extension-minutes:15}") int extensionMinutes) {
+        this.orderRepository = orderRepository;
+        this.trackingBroadcaster = trackingBroadcaster;
+        this.enabled = enabled;
+        this.extensionMinutes = extensionMinutes;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        List<DeliveryDeadline> active = orderRepository.findActiveDeliveryDeadlines(FINISHED);
+        LocalDateTime now = LocalDateTime.now();
+        synchronized (this) {
+            deadlines.clear();
+            deadlineByOrder.clear();
+            delayed.clear();
+            for (DeliveryDeadline order : active) {
+                LocalDateTime eta = order.getEstimatedDeliveryTime();
+                if (eta.isAfter(now)) {
+                    arm(order.getId(), order.getUserId(), eta);
+                } else {
+                    // Crossed while this node was down and was most likely notified then;
+                    // list it as delayed and check again after one extension
+                    delayed.put(order.getId(), eta);
+                    arm(order.getId(), order.getUserId(), now.plusMinutes(extensionMinutes));
+                }
+            }
+        }
+        log.info("Watching {} active orders for delivery delays", active.size());
+    }
+
+    @Override
+    public synchronized void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        Long orderId = event.getOrderId();
+        LocalDateTime eta = event.getOrder().getEstimatedDeliveryTime();
+        if (FINISHED.contains(event.getNewStatus()) || eta == null) {
+            forget(orderId);
+            return;
+        }
+        if (eta.isAfter(LocalDateTime.now())) {
+            // A fresh ETA clears the delay
+            delayed.remove(orderId);
+            arm(orderId, event.getUserId(), eta);
+        } else if (!delayed.containsKey(orderId)) {
+            // Already late but not yet reported; the next tick picks it up
+            arm(orderId, event.getUserId(), eta);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.delivery.delay-monitor.tick-ms:1000}")
+    public void checkDeadlines() {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        for (Deadline due : pollDue(now)) {
+            // The index only says when to look; the row decides whether the order is late
+            Optional<DeliveryDeadline> current = orderRepository.findDeliveryDeadline(due.orderId);
+            if (current.isEmpty() || FINISHED.contains(current.get().getStatus())
+                    || current.get().getEstimatedDeliveryTime() == null) {
+                forget(due.orderId);
+                continue;
+            }
+            LocalDateTime eta = current.get().getEstimatedDeliveryTime();
+            synchronized (this) {
+                if (deadlineByOrder.containsKey(due.orderId)) {
+                    // Re-armed by a status change while the row was loading
+                    continue;
+                }
+                if (eta.isAfter(now)) {
+                    arm(due.orderId, due.userId, eta);
+                    continue;
+                }
+                delayed.putIfAbsent(due.orderId, eta);
+                // Stays in the index so it is reported again if the new estimate passes too
+                arm(due.orderId, due.userId, now.plusMinutes(extensionMinutes));
+            }
+            try {
+                trackingBroadcaster.sendDeliveryDelayNotification(due.orderId, due.userId, DELAY_REASON, extensionMinutes);
+            } catch (Exception e) {
+                log.error("Could not send delay notification for order {}", due.orderId, e);
+            }
+        }
+    }
+
+    // Delayed orders, longest overdue first
+    public synchronized Page<Long> getDelayedOrderIds(Pageable pageable) {
+        List<Long> ids = delayed.entrySet().stream()
+                .sorted(Map.Entry.<Long, LocalDateTime>comparingByValue().thenComparing(Map.Entry.comparingByKey()))
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+        int from = (int) Math.min(pageable.getOffset(), ids.size());
+        int to = Math.min(from + pageable.getPageSize(), ids.size());
+        return new PageImpl<>(new ArrayList<>(ids.subList(from, to)), pageable, ids.size());
+    }
+
+    public synchronized boolean isDelayed(Long orderId) {
+        return delayed.containsKey(orderId);
+    }
+
+    public synchronized int getWatchedCount() {
+        return deadlineByOrder.size();
+    }
+
+    private synchronized List<Deadline> pollDue(LocalDateTime now) {
+        List<Deadline> due = new ArrayList<>();
+        while (!deadlines.isEmpty() && !deadlines.first().dueAt.isAfter(now)) {
+            Deadline deadline = deadlines.pollFirst();
+            deadlineByOrder.remove(deadline.orderId);
+            due.add(deadline);
+        }
+        return due;
+    }
+
+    private void arm(Long orderId, Long userId, LocalDateTime dueAt) {
+        Deadline previous = deadlineByOrder.remove(orderId);
+        if (previous != null) {
+            deadlines.remove(previous);
+        }
+        Deadline deadline = new Deadline(orderId, userId, dueAt);
+        deadlines.add(deadline);
+        deadlineByOrder.put(orderId, deadline);
+    }
+
+    private synchronized void forget(Long orderId) {
+        Deadline previous = deadlineByOrder.remove(orderId);
+        if (previous != null) {
+            deadlines.remove(previous);
+        }
+        delayed.remove(orderId);
+    }
+
+    private static final class Deadline {
+        private final Long orderId;
+        private final Long userId;
+        private final LocalDateTime dueAt;
+
+        private Deadline(Long orderId, Long userId, LocalDateTime dueAt) {
+            this.orderId = orderId;
+            this.userId = userId;
+            this.dueAt = dueAt;
+        }
+    }
+}
@@ -0,0 +1,277 @@
+package com.grocerydeliveryapp.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.grocerydeliveryapp.event.OrderStatusChangedEvent;
+import com.grocerydeliveryapp.event.OrderStatusSubscriber;
+import com.grocerydeliveryapp.model.EmailOutboxMessage;
+import com.grocerydeliveryapp.model.EmailOutboxStatus;
+import com.grocerydeliveryapp.repository.EmailOutboxRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.mail.MessagingException;
+import javax.mail.internet.MimeMessage;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@Slf4j
+@Component
+public class EmailDispatcher implements OrderStatusSubscriber {
+
+    private static final TypeReference<Map<String, Object>> MODEL_TYPE = new TypeReference<>() {};
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final EmailOutboxRepository outboxRepository;
+    private final JavaMailSender mailSender;
+    private final EmailTemplateRenderer templateRenderer;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxBatchesPerPoll;
+    private final int maxAttempts;
+    private final long initialBackoffMs;
+    private final long maxBackoffMs;
+    private final long retentionHours;
+    private final long claimLeaseMs;
+
+    // Polls and wake-ups may overlap; only one of them drains at a time
+    private final AtomicBoolean dispatching = new AtomicBoolean();
+
+    public EmailDispatcher(EmailOutboxRepository outboxRepository,
+                           JavaMailSender mailSender,
+                           EmailTemplateRenderer templateRenderer,
+                           ObjectMapper objectMapper,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${app.mail.outbox.batch-size:50}") int batchSize,
+                           @Value("${app.mail.outbox.max-batches-per-poll:10}") int maxBatchesPerPoll,
+                           @Value("${app.mail.outbox.max-attempts:6}") int maxAttempts,
+                           @Value("${app.mail.outbox.initial-backoff-ms:30000}") long initialBackoffMs,
+                           @Value("${app.mail.outbox.max-backoff-ms:3600000}") long maxBackoffMs,
+                           @Value("${app.mail.outbox.retention-hours:72}") long retentionHours,
+                           @Value("${app.mail.outbox.claim-lease-ms:300000}") long claimLeaseMs) {
+        this.outboxRepository = outboxRepository;
+        this.mailSender = mailSender;
+        this.templateRenderer = templateRenderer;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.maxBatchesPerPoll = maxBatchesPerPoll;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMs = initialBackoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+        this.retentionHours = retentionHours;
+        this.claimLeaseMs = claimLeaseMs;
+    }
+
+    @Scheduled(fixedDelayString = "${app.mail.outbox.poll-interval-ms:2000}")
+    public void dispatch() {
+        if (!dispatching.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            // Bounded per poll, so a backlog drains at the mail server's pace instead of piling onto it
+            for (int batch = 0; batch < maxBatchesPerPoll; batch++) {
+                int claimed = sendNextBatch();
+                if (claimed < batchSize) {
+                    return;
+                }
+            }
+            log.warn("Email outbox backlog: {} messages still pending after {} batches",
+                    outboxRepository.countByStatus(EmailOutboxStatus.PENDING), maxBatchesPerPoll);
+        } finally {
+            dispatching.set(false);
+        }
+    }
+
+    // The status email was queued in the order's transaction; send it now rather than on the next poll
+    @Override
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        dispatch();
+    }
+
+    @Scheduled(fixedDelayString = "${app.mail.outbox.purge-interval-ms:3600000}")
+    public void purgeSent() {
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(retentionHours);
+        Integer removed = transactionTemplate.execute(status ->
+                outboxRepository.deleteSentBefore(EmailOutboxStatus.SENT, cutoff));
+        if (removed != null && removed > 0) {
+            log.debug("Purged {} sent emails from the outbox", removed);
+        }
+    }
+
+    // Claims a batch in one short transaction, renders and sends with no transaction or row lock
+    // held, then records the outcomes in a second transaction
+    int sendNextBatch() {
+        List<EmailOutboxMessage> due = transactionTemplate.execute(status -> claimDue());
+        if (due == null || due.isEmpty()) {
+            return 0;
+        }
+
+        Set<Long> sent = new HashSet<>();
+        Map<Long, Exception> failed = new HashMap<>();
+        Map<EmailOutboxMessage, String> rendered = renderTemplated(due, failed);
+        Map<MimeMessage, EmailOutboxMessage> prepared = new LinkedHashMap<>();
+        for (EmailOutboxMessage message : due) {
+            if (message.isTemplated() && !rendered.containsKey(message)) {
+                continue; // rendering failed and has been noted
+            }
+            try {
+                prepared.put(toMimeMessage(message, rendered.get(message)), message);
+            } catch (Exception e) {
+                failed.put(message.getId(), e);
+            }
+        }
+
+        if (!prepared.isEmpty()) {
+            Map<Object, Exception> failures = Collections.emptyMap();
+            try {
+                // An array send goes over a single SMTP connection
+                mailSender.send(prepared.keySet().toArray(new MimeMessage[0]));
+            } catch (MailSendException e) {
+                failures = e.getFailedMessages().isEmpty() ? allFailed(prepared, e) : e.getFailedMessages();
+            } catch (MailException e) {
+                failures = allFailed(prepared, e);
+            }
+            for (Map.Entry<MimeMessage, EmailOutboxMessage> entry : prepared.entrySet()) {
+                Exception failure = failures.get(entry.getKey());
+                if (failure == null) {
+                    sent.add(entry.getValue().getId());
+                } else {
+                    failed.put(entry.getValue().getId(), failure);
+                }
+            }
+        }
+
+        transactionTemplate.executeWithoutResult(status -> recordOutcomes(sent, failed));
+        return due.size();
+    }
+
+    // Locks the due rows just long enough to move their next attempt past the lease, so no other
+    // dispatcher picks them up while they are in flight. Should this node die before recording the
+    // outcome, the rows simply fall due again once the lease runs out
+    private List<EmailOutboxMessage> claimDue() {
+        LocalDateTime now = LocalDateTime.now();
+        List<EmailOutboxMessage> due = outboxRepository.lockDue(
+                EmailOutboxStatus.PENDING, now, PageRequest.of(0, batchSize));
+        LocalDateTime leaseEnd = now.plus(Duration.ofMillis(claimLeaseMs));
+        due.forEach(message -> message.setNextAttemptAt(leaseEnd));
+        return due;
+    }
+
+    private void recordOutcomes(Set<Long> sent, Map<Long, Exception> failed) {
+        Set<Long> ids = new HashSet<>(sent);
+        ids.addAll(failed.keySet());
+        LocalDateTime now = LocalDateTime.now();
+        for (EmailOutboxMessage message : outboxRepository.findAllById(ids)) {
+            Exception failure = failed.get(message.getId());
+            if (failure == null) {
+                markSent(message, now);
+            } else {
+                recordFailure(message, failure);
+            }
+        }
+    }
+
+    // Messages sharing a template are rendered together in one pass
+    private Map<EmailOutboxMessage, String> renderTemplated(List<EmailOutboxMessage> messages,
+                                                            Map<Long, Exception> failed) {
+        Map<String, List<EmailOutboxMessage>> byTemplate = new LinkedHashMap<>();
+        for (EmailOutboxMessage message : messages) {
+            if (message.isTemplated()) {
+                byTemplate.computeIfAbsent(message.getTemplateName(), name -> new ArrayList<>()).add(message);
+            }
+        }
+
+        // Entities are mutable, so key them by identity
+        Map<EmailOutboxMessage, String> rendered = new IdentityHashMap<>();
+        byTemplate.forEach((templateName, group) -> {
+            List<EmailOutboxMessage> renderable = new ArrayList<>(group.size());
+            List<Map<String, Object>> models = new ArrayList<>(group.size());
+            for (EmailOutboxMessage message : group) {
+                try {
+                    models.add(objectMapper.readValue(message.getTemplateModel(), MODEL_TYPE));
+                    renderable.add(message);
+                } catch (IOException e) {
+                    failed.put(message.getId(), e);
+                }
+            }
+
+            List<EmailTemplateRenderer.Result> results = templateRenderer.renderAll(templateName, models);
+            for (int i = 0; i < renderable.size(); i++) {
+                EmailTemplateRenderer.Result result = results.get(i);
+                if (result.isSuccess()) {
+                    rendered.put(renderable.get(i), result.getHtml());
+                } else {
+                    failed.put(renderable.get(i).getId(), result.getError());
+                }
+            }
+        });
+        return rendered;
+    }
+
+    private MimeMessage toMimeMessage(EmailOutboxMessage message, String html) throws MessagingException {
+        MimeMessage mimeMessage = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, message.isTemplated(), "UTF-8");
+        helper.setTo(message.getRecipient());
+        helper.setSubject(message.getSubject());
+        if (message.isTemplated()) {
+            helper.setText(html, true);
+        } else {
+            helper.setText(message.getBody());
+        }
+        return mimeMessage;
+    }
+
+    private void markSent(EmailOutboxMessage message, LocalDateTime now) {
+        message.setAttempts(message.getAttempts() + 1);
+        message.setStatus(EmailOutboxStatus.SENT);
+        message.setSentAt(now);
+        message.setLastError(null);
+    }
+
+    private void recordFailure(EmailOutboxMessage message, Exception e) {
+        int attempts = message.getAttempts() + 1;
+        message.setAttempts(attempts);
+        message.setLastError(truncate(String.valueOf(e.getMessage())));
+        if (attempts >= maxAttempts) {
+            message.setStatus(EmailOutboxStatus.FAILED);
+            log.error("Giving up on email {} to {} after {} attempts", message.getId(), message.getRecipient(), attempts, e);
+            return;
+        }
+        // Exponential backoff: initial, 2x, 4x, ... capped at the maximum
+        long backoffMs = Math.min(maxBackoffMs, initialBackoffMs << Math.min(attempts - 1, 30));
+        message.setNextAttemptAt(LocalDateTime.now().plus(Duration.ofMillis(backoffMs)));
+        log.warn("Email {} failed (attempt {}), retrying in {} ms: {}", message.getId(), attempts, backoffMs, e.getMessage());
+    }
+
+    private static Map<Object, Exception> allFailed(Map<MimeMessage, EmailOutboxMessage> prepared, Exception e) {
+        Map<Object, Exception> failures = new LinkedHashMap<>();
+        prepared.keySet().forEach(mimeMessage -> failures.put(mimeMessage, e));
+        return failures;
+    }
+
+    private static String truncate(String error) {
+        return error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+    }
+}
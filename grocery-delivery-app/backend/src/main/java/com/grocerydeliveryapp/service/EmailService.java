@@ -1,86 +1,70 @@
 package com.grocerydeliveryapp.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.grocerydeliveryapp.model.EmailOutboxMessage;
+import com.grocerydeliveryapp.repository.EmailOutboxRepository;
 import lombok.RequiredArgsConstructor;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.mail.javamail.MimeMessageHelper;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
-import org.thymeleaf.TemplateEngine;
-import org.thymeleaf.context.Context;
+import org.springframework.transaction.annotation.Transactional;
 
-import javax.mail.MessagingException;
-import javax.mail.internet.MimeMessage;
+import java.util.HashMap;
 import java.util.Map;
 
+// Emails are written to the outbox in the caller's transaction and sent later by EmailDispatcher,
+// so a slow or unreachable mail server never holds up an order or a login
 @Service
 @RequiredArgsConstructor
 public class EmailService {
 
-    private final JavaMailSender mailSender;
-    private final TemplateEngine templateEngine;
+    private final EmailOutboxRepository outboxRepository;
+    private final ObjectMapper objectMapper;
 
-    @Async
+    @Transactional
     public void sendEmail(String to, String subject, String text) {
-        try {
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setTo(to);
-            message.setSubject(subject);
-            message.setText(text);
-            mailSender.send(message);
-        } catch (Exception e) {
-            // Log the error but don't throw it to prevent blocking the main flow
-            System.err.println("Failed to send email: " + e.getMessage());
-        }
+        EmailOutboxMessage message = new EmailOutboxMessage();
+        message.setRecipient(to);
+        message.setSubject(subject);
+        message.setBody(text);
+        outboxRepository.save(message);
     }
 
-    @Async
+    @Transactional
     public void sendHtmlEmail(String to, String subject, String templateName, Map<String, Object> templateModel) {
+        EmailOutboxMessage message = new EmailOutboxMessage();
+        message.setRecipient(to);
+        message.setSubject(subject);
+        message.setTemplateName(templateName);
         try {
-            MimeMessage message = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
-            
-            Context context = new Context();
-            context.setVariables(templateModel);
-            String htmlContent = templateEngine.process(templateName, context);
-
-            helper.setTo(to);
-            helper.setSubject(subject);
-            helper.setText(htmlContent, true);
-
-            mailSender.send(message);
-        } catch (MessagingException e) {
-            System.err.println("Failed to send HTML email: " + e.getMessage());
+            message.setTemplateModel(objectMapper.writeValueAsString(templateModel));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize model for template " + templateName, e);
         }
+        outboxRepository.save(message);
     }
 
-    @Async
     public void sendOrderConfirmation(String to, String orderNumber, Map<String, Object> orderDetails) {
         String subject = "Order Confirmation - #" + orderNumber;
         Map<String, Object> templateModel = Map.of(
             "orderNumber", orderNumber,
-            "orderDetails", orderDetails,
-            "supportEmail", "support@groceryapp.com",
-            "supportPhone", "+1-888-GROCERY"
+            "orderDetails", orderDetails
         );
         
         sendHtmlEmail(to, subject, "order-confirmation", templateModel);
     }
 
-    @Async
     public void sendOrderStatusUpdate(String to, String orderNumber, String status, String estimatedDeliveryTime) {
         String subject = "Order Status Update - #" + orderNumber;
-        Map<String, Object> templateModel = Map.of(
-            "orderNumber", orderNumber,
-            "status", status,
-            "estimatedDeliveryTime", estimatedDeliveryTime,
-            "trackingUrl", "https://groceryapp.com/track/" + orderNumber
-        );
+        // Only set once the order is out for delivery, and Map.of rejects nulls
+        Map<String, Object> templateModel = new HashMap<>();
+        templateModel.put("orderNumber", orderNumber);
+        templateModel.put("status", status);
+        templateModel.put("estimatedDeliveryTime", estimatedDeliveryTime);
+        templateModel.put("trackingUrl", "https://groceryapp.com/track/" + orderNumber);
         
         sendHtmlEmail(to, subject, "order-status-update", templateModel);
     }
 
-    @Async
     public void sendDeliveryConfirmation(String to, String orderNumber) {
         String subject = "Order Delivered - #" + orderNumber;
         Map<String, Object> templateModel = Map.of(
@@ -91,7 +75,6 @@ public class EmailService {
         sendHtmlEmail(to, subject, "delivery-confirmation", templateModel);
     }
 
-    @Async
     public void sendPasswordResetEmail(String to, String resetToken) {
         String subject = "Password Reset Request";
         Map<String, Object> templateModel = Map.of(
@@ -103,13 +86,10 @@ public class EmailService {
         sendHtmlEmail(to, subject, "password-reset", templateModel);
     }
 
-    @Async
     public void sendWelcomeEmail(String to, String username) {
         String subject = "Welcome to Grocery Delivery App!";
         Map<String, Object> templateModel = Map.of(
-            "username", username,
-            "supportEmail", "support@groceryapp.com",
-            "supportPhone", "+1-888-GROCERY"
+            "username", username
         );
         
         sendHtmlEmail(to, subject, "welcome", templateModel);
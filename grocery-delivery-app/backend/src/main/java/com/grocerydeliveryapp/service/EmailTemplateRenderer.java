@@ -0,0 +1,137 @@
+package com.grocerydeliveryapp.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.thymeleaf.ITemplateEngine;
+import org.thymeleaf.context.Context;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
+
+// Parsed templates are cached by the engine (spring.thymeleaf.cache); what is left per message
+// is evaluating the expressions that actually differ between recipients
+@Slf4j
+@Component
+public class EmailTemplateRenderer {
+
+    public static final String SUPPORT_EMAIL = "support@groceryapp.com";
+    public static final String SUPPORT_PHONE = "+1-888-GROCERY";
+
+    private static final String HEADER_TEMPLATE = "fragments/header";
+    private static final String FOOTER_TEMPLATE = "fragments/footer";
+
+    private final ITemplateEngine templateEngine;
+    private final MeterRegistry meterRegistry;
+    private final Executor renderExecutor;
+    private final int chunkSize;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    // Header, footer and contact details, identical in every email and rendered only once
+    private volatile Map<String, Object> sharedVariables;
+
+    public EmailTemplateRenderer(ITemplateEngine templateEngine,
+                                 MeterRegistry meterRegistry,
+                                 @Qualifier("emailRenderExecutor") Executor renderExecutor,
+                                 @Value("${app.mail.render.chunk-size:25}") int chunkSize) {
+        this.templateEngine = templateEngine;
+        this.meterRegistry = meterRegistry;
+        this.renderExecutor = renderExecutor;
+        this.chunkSize = chunkSize;
+    }
+
+    public String render(String templateName, Map<String, Object> model) {
+        Context context = new Context();
+        context.setVariables(sharedVariables());
+        context.setVariables(model);
+        return timer(templateName).record(() -> templateEngine.process(templateName, context));
+    }
+
+    // Renders one template for many recipients, splitting the work across the render pool.
+    // Results line up with the models; one bad model does not fail the others.
+    public List<Result> renderAll(String templateName, List<Map<String, Object>> models) {
+        if (models.size() <= chunkSize) {
+            return renderChunk(templateName, models);
+        }
+        List<CompletableFuture<List<Result>>> chunks = new ArrayList<>();
+        for (int from = 0; from < models.size(); from += chunkSize) {
+            List<Map<String, Object>> chunk = models.subList(from, Math.min(from + chunkSize, models.size()));
+            chunks.add(CompletableFuture.supplyAsync(() -> renderChunk(templateName, chunk), renderExecutor));
+        }
+        return chunks.stream()
+                .flatMap(chunk -> chunk.join().stream())
+                .collect(Collectors.toList());
+    }
+
+    private List<Result> renderChunk(String templateName, List<Map<String, Object>> models) {
+        List<Result> results = new ArrayList<>(models.size());
+        for (Map<String, Object> model : models) {
+            try {
+                results.add(Result.rendered(render(templateName, model)));
+            } catch (Exception e) {
+                log.warn("Failed to render {}: {}", templateName, e.getMessage());
+                results.add(Result.failed(e));
+            }
+        }
+        return results;
+    }
+
+    private Map<String, Object> sharedVariables() {
+        Map<String, Object> shared = sharedVariables;
+        if (shared == null) {
+            // Rendering twice on a race is harmless, both copies are identical
+            Map<String, Object> contact = Map.of(
+                    "supportEmail", SUPPORT_EMAIL,
+                    "supportPhone", SUPPORT_PHONE);
+            Context context = new Context();
+            context.setVariables(contact);
+
+            shared = new HashMap<>(contact);
+            shared.put("emailHeader", templateEngine.process(HEADER_TEMPLATE, context));
+            shared.put("emailFooter", templateEngine.process(FOOTER_TEMPLATE, context));
+            shared = Map.copyOf(shared);
+            sharedVariables = shared;
+        }
+        return shared;
+    }
+
+    private Timer timer(String templateName) {
+        return timers.computeIfAbsent(templateName, name -> Timer.builder("email.render")
+                .description("Time to render one email from a template")
+                .tag("template", name)
+                .register(meterRegistry));
+    }
+
+    @Getter
+    public static class Result {
+        private final String html;
+        private final Exception error;
+
+        private Result(String html, Exception error) {
+            this.html = html;
+            this.error = error;
+        }
+
+        static Result rendered(String html) {
+            return new Result(html, null);
+        }
+
+        static Result failed(Exception error) {
+            return new Result(null, error);
+        }
+
+        public boolean isSuccess() {
+            return error == null;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.grocerydeliveryapp.service;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+
+// Durable side of payment idempotency; lets completed payments be replayed after
+// a restart or from another instance
+public interface IdempotencyStore {
+
+    Optional<StoredPayment> find(String key);
+
+    void save(String key, String fingerprint, Map<String, Object> response);
+
+    void purgeOlderThan(LocalDateTime cutoff);
+
+    @Getter
+    @RequiredArgsConstructor
+    class StoredPayment {
+        // Null for records stored before fingerprints were kept
+        private final String fingerprint;
+        private final Map<String, Object> response;
+    }
+}
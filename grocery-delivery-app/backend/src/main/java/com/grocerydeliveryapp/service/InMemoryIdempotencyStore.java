@@ -0,0 +1,30 @@
+package com.grocerydeliveryapp.service;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+
+// Used with app.payment.idempotency.store=memory: no durable copy, the in-process
+// registry in PaymentIdempotencyService is the only record
+@Component
+@ConditionalOnProperty(name = "app.payment.idempotency.store", havingValue = "memory")
+public class InMemoryIdempotencyStore implements IdempotencyStore {
+
+    @Override
+    public Optional<StoredPayment> find(String key) {
+        return Optional.empty();
+    }
+
+    @Override
+    public void save(String key, String fingerprint, Map<String, Object> response) {
+        // Nothing to persist
+    }
+
+    @Override
+    public void purgeOlderThan(LocalDateTime cutoff) {
+        // Nothing to purge
+    }
+}
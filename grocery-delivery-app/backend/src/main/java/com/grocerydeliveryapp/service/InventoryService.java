@@ -0,0 +1,212 @@
+package com.grocerydeliveryapp.service;
+
+import com.grocerydeliveryapp.dto.product.StockAdjustmentRequest;
+import com.grocerydeliveryapp.dto.product.StockAdjustmentResponse;
+import com.grocerydeliveryapp.event.ProductChangedEvent;
+import com.grocerydeliveryapp.exception.OutOfStockException;
+import com.grocerydeliveryapp.model.*;
+import com.grocerydeliveryapp.repository.ProductRepository;
+import com.grocerydeliveryapp.repository.StockReservationRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.IncorrectUpdateSemanticsDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Service
+@RequiredArgsConstructor
+public class InventoryService {
+
+    private static final List<ReservationStatus> RESTOCKABLE =
+            List.of(ReservationStatus.HELD, ReservationStatus.COMMITTED);
+    private static final List<ReservationStatus> EXPIRABLE = List.of(ReservationStatus.HELD);
+
+    private static final String DECREMENT_STOCK_SQL =
+            "UPDATE products SET " +
+            "is_available = CASE WHEN stock_quantity > ? THEN TRUE ELSE FALSE END, " +
+            "stock_quantity = stock_quantity - ?, " +
+            "updated_at = CURRENT_TIMESTAMP " +
+            "WHERE id = ? AND stock_quantity >= ?";
+
+    // New level = keep * current + quantity: keep is 0 for absolute counts and 1 for deltas, so both
+    // kinds share one statement and the batch runs in request order. Never goes below zero
+    private static final String ADJUST_STOCK_SQL =
+            "UPDATE products SET " +
+            "is_available = CASE WHEN ? * stock_quantity + ? > 0 THEN TRUE ELSE FALSE END, " +
+            "stock_quantity = ? * stock_quantity + ?, " +
+            "updated_at = CURRENT_TIMESTAMP " +
+            "WHERE sku = ? AND ? * stock_quantity + ? >= 0";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ProductRepository productRepository;
+    private final StockReservationRepository reservationRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${app.inventory.reservation-ttl-minutes:15}")
+    private long reservationTtlMinutes;
+
+    // Cleared once the driver answers a batch with SUCCESS_NO_INFO; from then on conditional
+    // updates run one statement at a time so every row reports whether it matched
+    private volatile boolean batchCountsReported = true;
+
+    @Transactional
+    public void reserveAll(Map<Long, Product> products, Map<Long, Integer> quantities) {
+        List<Long> productIds = new ArrayList<>(quantities.keySet());
+        List<Object[]> batchArgs = new ArrayList<>(productIds.size());
+        for (Long productId : productIds) {
+            Integer quantity = quantities.get(productId);
+            batchArgs.add(new Object[]{quantity, quantity, productId, quantity});
+        }
+
+        // One batch for the whole basket; the WHERE clause is the stock check,
+        // so concurrent checkouts can never oversell
+        int[] updated = conditionalUpdate(DECREMENT_STOCK_SQL, batchArgs);
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                Product product = products.get(productIds.get(i));
+                throw new OutOfStockException("Product " + product.getName() + " is not available in requested quantity");
+            }
+        }
+        eventPublisher.publishEvent(ProductChangedEvent.stockChanged(productIds));
+    }
+
+    // Warehouse sync: every adjustment in one JDBC batch and one cache invalidation for the lot
+    @Transactional
+    public StockAdjustmentResponse adjustStock(List<StockAdjustmentRequest.Adjustment> adjustments) {
+        List<StockAdjustmentResponse.RejectedAdjustment> rejected = new ArrayList<>();
+        List<StockAdjustmentRequest.Adjustment> accepted = new ArrayList<>(adjustments.size());
+        List<Object[]> batchArgs = new ArrayList<>(adjustments.size());
+        for (StockAdjustmentRequest.Adjustment adjustment : adjustments) {
+            boolean delta = adjustment.getMode() == StockAdjustmentRequest.Mode.DELTA;
+            Integer quantity = adjustment.getQuantity();
+            if (!delta && quantity < 0) {
+                rejected.add(new StockAdjustmentResponse.RejectedAdjustment(
+                        adjustment.getSku(), "Stock count must not be negative"));
+                continue;
+            }
+            int keep = delta ? 1 : 0;
+            accepted.add(adjustment);
+            batchArgs.add(new Object[]{keep, quantity, keep, quantity, adjustment.getSku(), keep, quantity});
+        }
+
+        int[] updated = batchArgs.isEmpty() ? new int[0] : conditionalUpdate(ADJUST_STOCK_SQL, batchArgs);
+        Set<String> appliedSkus = new LinkedHashSet<>();
+        List<String> unmatched = new ArrayList<>();
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                unmatched.add(accepted.get(i).getSku());
+            } else {
+                appliedSkus.add(accepted.get(i).getSku());
+            }
+        }
+
+        if (!unmatched.isEmpty()) {
+            // Nothing was updated, so work out why for the caller
+            Set<String> known = new HashSet<>(productRepository.findSkusIn(unmatched));
+            for (String sku : unmatched) {
+                rejected.add(new StockAdjustmentResponse.RejectedAdjustment(
+                        sku, known.contains(sku) ? "Stock would fall below zero" : "Unknown SKU"));
+            }
+        }
+        if (!appliedSkus.isEmpty()) {
+            eventPublisher.publishEvent(ProductChangedEvent.stockChanged(productRepository.findIdsBySkuIn(appliedSkus)));
+        }
+        return new StockAdjustmentResponse(accepted.size() - unmatched.size(), rejected);
+    }
+
+    // Row count per statement, never SUCCESS_NO_INFO: without a count there is no telling whether
+    // the WHERE clause matched, so such a batch rolls the caller back instead of guessing
+    private int[] conditionalUpdate(String sql, List<Object[]> batchArgs) {
+        if (!batchCountsReported) {
+            return batchArgs.stream()
+                    .mapToInt(args -> jdbcTemplate.update(sql, args))
+                    .toArray();
+        }
+        int[] updated = jdbcTemplate.batchUpdate(sql, batchArgs);
+        for (int count : updated) {
+            if (count < 0) {
+                batchCountsReported = false;
+                throw new IncorrectUpdateSemanticsDataAccessException(
+                        "Driver did not report row counts for a conditional batch update");
+            }
+        }
+        return updated;
+    }
+
+    @Transactional
+    public void recordReservations(Order order) {
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        for (OrderItem item : order.getOrderItems()) {
+            quantities.merge(item.getProduct().getId(), item.getQuantity(), Integer::sum);
+        }
+
+        // Cash orders have nothing left to wait for, other methods hold stock until paid
+        boolean payOnDelivery = "COD".equalsIgnoreCase(order.getPaymentMethod());
+        LocalDateTime expiresAt = LocalDateTime.now().plusMinutes(reservationTtlMinutes);
+
+        List<StockReservation> reservations = new ArrayList<>(quantities.size());
+        quantities.forEach((productId, quantity) -> {
+            StockReservation reservation = new StockReservation();
+            reservation.setOrderId(order.getId());
+            reservation.setProductId(productId);
+            reservation.setQuantity(quantity);
+            reservation.setStatus(payOnDelivery ? ReservationStatus.COMMITTED : ReservationStatus.HELD);
+            reservation.setExpiresAt(payOnDelivery ? null : expiresAt);
+            reservations.add(reservation);
+        });
+        reservationRepository.saveAll(reservations);
+    }
+
+    @Transactional
+    public void commitReservations(Long orderId) {
+        reservationRepository.transitionStatus(orderId, ReservationStatus.HELD, ReservationStatus.COMMITTED);
+    }
+
+    @Transactional
+    public void releaseReservations(Long orderId) {
+        release(orderId, RESTOCKABLE);
+    }
+
+    public List<Long> findOrdersWithExpiredHolds() {
+        return reservationRepository.findOrderIdsWithExpiredReservations(ReservationStatus.HELD, LocalDateTime.now());
+    }
+
+    // Only the expired hold goes back; false when payment committed it first
+    @Transactional
+    public boolean releaseExpiredHold(Long orderId) {
+        return release(orderId, EXPIRABLE) > 0;
+    }
+
+    // Each row is claimed with a conditional update before its stock is returned, so two
+    // releases racing on the same order restock it only once between them
+    private int release(Long orderId, List<ReservationStatus> statuses) {
+        List<StockReservation> reservations = reservationRepository.findByOrderIdAndStatusIn(orderId, statuses);
+        int released = 0;
+        Set<Long> productIds = new HashSet<>();
+        for (StockReservation reservation : reservations) {
+            if (reservationRepository.claim(reservation.getId(), statuses, ReservationStatus.RELEASED) == 0) {
+                continue;
+            }
+            productRepository.incrementStock(reservation.getProductId(), reservation.getQuantity());
+            reservation.setStatus(ReservationStatus.RELEASED);
+            productIds.add(reservation.getProductId());
+            released++;
+        }
+
+        if (!productIds.isEmpty()) {
+            eventPublisher.publishEvent(ProductChangedEvent.stockChanged(productIds));
+        }
+        return released;
+    }
+}
@@ -0,0 +1,65 @@
+package com.grocerydeliveryapp.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.grocerydeliveryapp.model.PaymentIdempotencyRecord;
+import com.grocerydeliveryapp.repository.PaymentIdempotencyRecordRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.payment.idempotency.store", havingValue = "jpa", matchIfMissing = true)
+public class JpaIdempotencyStore implements IdempotencyStore {
+
+    private static final TypeReference<Map<String, Object>> BILL_TYPE = new TypeReference<>() {};
+
+    private final PaymentIdempotencyRecordRepository recordRepository;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<StoredPayment> find(String key) {
+        return recordRepository.findById(key).map(record -> {
+            try {
+                return new StoredPayment(record.getRequestFingerprint(),
+                        objectMapper.readValue(record.getResponseBody(), BILL_TYPE));
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Corrupt idempotency record " + key, e);
+            }
+        });
+    }
+
+    @Override
+    @Transactional
+    public void save(String key, String fingerprint, Map<String, Object> response) {
+        try {
+            PaymentIdempotencyRecord record = new PaymentIdempotencyRecord();
+            record.setIdempotencyKey(key);
+            record.setRequestFingerprint(fingerprint);
+            record.setResponseBody(objectMapper.writeValueAsString(response));
+            // Assigned id, so this merges: a copy stored by another instance is simply overwritten
+            recordRepository.save(record);
+        } catch (JsonProcessingException e) {
+            log.error("Could not persist idempotency record {}", key, e);
+        }
+    }
+
+    @Override
+    @Transactional
+    public void purgeOlderThan(LocalDateTime cutoff) {
+        int purged = recordRepository.deleteCreatedBefore(cutoff);
+        if (purged > 0) {
+            log.info("Purged {} expired payment idempotency records", purged);
+        }
+    }
+}
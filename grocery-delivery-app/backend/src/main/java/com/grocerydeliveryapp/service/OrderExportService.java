@@ -0,0 +1,180 @@
+package com.grocerydeliveryapp.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.grocerydeliveryapp.model.Order;
+import com.grocerydeliveryapp.model.OrderStatus;
+import com.grocerydeliveryapp.repository.OrderRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+// Writes admin order exports straight to the response as rows come off the database cursor.
+// Each order is detached once written, so memory stays flat however long the date range is
+@Service
+@RequiredArgsConstructor
+public class OrderExportService {
+
+    public enum Format {
+        CSV("text/csv", "csv"),
+        NDJSON("application/x-ndjson", "ndjson");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    static final String[] COLUMNS = {
+            "id", "createdAt", "userId", "status", "paymentMethod", "paymentStatus", "transactionId",
+            "totalAmount", "deliveryCharge", "taxAmount", "estimatedDeliveryTime", "actualDeliveryTime",
+            "deliveryPartnerName", "cancellationReason", "rating"
+    };
+
+    // The detached orders are gone from the persistence context, but the lazy user proxies they
+    // brought in are not; clearing now and then drops those too
+    private static final int CLEAR_EVERY = 1000;
+
+    private final OrderRepository orderRepository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    @Transactional(readOnly = true)
+    public long exportOrders(LocalDateTime from, LocalDateTime to, OrderStatus status, String paymentMethod,
+                             Format format, OutputStream out) throws IOException {
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("Export range must end after it starts");
+        }
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        RowWriter rows = format == Format.CSV ? new CsvRowWriter(writer) : new JsonRowWriter(writer);
+        long written = 0;
+        try (Stream<Order> orders = orderRepository.streamForExport(from, to, status, paymentMethod)) {
+            rows.start();
+            Iterator<Order> iterator = orders.iterator();
+            while (iterator.hasNext()) {
+                Order order = iterator.next();
+                rows.write(toRow(order));
+                entityManager.detach(order);
+                if (++written % CLEAR_EVERY == 0) {
+                    entityManager.clear();
+                }
+            }
+        }
+        writer.flush();
+        return written;
+    }
+
+    private Object[] toRow(Order order) {
+        // The user's id comes from the foreign key held by the proxy; the user row is never loaded
+        return new Object[]{
+                order.getId(), order.getCreatedAt(), order.getUser() != null ? order.getUser().getId() : null,
+                order.getStatus(), order.getPaymentMethod(), order.getPaymentStatus(), order.getPaymentTransactionId(),
+                order.getTotalAmount(), order.getDeliveryCharge(), order.getTaxAmount(),
+                order.getEstimatedDeliveryTime(), order.getActualDeliveryTime(),
+                order.getDeliveryPartnerName(), order.getCancellationReason(), order.getRating()
+        };
+    }
+
+    private interface RowWriter {
+        void start() throws IOException;
+
+        void write(Object[] values) throws IOException;
+    }
+
+    private static final class CsvRowWriter implements RowWriter {
+        private final Writer writer;
+
+        private CsvRowWriter(Writer writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void start() throws IOException {
+            writer.write(String.join(",", COLUMNS));
+            writer.write("\r\n");
+        }
+
+        @Override
+        public void write(Object[] values) throws IOException {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                if (values[i] != null) {
+                    writer.write(escape(values[i].toString()));
+                }
+            }
+            writer.write("\r\n");
+        }
+
+        private static String escape(String value) {
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                return value;
+            }
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+    }
+
+    private final class JsonRowWriter implements RowWriter {
+        private final Writer writer;
+        private final JsonGenerator generator;
+
+        private JsonRowWriter(Writer writer) throws IOException {
+            this.writer = writer;
+            this.generator = objectMapper.getFactory().createGenerator(writer);
+            // Flushing a row only hands it to the buffered writer, not to the socket
+            this.generator.disable(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM);
+        }
+
+        @Override
+        public void start() {
+            // No header; every line is a complete order
+        }
+
+        @Override
+        public void write(Object[] values) throws IOException {
+            generator.writeStartObject();
+            for (int i = 0; i < values.length; i++) {
+                Object value = values[i];
+                if (value == null) {
+                    continue;
+                }
+                if (value instanceof BigDecimal) {
+                    generator.writeNumberField(COLUMNS[i], (BigDecimal) value);
+                } else if (value instanceof Long) {
+                    generator.writeNumberField(COLUMNS[i], (Long) value);
+                } else if (value instanceof Integer) {
+                    generator.writeNumberField(COLUMNS[i], (Integer) value);
+                } else {
+                    generator.writeStringField(COLUMNS[i], value.toString());
+                }
+            }
+            generator.writeEndObject();
+            generator.flush();
+            writer.write('\n');
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.grocerydeliveryapp.service;
+
+import com.grocerydeliveryapp.event.OrderStatusChangedEvent;
+import com.grocerydeliveryapp.event.OrderStatusSubscriber;
+import com.grocerydeliveryapp.model.OrderStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+@RequiredArgsConstructor
+public class OrderMetricsRecorder implements OrderStatusSubscriber {
+
+    private final MeterRegistry meterRegistry;
+    private final Map<OrderStatus, Counter> transitions = new ConcurrentHashMap<>();
+
+    @Override
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        transitions.computeIfAbsent(event.getNewStatus(), status -> Counter.builder("orders.status.transitions")
+                        .description("Orders entering each status")
+                        .tag("status", status.name())
+                        .register(meterRegistry))
+                .increment();
+
+        LocalDateTime placedAt = event.getOrder().getCreatedAt();
+        LocalDateTime deliveredAt = event.getOrder().getActualDeliveryTime();
+        if (event.getNewStatus() == OrderStatus.DELIVERED && placedAt != null && deliveredAt != null) {
+            Timer.builder("orders.fulfilment.time")
+                    .description("Time from placing an order to its delivery")
+                    .register(meterRegistry)
+                    .record(Duration.between(placedAt, deliveredAt));
+        }
+    }
+}
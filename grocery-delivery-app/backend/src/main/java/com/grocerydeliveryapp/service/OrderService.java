@@ -1,15 +1,23 @@
 package com.grocerydeliveryapp.service;
 
+import com.grocerydeliveryapp.dto.common.CursorPage;
+import com.grocerydeliveryapp.dto.common.PageCursor;
 import com.grocerydeliveryapp.dto.order.OrderItemRequest;
 import com.grocerydeliveryapp.dto.order.OrderRequest;
 import com.grocerydeliveryapp.dto.order.OrderResponse;
+import com.grocerydeliveryapp.event.OrderStatusChangedEvent;
 import com.grocerydeliveryapp.model.*;
 import com.grocerydeliveryapp.repository.OrderRepository;
 import com.grocerydeliveryapp.repository.ProductRepository;
 import com.grocerydeliveryapp.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -17,10 +25,16 @@ import javax.persistence.EntityNotFoundException;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class OrderService {
@@ -28,8 +42,9 @@ public class OrderService {
     private final OrderRepository orderRepository;
     private final ProductRepository productRepository;
     private final UserRepository userRepository;
-    private final ProductService productService;
+    private final InventoryService inventoryService;
     private final EmailService emailService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public OrderResponse createOrder(OrderRequest request, Long userId) {
@@ -47,13 +62,25 @@ public class OrderService {
         order.setEstimatedDeliveryTime(LocalDateTime.now().plusHours(2));
         order.setCreatedAt(LocalDateTime.now());
         
+        // Load every requested product in one round trip and validate in memory
+        Set<Long> productIds = request.getOrderItems().stream()
+                .map(OrderItemRequest::getProductId)
+                .collect(Collectors.toSet());
+        Map<Long, Product> products = productRepository.findAllById(productIds).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+
         // Process order items
+        Map<Long, Integer> requestedQuantities = new LinkedHashMap<>();
         BigDecimal totalAmount = BigDecimal.ZERO;
         for (OrderItemRequest itemRequest : request.getOrderItems()) {
-            Product product = productRepository.findById(itemRequest.getProductId())
-                    .orElseThrow(() -> new EntityNotFoundException("Product not found: " + itemRequest.getProductId()));
+            Product product = products.get(itemRequest.getProductId());
+            if (product == null) {
+                throw new EntityNotFoundException("Product not found: " + itemRequest.getProductId());
+            }
 
-            if (!product.isAvailable() || product.getStockQuantity() < itemRequest.getQuantity()) {
+            // The same product may appear on several lines
+            int requested = requestedQuantities.merge(product.getId(), itemRequest.getQuantity(), Integer::sum);
+            if (!product.isAvailable() || product.getStockQuantity() < requested) {
                 throw new IllegalStateException("Product " + product.getName() + " is not available in requested quantity");
             }
 
@@ -67,14 +94,14 @@ public class OrderService {
 
             order.getOrderItems().add(orderItem);
             
-            // Update product stock
-            productService.updateStock(product.getId(), itemRequest.getQuantity());
-            
             // Calculate total
             orderItem.calculateSubtotal();
             totalAmount = totalAmount.add(orderItem.getSubtotal());
         }
 
+        // Reserve stock for all lines in one batch
+        inventoryService.reserveAll(products, requestedQuantities);
+
         // Set delivery charge (example: ₹40 for orders below ₹500)
         BigDecimal deliveryCharge = totalAmount.compareTo(new BigDecimal("500")) < 0 ? 
             new BigDecimal("40") : BigDecimal.ZERO;
@@ -93,11 +120,14 @@ public class OrderService {
 
         // Save the order
         Order savedOrder = orderRepository.save(order);
+        inventoryService.recordReservations(savedOrder);
 
         // Send order confirmation email
         sendOrderConfirmationEmail(savedOrder);
 
-        return mapToOrderResponse(savedOrder);
+        OrderResponse response = mapToOrderResponse(savedOrder);
+        eventPublisher.publishEvent(new OrderStatusChangedEvent(userId, null, response));
+        return response;
     }
 
     @Transactional(readOnly = true)
@@ -112,6 +142,11 @@ public class OrderService {
         return mapToOrderResponse(order);
     }
 
+    @Transactional(readOnly = true)
+    public boolean isAssignedCourier(Long orderId, String username) {
+        return orderRepository.existsByIdAndDeliveryPartnerName(orderId, username);
+    }
+
     @Transactional(readOnly = true)
     public Page<OrderResponse> getUserOrders(Long userId, Pageable pageable) {
         User user = userRepository.findById(userId)
@@ -121,26 +156,54 @@ public class OrderService {
                 .map(this::mapToOrderResponse);
     }
 
+    @Transactional(readOnly = true)
+    public CursorPage<OrderResponse> scrollUserOrders(Long userId, String after, int size) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new EntityNotFoundException("User not found"));
+
+        PageRequest limit = PageRequest.of(0, size);
+        Slice<Order> slice;
+        if (after == null || after.isBlank()) {
+            slice = orderRepository.findFirstKeysetPageByUser(user, limit);
+        } else {
+            PageCursor cursor = PageCursor.decode(after);
+            slice = orderRepository.findKeysetPageByUserAfter(user, cursor.getCreatedAt(), cursor.getId(), limit);
+        }
+        return CursorPage.of(slice, this::mapToOrderResponse,
+                order -> new PageCursor(order.getCreatedAt(), order.getId()));
+    }
+
+    // Orders for the given ids, in the order the ids were given
+    @Transactional(readOnly = true)
+    public List<OrderResponse> getOrdersByIds(List<Long> orderIds) {
+        Map<Long, Order> orders = orderRepository.findAllById(orderIds).stream()
+                .collect(Collectors.toMap(Order::getId, Function.identity()));
+        return orderIds.stream()
+                .map(orders::get)
+                .filter(Objects::nonNull)
+                .map(this::mapToOrderResponse)
+                .collect(Collectors.toList());
+    }
+
     @Transactional
     public OrderResponse updateOrderStatus(Long orderId, OrderStatus newStatus) {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new EntityNotFoundException("Order not found"));
 
-        order.setStatus(newStatus);
-        order.setUpdatedAt(LocalDateTime.now());
-
         if (newStatus == OrderStatus.OUT_FOR_DELIVERY) {
             order.setEstimatedDeliveryTime(LocalDateTime.now().plusMinutes(45));
         } else if (newStatus == OrderStatus.DELIVERED) {
             order.setActualDeliveryTime(LocalDateTime.now());
+        } else if (newStatus == OrderStatus.CANCELLED) {
+            // Same as a customer cancellation: whatever the order still holds goes back on sale
+            inventoryService.releaseReservations(orderId);
         }
 
-        Order updatedOrder = orderRepository.save(order);
-        
-        // Send status update email
-        sendOrderStatusUpdateEmail(updatedOrder);
+        OrderResponse response = changeStatus(order, newStatus);
 
-        return mapToOrderResponse(updatedOrder);
+        // Send status update email
+        sendOrderStatusUpdateEmail(order);
+        return response;
     }
 
     @Transactional
@@ -157,22 +220,86 @@ public class OrderService {
         }
 
         // Restore product stock
-        for (OrderItem item : order.getOrderItems()) {
-            Product product = item.getProduct();
-            product.setStockQuantity(product.getStockQuantity() + item.getQuantity());
-            product.setAvailable(true);
-            productRepository.save(product);
-        }
+        inventoryService.releaseReservations(order.getId());
 
-        order.setStatus(OrderStatus.CANCELLED);
-        order.setUpdatedAt(LocalDateTime.now());
+        OrderResponse response = changeStatus(order, OrderStatus.CANCELLED);
 
-        Order cancelledOrder = orderRepository.save(order);
-        
         // Send cancellation email
-        sendOrderCancellationEmail(cancelledOrder);
+        sendOrderCancellationEmail(order);
+        return response;
+    }
+
+    @Transactional(readOnly = true)
+    public Order getOrderEntity(Long orderId) {
+        return orderRepository.findById(orderId)
+                .orElseThrow(() -> new EntityNotFoundException("Order not found"));
+    }
+
+    @Transactional
+    public void updateOrderPaymentStatus(Long orderId, String paymentStatus, String paymentTransactionId) {
+        Order order = getOrderEntity(orderId);
+        order.setPaymentStatus(paymentStatus);
+        order.setPaymentTransactionId(paymentTransactionId);
+        order.setUpdatedAt(LocalDateTime.now());
+
+        if ("PAID".equals(paymentStatus)) {
+            inventoryService.commitReservations(orderId);
+        } else if ("FAILED".equals(paymentStatus)) {
+            // Give the held stock back instead of waiting for the reservation to expire
+            inventoryService.releaseReservations(orderId);
+            if (order.canBeCancelled()) {
+                order.setCancellationReason("Payment failed");
+                changeStatus(order, OrderStatus.CANCELLED);
+                return;
+            }
+        }
+
+        orderRepository.save(order);
+    }
+
+    // Orders still waiting for payment when their stock hold runs out are cancelled and the
+    // stock goes back on sale
+    @Scheduled(fixedDelayString = "${app.inventory.reservation-sweep-interval-ms:60000}")
+    @Transactional
+    public void cancelExpiredOrders() {
+        int expired = 0;
+        for (Long orderId : inventoryService.findOrdersWithExpiredHolds()) {
+            Order order = orderRepository.findById(orderId).orElse(null);
+            if (order == null || order.getStatus() == OrderStatus.CANCELLED) {
+                // Nothing will ever pay for this hold, so return it rather than find it again next sweep
+                inventoryService.releaseExpiredHold(orderId);
+                continue;
+            }
+            if (order.getStatus() != OrderStatus.PENDING) {
+                // The order was paid, confirmed or cancelled since; whatever moved it on owns its stock
+                continue;
+            }
+            // If payment committed the hold meanwhile there is nothing to release and the order stays
+            if (!inventoryService.releaseExpiredHold(orderId)) {
+                continue;
+            }
+            order.setPaymentStatus("EXPIRED");
+            order.setCancellationReason("Payment was not completed in time");
+            changeStatus(order, OrderStatus.CANCELLED);
+            expired++;
+        }
 
-        return mapToOrderResponse(cancelledOrder);
+        if (expired > 0) {
+            log.info("Cancelled {} orders whose stock reservations expired", expired);
+        }
+    }
+
+    // Every status change after placement goes through here, so subscribers hear about all of
+    // them and get the mapped order after commit instead of reloading it
+    private OrderResponse changeStatus(Order order, OrderStatus newStatus) {
+        OrderStatus previousStatus = order.getStatus();
+        order.setStatus(newStatus);
+        order.setUpdatedAt(LocalDateTime.now());
+        orderRepository.save(order);
+
+        OrderResponse response = mapToOrderResponse(order);
+        eventPublisher.publishEvent(new OrderStatusChangedEvent(order.getUser().getId(), previousStatus, response));
+        return response;
     }
 
     private String generateOrderNumber() {
@@ -192,7 +319,7 @@ public class OrderService {
             order.getUser().getEmail(),
             order.getTransactionId(),
             order.getStatus().toString(),
-            order.getEstimatedDeliveryTime().toString()
+            order.getEstimatedDeliveryTime() != null ? order.getEstimatedDeliveryTime().toString() : null
         );
     }
 
@@ -0,0 +1,314 @@
+package com.grocerydeliveryapp.service;
+
+import com.grocerydeliveryapp.dto.order.OrderStatisticsResponse;
+import com.grocerydeliveryapp.event.OrderStatusChangedEvent;
+import com.grocerydeliveryapp.event.OrderStatusSubscriber;
+import com.grocerydeliveryapp.model.OrderStatus;
+import com.grocerydeliveryapp.repository.OrderRepository;
+import com.grocerydeliveryapp.repository.StatusTotals;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Order statistics for the admin dashboard, kept as running counters instead of aggregates over
+// the orders table. Status events bump lock-free per-node deltas; a periodic checkpoint adds the
+// deltas to the order_statistics table and reads back the cluster-wide totals, so a request is
+// answered from a few dozen counters however many orders there are. Events reach this service
+// through the order event bus, which drops them when a lane is full, so the shared counters are
+// reconciled now and then against an aggregate over the orders table
+@Slf4j
+@Service
+public class OrderStatisticsService implements OrderStatusSubscriber, DisposableBean {
+
+    static final String COUNT_PREFIX = "orders.count.";
+    // Order value per status, in cents
+    static final String AMOUNT_PREFIX = "orders.amount.";
+    static final String PLACED_PREFIX = "orders.placed.";
+    static final String RATING_SUM = "ratings.sum";
+    static final String RATING_COUNT = "ratings.count";
+
+    static final int RATE_WINDOW_HOURS = 24;
+
+    private static final String SELECT_SQL = "SELECT stat_key, stat_value FROM order_statistics";
+    private static final String ADD_SQL =
+            "UPDATE order_statistics SET stat_value = stat_value + ?, updated_at = ? WHERE stat_key = ?";
+    private static final String SET_SQL =
+            "UPDATE order_statistics SET stat_value = ?, updated_at = ? WHERE stat_key = ?";
+    private static final String INSERT_SQL =
+            "INSERT INTO order_statistics (stat_key, stat_value, updated_at) VALUES (?, ?, ?)";
+    private static final String PURGE_HOURS_SQL =
+            "DELETE FROM order_statistics WHERE stat_key LIKE ? AND updated_at < ?";
+
+    private final OrderRepository orderRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    // Changes seen by this node since its last checkpoint
+    private final Map<String, LongAdder> deltas = new ConcurrentHashMap<>();
+
+    // Guarded by this: shared totals as of the last checkpoint, and deltas drained but not yet
+    // confirmed written, so a read never misses or double counts a checkpoint in progress
+    private Map<String, Long> totals = Map.of();
+    private final Map<String, Long> inFlight = new HashMap<>();
+    private LocalDateTime checkpointedAt;
+
+    // Scheduled and shutdown checkpoints may overlap; only one drains at a time
+    private final Object checkpointLock = new Object();
+
+    public OrderStatisticsService(OrderRepository orderRepository,
+                                  JdbcTemplate jdbcTemplate,
+                                  PlatformTransactionManager transactionManager) {
+        this.orderRepository = orderRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void restore() {
+        Map<String, Long> stored = load();
+        if (stored.isEmpty()) {
+            // First start against this database; events seen before this point are counted twice,
+            // which only matters for the few orders placed while the application was starting
+            stored = seed();
+        }
+        synchronized (this) {
+            totals = stored;
+            checkpointedAt = LocalDateTime.now();
+        }
+        log.info("Restored {} order statistics counters", stored.size());
+    }
+
+    @Override
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        long amount = toCents(event.getOrder().getTotalAmount());
+        OrderStatus previous = event.getPreviousStatus();
+        if (previous == null) {
+            LocalDateTime placedAt = event.getOrder().getCreatedAt() != null
+                    ? event.getOrder().getCreatedAt()
+                    : LocalDateTime.ofInstant(event.getOccurredAt(), ZoneId.systemDefault());
+            add(hourKey(placedAt), 1);
+        } else {
+            add(COUNT_PREFIX + previous, -1);
+            add(AMOUNT_PREFIX + previous, -amount);
+        }
+        add(COUNT_PREFIX + event.getNewStatus(), 1);
+        add(AMOUNT_PREFIX + event.getNewStatus(), amount);
+    }
+
+    // Ratings do not change an order's status, so they are reported here rather than through events
+    public void recordRating(int rating) {
+        add(RATING_SUM, rating);
+        add(RATING_COUNT, 1);
+    }
+
+    public synchronized OrderStatisticsResponse getStatistics() {
+        Map<OrderStatus, Long> byStatus = new EnumMap<>(OrderStatus.class);
+        long totalOrders = 0;
+        for (OrderStatus status : OrderStatus.values()) {
+            long orders = value(COUNT_PREFIX + status);
+            byStatus.put(status, orders);
+            totalOrders += orders;
+        }
+
+        long ratedOrders = value(RATING_COUNT);
+        Double averageRating = ratedOrders > 0 ? (double) value(RATING_SUM) / ratedOrders : null;
+
+        LocalDateTime currentHour = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS);
+        List<OrderStatisticsResponse.HourlyOrders> perHour = new ArrayList<>(RATE_WINDOW_HOURS);
+        for (int i = RATE_WINDOW_HOURS - 1; i >= 0; i--) {
+            LocalDateTime hour = currentHour.minusHours(i);
+            perHour.add(new OrderStatisticsResponse.HourlyOrders(hour, value(hourKey(hour))));
+        }
+
+        return OrderStatisticsResponse.builder()
+                .totalOrders(totalOrders)
+                .ordersByStatus(byStatus)
+                .revenue(BigDecimal.valueOf(value(AMOUNT_PREFIX + OrderStatus.DELIVERED), 2))
+                .averageRating(averageRating)
+                .ratedOrders(ratedOrders)
+                .ordersPerHour(perHour)
+                .checkpointedAt(checkpointedAt)
+                .build();
+    }
+
+    @Scheduled(fixedDelayString = "${app.order-statistics.checkpoint-ms:60000}")
+    public void checkpoint() {
+        synchronized (checkpointLock) {
+            Map<String, Long> drained = drain();
+            LocalDateTime now = LocalDateTime.now();
+            try {
+                // One transaction, so a failed checkpoint leaves nothing half added
+                Map<String, Long> stored = transactionTemplate.execute(status -> {
+                    drained.forEach((key, delta) -> write(key, delta, now));
+                    jdbcTemplate.update(PURGE_HOURS_SQL, PLACED_PREFIX + "%", now.minusHours(RATE_WINDOW_HOURS + 1));
+                    return load();
+                });
+                synchronized (this) {
+                    totals = stored;
+                    inFlight.clear();
+                    checkpointedAt = now;
+                }
+            } catch (DataAccessException e) {
+                // Includes losing an insert race with another node; the next checkpoint retries
+                requeue();
+                log.warn("Order statistics checkpoint failed, {} counters kept for the next one", drained.size(), e);
+            }
+        }
+    }
+
+    // Overwrites the shared counters with values aggregated from the orders table, correcting for
+    // events that were dropped or lost with a node. Writing absolute values keeps it idempotent when
+    // several nodes reconcile at once. Events still in flight while it runs may be counted twice
+    // until the next reconciliation; that window is seconds against an interval of an hour
+    @Scheduled(initialDelayString = "${app.order-statistics.reconcile-ms:3600000}",
+            fixedDelayString = "${app.order-statistics.reconcile-ms:3600000}")
+    public void reconcile() {
+        synchronized (checkpointLock) {
+            // Push this node's own deltas first so they are not overwritten and then re-added
+            checkpoint();
+            LocalDateTime now = LocalDateTime.now();
+            try {
+                Map<String, Long> before = new HashMap<>();
+                Map<String, Long> stored = transactionTemplate.execute(status -> {
+                    before.putAll(load());
+                    aggregate().forEach((key, value) -> set(key, value, now));
+                    return load();
+                });
+                long corrected = stored.entrySet().stream()
+                        .filter(entry -> !entry.getValue().equals(before.get(entry.getKey())))
+                        .count();
+                synchronized (this) {
+                    totals = stored;
+                    checkpointedAt = now;
+                }
+                if (corrected > 0) {
+                    log.info("Order statistics reconciled, {} counters corrected", corrected);
+                }
+            } catch (DataAccessException e) {
+                log.warn("Order statistics reconciliation failed; the next one retries", e);
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        checkpoint();
+    }
+
+    private void add(String key, long delta) {
+        deltas.computeIfAbsent(key, k -> new LongAdder()).add(delta);
+    }
+
+    private long value(String key) {
+        LongAdder delta = deltas.get(key);
+        return totals.getOrDefault(key, 0L) + inFlight.getOrDefault(key, 0L) + (delta != null ? delta.sum() : 0L);
+    }
+
+    private synchronized Map<String, Long> drain() {
+        Map<String, Long> drained = new HashMap<>();
+        deltas.forEach((key, adder) -> {
+            long delta = adder.sumThenReset();
+            if (delta != 0) {
+                drained.put(key, delta);
+                inFlight.merge(key, delta, Long::sum);
+            }
+        });
+        return drained;
+    }
+
+    private synchronized void requeue() {
+        inFlight.forEach(this::add);
+        inFlight.clear();
+    }
+
+    private void write(String key, long delta, LocalDateTime now) {
+        if (jdbcTemplate.update(ADD_SQL, delta, now, key) == 0) {
+            jdbcTemplate.update(INSERT_SQL, key, delta, now);
+        }
+    }
+
+    private void set(String key, long value, LocalDateTime now) {
+        if (jdbcTemplate.update(SET_SQL, value, now, key) == 0) {
+            jdbcTemplate.update(INSERT_SQL, key, value, now);
+        }
+    }
+
+    private Map<String, Long> load() {
+        Map<String, Long> stored = new HashMap<>();
+        for (Map<String, Object> row : jdbcTemplate.queryForList(SELECT_SQL)) {
+            stored.put((String) row.get("stat_key"), ((Number) row.get("stat_value")).longValue());
+        }
+        return stored;
+    }
+
+    // One pass over the orders table, made once per database rather than once per start
+    private Map<String, Long> seed() {
+        Map<String, Long> baseline = aggregate();
+
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    baseline.forEach((key, value) -> jdbcTemplate.update(INSERT_SQL, key, value, now)));
+            return baseline;
+        } catch (DuplicateKeyException e) {
+            log.info("Order statistics were seeded by another node");
+            return load();
+        }
+    }
+
+    // Every counter as the orders table has it now, including zeros for empty statuses and hours
+    private Map<String, Long> aggregate() {
+        Map<String, Long> baseline = new HashMap<>();
+        for (OrderStatus status : OrderStatus.values()) {
+            baseline.put(COUNT_PREFIX + status, 0L);
+            baseline.put(AMOUNT_PREFIX + status, 0L);
+        }
+        for (StatusTotals totalsOfStatus : orderRepository.sumByStatus()) {
+            baseline.put(COUNT_PREFIX + totalsOfStatus.getStatus(), totalsOfStatus.getOrders());
+            baseline.put(AMOUNT_PREFIX + totalsOfStatus.getStatus(), toCents(totalsOfStatus.getAmount()));
+        }
+        baseline.put(RATING_SUM, nullToZero(orderRepository.sumDeliveredRatings()));
+        baseline.put(RATING_COUNT, nullToZero(orderRepository.countDeliveredRatings()));
+        LocalDateTime since = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS).minusHours(RATE_WINDOW_HOURS - 1);
+        for (int i = 0; i < RATE_WINDOW_HOURS; i++) {
+            baseline.put(hourKey(since.plusHours(i)), 0L);
+        }
+        for (LocalDateTime createdAt : orderRepository.findCreatedAtSince(since)) {
+            baseline.merge(hourKey(createdAt), 1L, Long::sum);
+        }
+        return baseline;
+    }
+
+    private static String hourKey(LocalDateTime time) {
+        return PLACED_PREFIX + time.truncatedTo(ChronoUnit.HOURS);
+    }
+
+    private static long toCents(BigDecimal amount) {
+        return amount == null ? 0L : amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    private static long nullToZero(Long value) {
+        return value == null ? 0L : value;
+    }
+}
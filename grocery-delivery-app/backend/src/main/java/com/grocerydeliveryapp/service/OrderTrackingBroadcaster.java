@@ -0,0 +1,60 @@
+package com.grocerydeliveryapp.service;
+
+import com.grocerydeliveryapp.dto.order.OrderResponse;
+import com.grocerydeliveryapp.dto.order.OrderTrackingUpdate;
+import com.grocerydeliveryapp.event.OrderStatusChangedEvent;
+import com.grocerydeliveryapp.event.OrderStatusSubscriber;
+import com.grocerydeliveryapp.model.OrderStatus;
+import lombok.RequiredArgsConstructor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+// Pushes status changes to STOMP subscribers straight from the event payload
+@Component
+@RequiredArgsConstructor
+public class OrderTrackingBroadcaster implements OrderStatusSubscriber {
+
+    private final SimpMessagingTemplate messagingTemplate;
+
+    @Override
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        Long orderId = event.getOrderId();
+        OrderResponse order = event.getOrder();
+
+        // Send to specific user's queue; the owner still gets the full order
+        String userDestination = String.format("/queue/user/%d/orders/%d", event.getUserId(), orderId);
+        messagingTemplate.convertAndSend(userDestination, order);
+
+        // Send to public topic (for tracking without authentication)
+        OrderTrackingUpdate update = OrderTrackingUpdate.from(order);
+        String publicDestination = String.format("/topic/order/%d", orderId);
+        messagingTemplate.convertAndSend(publicDestination, update);
+
+        // Send delivery partner updates if order is out for delivery
+        if (event.getNewStatus() == OrderStatus.OUT_FOR_DELIVERY) {
+            String destination = String.format("/topic/order/%d/delivery", orderId);
+            messagingTemplate.convertAndSend(destination, update);
+        }
+    }
+
+    // Tells the customer and public trackers that an order is running late
+    public void sendDeliveryDelayNotification(Long orderId, Long userId, String reason, int delayMinutes) {
+        Map<String, Object> delayUpdate = new HashMap<>();
+        delayUpdate.put("orderId", orderId);
+        delayUpdate.put("reason", reason);
+        delayUpdate.put("delayMinutes", delayMinutes);
+        delayUpdate.put("newEstimatedTime", LocalDateTime.now().plusMinutes(delayMinutes));
+
+        // Send to specific user
+        String userDestination = String.format("/queue/user/%d/orders/%d/delay", userId, orderId);
+        messagingTemplate.convertAndSend(userDestination, delayUpdate);
+
+        // Send to public topic
+        String publicDestination = String.format("/topic/order/%d/delay", orderId);
+        messagingTemplate.convertAndSend(publicDestination, delayUpdate);
+    }
+}
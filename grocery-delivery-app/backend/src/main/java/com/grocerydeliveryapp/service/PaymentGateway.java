@@ -0,0 +1,58 @@
+package com.grocerydeliveryapp.service;
+
+import com.grocerydeliveryapp.exception.PaymentException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+
+@Slf4j
+@Component
+public class PaymentGateway {
+
+    private final ThreadPoolTaskExecutor paymentExecutor;
+    private final long simulatedLatencyMs;
+    private final double simulatedFailureRate;
+
+    public PaymentGateway(
+            @Qualifier("paymentExecutor") ThreadPoolTaskExecutor paymentExecutor,
+            @Value("${payment.gateway.simulated-latency-ms:2000}") long simulatedLatencyMs,
+            @Value("${payment.gateway.simulated-failure-rate:0.1}") double simulatedFailureRate) {
+        this.paymentExecutor = paymentExecutor;
+        this.simulatedLatencyMs = simulatedLatencyMs;
+        this.simulatedFailureRate = simulatedFailureRate;
+    }
+
+    public CompletableFuture<Void> charge(String transactionId, String paymentMethod, BigDecimal amount) {
+        try {
+            return CompletableFuture.runAsync(() -> callGateway(transactionId, paymentMethod, amount), paymentExecutor);
+        } catch (TaskRejectedException e) {
+            log.warn("Payment executor saturated, rejecting transaction {}", transactionId);
+            return CompletableFuture.failedFuture(
+                    PaymentException.gatewayError(transactionId, "Too many payments in progress, please retry"));
+        }
+    }
+
+    private void callGateway(String transactionId, String paymentMethod, BigDecimal amount) {
+        try {
+            // Stands in for the blocking HTTP call to the payment provider
+            Thread.sleep(simulatedLatencyMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PaymentException("Payment processing was interrupted", transactionId,
+                    PaymentException.PaymentErrorType.PAYMENT_GATEWAY_ERROR);
+        }
+
+        // Simulate random payment failures (for testing purposes)
+        if (ThreadLocalRandom.current().nextDouble() < simulatedFailureRate) {
+            throw PaymentException.gatewayError(transactionId, "Payment processing failed");
+        }
+        log.debug("Gateway approved {} payment {} for {}", paymentMethod, transactionId, amount);
+    }
+}
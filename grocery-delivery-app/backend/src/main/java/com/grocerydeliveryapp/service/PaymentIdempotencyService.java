@@ -0,0 +1,127 @@
+package com.grocerydeliveryapp.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.grocerydeliveryapp.exception.IdempotencyKeyMismatchException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+@Slf4j
+@Service
+public class PaymentIdempotencyService {
+
+    private final IdempotencyStore idempotencyStore;
+
+    // In-flight and recently completed payments; a retry joins the same future.
+    // Bounded, since with the memory store it is the only record of each bill
+    private final ConcurrentMap<String, Entry> entries;
+
+    private final long ttlMinutes;
+
+    public PaymentIdempotencyService(
+            IdempotencyStore idempotencyStore,
+            @Value("${app.payment.idempotency.max-entries:10000}") long maxEntries,
+            @Value("${app.payment.idempotency.ttl-minutes:1440}") long ttlMinutes) {
+        this.idempotencyStore = idempotencyStore;
+        this.ttlMinutes = ttlMinutes;
+        Cache<String, Entry> cache = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .build();
+        this.entries = cache.asMap();
+    }
+
+    // What a retry must repeat for the key to replay: same order, same amount, same method
+    public static String fingerprint(Long orderId, BigDecimal amount, String paymentMethod) {
+        String normalizedAmount = amount == null ? "" : amount.stripTrailingZeros().toPlainString();
+        String normalizedMethod = paymentMethod == null ? "" : paymentMethod.toUpperCase(Locale.ROOT);
+        return orderId + "|" + normalizedAmount + "|" + normalizedMethod;
+    }
+
+    public CompletableFuture<Map<String, Object>> execute(String key, String fingerprint,
+                                                          Supplier<CompletableFuture<Map<String, Object>>> payment) {
+        Entry existing = entries.get(key);
+        if (existing != null) {
+            requireSameRequest(existing.fingerprint, fingerprint);
+            log.debug("Replaying payment for idempotency key {}", key);
+            return existing.result;
+        }
+
+        // Claim the key before doing anything expensive so concurrent retries wait on us
+        Entry claimed = new Entry(new CompletableFuture<>(), fingerprint);
+        existing = entries.putIfAbsent(key, claimed);
+        if (existing != null) {
+            requireSameRequest(existing.fingerprint, fingerprint);
+            return existing.result;
+        }
+
+        CompletableFuture<Map<String, Object>> attempt;
+        try {
+            Optional<IdempotencyStore.StoredPayment> stored = idempotencyStore.find(key);
+            if (stored.isPresent()) {
+                requireSameRequest(stored.get().getFingerprint(), fingerprint);
+                claimed.result.complete(stored.get().getResponse());
+                return claimed.result;
+            }
+            attempt = payment.get();
+        } catch (RuntimeException e) {
+            entries.remove(key, claimed);
+            claimed.result.completeExceptionally(e);
+            throw e;
+        }
+
+        attempt.whenComplete((bill, error) -> {
+            if (error != null) {
+                // Failed attempts are not remembered, the client may retry with the same key
+                entries.remove(key, claimed);
+                claimed.result.completeExceptionally(error);
+                return;
+            }
+            try {
+                idempotencyStore.save(key, fingerprint, bill);
+            } catch (RuntimeException e) {
+                // The charge went through; failing the request now would invite a second one
+                log.error("Could not store idempotency record {}, replays rely on this instance", key, e);
+            } finally {
+                claimed.result.complete(bill);
+            }
+        });
+        return claimed.result;
+    }
+
+    @Scheduled(fixedDelayString = "${app.payment.idempotency.purge-interval-ms:600000}")
+    public void purgeExpired() {
+        // In-process entries expire on their own; only the store needs sweeping
+        idempotencyStore.purgeOlderThan(LocalDateTime.now().minusMinutes(ttlMinutes));
+    }
+
+    // Records stored before fingerprints were kept have none and are replayed as before
+    private static void requireSameRequest(String original, String retry) {
+        if (original != null && !original.equals(retry)) {
+            throw new IdempotencyKeyMismatchException(
+                    "Idempotency-Key was already used for a different payment request");
+        }
+    }
+
+    private static class Entry {
+        private final CompletableFuture<Map<String, Object>> result;
+        private final String fingerprint;
+
+        private Entry(CompletableFuture<Map<String, Object>> result, String fingerprint) {
+            this.result = result;
+            this.fingerprint = fingerprint;
+        }
+    }
+}
@@ -4,32 +4,37 @@ import com.grocerydeliveryapp.exception.PaymentException;
 import com.grocerydeliveryapp.model.Order;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 @RequiredArgsConstructor
 public class PaymentService {
 
     private final EmailService emailService;
+    private final PaymentGateway paymentGateway;
 
-    @Transactional
-    public Map<String, Object> processPayment(Order order, String paymentMethod, Map<String, String> paymentDetails) {
+    // Validation failures are thrown straight away; the gateway call itself runs on the
+    // payment executor and its outcome is delivered through the returned future.
+    // Deliberately not @Transactional: no connection is held while the gateway works.
+    public CompletableFuture<Map<String, Object>> processPayment(Order order, String paymentMethod, Map<String, String> paymentDetails) {
         String transactionId = generateTransactionId();
         
         try {
             switch (paymentMethod.toUpperCase()) {
                 case "CARD":
-                    return processCardPayment(order, paymentDetails, transactionId);
+                    validateCardDetails(paymentDetails);
+                    return chargeAndConfirm(order, transactionId, "CARD");
                 case "UPI":
-                    return processUpiPayment(order, paymentDetails, transactionId);
+                    validateUpiDetails(paymentDetails);
+                    return chargeAndConfirm(order, transactionId, "UPI");
                 case "COD":
-                    return processCashOnDelivery(order, transactionId);
+                    return CompletableFuture.completedFuture(processCashOnDelivery(order, transactionId));
                 default:
                     throw new PaymentException("Unsupported payment method: " + paymentMethod);
             }
@@ -43,39 +48,24 @@ public class PaymentService {
         }
     }
 
-    private Map<String, Object> processCardPayment(Order order, Map<String, String> paymentDetails, String transactionId) {
-        // Validate card details
-        validateCardDetails(paymentDetails);
+    private CompletableFuture<Map<String, Object>> chargeAndConfirm(Order order, String transactionId, String paymentMethod) {
+        return paymentGateway.charge(transactionId, paymentMethod, order.getTotalAmount())
+                .thenApply(ignored -> {
+                    // Generate digital bill
+                    Map<String, Object> bill = generateDigitalBill(order, transactionId, paymentMethod);
 
-        // Simulate payment processing
-        simulatePaymentProcessing();
+                    // Send payment confirmation email
+                    sendPaymentConfirmationEmail(order, bill);
 
-        // Generate digital bill
-        Map<String, Object> bill = generateDigitalBill(order, transactionId, "CARD");
-
-        // Send payment confirmation email
-        sendPaymentConfirmationEmail(order, bill);
-
-        return bill;
+                    return bill;
+                });
     }
 
-    private Map<String, Object> processUpiPayment(Order order, Map<String, String> paymentDetails, String transactionId) {
-        // Validate UPI ID
-        String upiId = paymentDetails.get("upiId");
+    private void validateUpiDetails(Map<String, String> paymentDetails) {
+        String upiId = paymentDetails != null ? paymentDetails.get("upiId") : null;
         if (upiId == null || !upiId.contains("@")) {
             throw PaymentException.invalidUpi(upiId);
         }
-
-        // Simulate UPI payment processing
-        simulatePaymentProcessing();
-
-        // Generate digital bill
-        Map<String, Object> bill = generateDigitalBill(order, transactionId, "UPI");
-
-        // Send payment confirmation email
-        sendPaymentConfirmationEmail(order, bill);
-
-        return bill;
     }
 
     private Map<String, Object> processCashOnDelivery(Order order, String transactionId) {
@@ -89,6 +79,9 @@ public class PaymentService {
     }
 
     private void validateCardDetails(Map<String, String> paymentDetails) {
+        if (paymentDetails == null) {
+            throw PaymentException.invalidCard("Card details are required");
+        }
         String cardNumber = paymentDetails.get("cardNumber");
         String expiryMonth = paymentDetails.get("expiryMonth");
         String expiryYear = paymentDetails.get("expiryYear");
@@ -119,23 +112,7 @@ public class PaymentService {
         }
     }
 
-    private void simulatePaymentProcessing() {
-        try {
-            // Simulate payment processing delay
-            Thread.sleep(2000);
-            
-            // Simulate random payment failures (for testing purposes)
-            if (Math.random() < 0.1) { // 10% chance of failure
-                throw new PaymentException("Payment processing failed", 
-                    PaymentException.PaymentErrorType.PAYMENT_GATEWAY_ERROR);
-            }
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new PaymentException("Payment processing was interrupted");
-        }
-    }
-
-    private Map<String, Object> generateDigitalBill(Order order, String transactionId, String paymentMethod) {
+    public Map<String, Object> generateDigitalBill(Order order, String transactionId, String paymentMethod) {
         Map<String, Object> bill = new HashMap<>();
         
         // Basic bill information
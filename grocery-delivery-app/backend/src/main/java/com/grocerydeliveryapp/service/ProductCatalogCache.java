@@ -0,0 +1,110 @@
+package com.grocerydeliveryapp.service;
+
+import com.grocerydeliveryapp.config.CacheConfig;
+import com.grocerydeliveryapp.dto.product.ProductResponse;
+import com.grocerydeliveryapp.event.ProductChangedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.Page;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProductCatalogCache {
+
+    private final CacheManager cacheManager;
+
+    // Evict only after the write is committed so a concurrent read cannot
+    // repopulate the cache with the old row
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        Set<Long> productIds = event.getProductIds();
+
+        Cache products = cacheManager.getCache(CacheConfig.PRODUCTS);
+        if (products != null) {
+            productIds.forEach(products::evict);
+        }
+
+        evictLists(CacheConfig.FEATURED_PRODUCTS, event);
+        evictLists(CacheConfig.DISCOUNTED_PRODUCTS, event);
+        evictCategoryPages(event);
+
+        log.debug("Evicted catalog cache entries for products {} and categories {}", productIds, event.getCategories());
+    }
+
+    // For bulk loads that touch too many products to evict one by one
+    public void evictAll() {
+        for (String cacheName : new String[]{CacheConfig.PRODUCTS, CacheConfig.FEATURED_PRODUCTS,
+                CacheConfig.DISCOUNTED_PRODUCTS, CacheConfig.CATEGORY_PAGES}) {
+            Cache cache = cacheManager.getCache(cacheName);
+            if (cache != null) {
+                cache.clear();
+            }
+        }
+        log.debug("Cleared all catalog caches");
+    }
+
+    private void evictLists(String cacheName, ProductChangedEvent event) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache == null) {
+            return;
+        }
+        if (event.isListingsChanged()) {
+            cache.clear();
+            return;
+        }
+        removeEntries(cache, (key, value) -> containsAny(value, event.getProductIds()));
+    }
+
+    private void evictCategoryPages(ProductChangedEvent event) {
+        Cache cache = cacheManager.getCache(CacheConfig.CATEGORY_PAGES);
+        if (cache == null) {
+            return;
+        }
+        removeEntries(cache, (key, value) ->
+                event.getCategories().stream().anyMatch(category -> CacheConfig.isCategoryPageKey(key, category))
+                        || containsAny(value, event.getProductIds()));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void removeEntries(Cache cache, EntryMatcher matcher) {
+        Object nativeCache = cache.getNativeCache();
+        if (!(nativeCache instanceof com.github.benmanes.caffeine.cache.Cache)) {
+            // Not backed by Caffeine (e.g. caching disabled), nothing finer than a clear
+            cache.clear();
+            return;
+        }
+        Map<Object, Object> entries = ((com.github.benmanes.caffeine.cache.Cache<Object, Object>) nativeCache).asMap();
+        entries.entrySet().removeIf(entry -> matcher.matches(entry.getKey(), entry.getValue()));
+    }
+
+    private boolean containsAny(Object cached, Set<Long> productIds) {
+        Collection<?> content;
+        if (cached instanceof Page) {
+            content = ((Page<?>) cached).getContent();
+        } else if (cached instanceof Collection) {
+            content = (Collection<?>) cached;
+        } else {
+            return false;
+        }
+        for (Object item : content) {
+            if (item instanceof ProductResponse && productIds.contains(((ProductResponse) item).getId())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @FunctionalInterface
+    private interface EntryMatcher {
+        boolean matches(Object key, Object value);
+    }
+}
@@ -0,0 +1,464 @@
+package com.grocerydeliveryapp.service;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.grocerydeliveryapp.dto.product.ProductImportReport;
+import com.grocerydeliveryapp.dto.product.ProductRequest;
+import com.grocerydeliveryapp.repository.ProductRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+// Loads supplier product feeds. The feed is parsed as a stream and handled a chunk at a time:
+// rows are validated against ProductRequest's constraints on the import pool, then upserted on
+// SKU with two JDBC batches in one transaction per chunk. Caches and the search index are
+// rebuilt once at the end rather than once per product
+@Slf4j
+@Service
+public class ProductImportService {
+
+    public enum Format {
+        CSV, JSON
+    }
+
+    // Rows per validation task
+    private static final int VALIDATION_SLICE = 100;
+
+    private static final String UPDATE_SQL =
+            "UPDATE products SET name = ?, description = ?, price = ?, stock_quantity = ?, category = ?, " +
+            "image_url = ?, discount_percentage = ?, unit = ?, brand = ?, is_featured = ?, nutritional_info = ?, " +
+            "is_available = ?, updated_at = ? WHERE sku = ?";
+    private static final String INSERT_SQL =
+            "INSERT INTO products (name, description, price, stock_quantity, category, image_url, " +
+            "discount_percentage, unit, brand, is_featured, nutritional_info, is_available, updated_at, sku, " +
+            "created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ProductRepository productRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final ProductCatalogCache productCatalogCache;
+    private final ProductSearchIndex productSearchIndex;
+    private final Executor importExecutor;
+    private final int chunkSize;
+    private final int maxReportedRejections;
+
+    public ProductImportService(JdbcTemplate jdbcTemplate,
+                                ProductRepository productRepository,
+                                PlatformTransactionManager transactionManager,
+                                Validator validator,
+                                ObjectMapper objectMapper,
+                                ProductCatalogCache productCatalogCache,
+                                ProductSearchIndex productSearchIndex,
+                                @Qualifier("catalogImportExecutor") Executor importExecutor,
+                                @Value("${app.catalog.import.chunk-size:1000}") int chunkSize,
+                                @Value("${app.catalog.import.max-reported-rejections:1000}") int maxReportedRejections) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.productRepository = productRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.productCatalogCache = productCatalogCache;
+        this.productSearchIndex = productSearchIndex;
+        this.importExecutor = importExecutor;
+        this.chunkSize = chunkSize;
+        this.maxReportedRejections = maxReportedRejections;
+    }
+
+    public ProductImportReport importProducts(InputStream feed, Format format) throws IOException {
+        long started = System.nanoTime();
+        ImportRun run = new ImportRun();
+        try (RowReader rows = format == Format.CSV ? new CsvRowReader(feed) : new JsonRowReader(feed)) {
+            List<FeedRow> chunk = new ArrayList<>(chunkSize);
+            FeedRow row;
+            while ((row = rows.next()) != null) {
+                chunk.add(row);
+                if (chunk.size() == chunkSize) {
+                    processChunk(chunk, run);
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                processChunk(chunk, run);
+            }
+        }
+
+        if (run.inserted + run.updated > 0) {
+            // Every committed chunk is visible now; one full refresh instead of an event per product
+            productCatalogCache.evictAll();
+            productSearchIndex.rebuild();
+        }
+
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        log.info("Imported product feed: {} rows, {} inserted, {} updated, {} rejected in {} ms",
+                run.totalRows, run.inserted, run.updated, run.rejectedCount, elapsedMs);
+        return ProductImportReport.builder()
+                .totalRows(run.totalRows)
+                .inserted(run.inserted)
+                .updated(run.updated)
+                .rejectedCount(run.rejectedCount)
+                .rejected(run.rejected)
+                .chunks(run.chunks)
+                .elapsedMs(elapsedMs)
+                .build();
+    }
+
+    private void processChunk(List<FeedRow> chunk, ImportRun run) {
+        long started = System.nanoTime();
+        validate(chunk);
+
+        // The feed may repeat a SKU; within a chunk the last row wins, across chunks the later
+        // chunk simply updates the earlier one
+        Map<String, FeedRow> bySku = new LinkedHashMap<>();
+        for (FeedRow row : chunk) {
+            if (row.errors.isEmpty()) {
+                FeedRow superseded = bySku.put(row.request.getSku(), row);
+                if (superseded != null) {
+                    superseded.errors.add("Superseded by line " + row.line);
+                }
+            }
+        }
+        List<FeedRow> valid = new ArrayList<>(bySku.values());
+
+        int inserted = 0;
+        int updated = 0;
+        if (!valid.isEmpty()) {
+            try {
+                inserted = transactionTemplate.execute(status -> upsert(valid));
+                updated = valid.size() - inserted;
+            } catch (DataAccessException e) {
+                String error = "Could not be written: " + e.getMostSpecificCause().getMessage();
+                valid.forEach(row -> row.errors.add(error));
+            }
+        }
+
+        int rejected = 0;
+        for (FeedRow row : chunk) {
+            if (!row.errors.isEmpty()) {
+                run.reject(row);
+                rejected++;
+            }
+        }
+        run.totalRows += chunk.size();
+        run.inserted += inserted;
+        run.updated += updated;
+
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        double rowsPerSecond = chunk.size() * 1000.0 / Math.max(elapsedMs, 1);
+        run.chunks.add(ProductImportReport.ChunkStats.builder()
+                .chunk(run.chunks.size() + 1)
+                .rows(chunk.size())
+                .inserted(inserted)
+                .updated(updated)
+                .rejected(rejected)
+                .elapsedMs(elapsedMs)
+                .rowsPerSecond(rowsPerSecond)
+                .build());
+        log.debug("Import chunk {}: {} rows in {} ms ({} rows/s), {} rejected",
+                run.chunks.size(), chunk.size(), elapsedMs, Math.round(rowsPerSecond), rejected);
+    }
+
+    private void validate(List<FeedRow> chunk) {
+        List<CompletableFuture<Void>> slices = new ArrayList<>();
+        for (int from = 0; from < chunk.size(); from += VALIDATION_SLICE) {
+            List<FeedRow> slice = chunk.subList(from, Math.min(from + VALIDATION_SLICE, chunk.size()));
+            slices.add(CompletableFuture.runAsync(() -> slice.forEach(this::validate), importExecutor));
+        }
+        slices.forEach(CompletableFuture::join);
+    }
+
+    private void validate(FeedRow row) {
+        if (row.request == null) {
+            // Could not even be parsed; the parse error is already recorded
+            return;
+        }
+        if (row.request.getSku() == null || row.request.getSku().isBlank()) {
+            row.errors.add("SKU is required");
+        }
+        for (ConstraintViolation<ProductRequest> violation : validator.validate(row.request)) {
+            row.errors.add(violation.getMessage());
+        }
+    }
+
+    // Updates the SKUs that exist and inserts the rest; returns how many were inserted
+    private int upsert(List<FeedRow> rows) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> updates = rows.stream()
+                .map(row -> columns(row.request, now))
+                .collect(Collectors.toList());
+        int[] updated = jdbcTemplate.batchUpdate(UPDATE_SQL, updates);
+
+        // Some drivers answer SUCCESS_NO_INFO instead of a row count for batched statements;
+        // for those rows the table itself says whether the SKU was there to update
+        Set<String> unknownCounts = new HashSet<>();
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == Statement.SUCCESS_NO_INFO) {
+                unknownCounts.add(rows.get(i).request.getSku());
+            }
+        }
+        Set<String> existing = unknownCounts.isEmpty()
+                ? Set.of() : new HashSet<>(productRepository.findSkusIn(unknownCounts));
+
+        List<Object[]> inserts = new ArrayList<>();
+        for (int i = 0; i < updated.length; i++) {
+            boolean matched = updated[i] == Statement.SUCCESS_NO_INFO
+                    ? existing.contains(rows.get(i).request.getSku())
+                    : updated[i] > 0;
+            if (!matched) {
+                Object[] columns = updates.get(i);
+                Object[] withCreatedAt = new Object[columns.length + 1];
+                System.arraycopy(columns, 0, withCreatedAt, 0, columns.length);
+                withCreatedAt[columns.length] = now;
+                inserts.add(withCreatedAt);
+            }
+        }
+        if (!inserts.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_SQL, inserts);
+        }
+        return inserts.size();
+    }
+
+    // Same fields, and the same availability rule, as ProductService.createProduct
+    private Object[] columns(ProductRequest request, LocalDateTime now) {
+        return new Object[]{
+                request.getName(), request.getDescription(), request.getPrice(), request.getStockQuantity(),
+                request.getCategory(), request.getImageUrl(), request.getDiscountPercentage(), request.getUnit(),
+                request.getBrand(), request.isFeatured(), request.getNutritionalInfo(),
+                request.getStockQuantity() > 0, now, request.getSku()
+        };
+    }
+
+    private final class ImportRun {
+        private long totalRows;
+        private long inserted;
+        private long updated;
+        private long rejectedCount;
+        private final List<ProductImportReport.RejectedRow> rejected = new ArrayList<>();
+        private final List<ProductImportReport.ChunkStats> chunks = new ArrayList<>();
+
+        private void reject(FeedRow row) {
+            rejectedCount++;
+            if (rejected.size() < maxReportedRejections) {
+                rejected.add(new ProductImportReport.RejectedRow(
+                        row.line, row.request != null ? row.request.getSku() : null, row.errors));
+            }
+        }
+    }
+
+    private static final class FeedRow {
+        private final long line;
+        private ProductRequest request;
+        private final List<String> errors = new ArrayList<>();
+
+        private FeedRow(long line) {
+            this.line = line;
+        }
+    }
+
+    private interface RowReader extends Closeable {
+        // Null once the feed is exhausted
+        FeedRow next() throws IOException;
+    }
+
+    // RFC 4180 CSV with a header row naming ProductRequest fields; unknown columns are ignored
+    private static final class CsvRowReader implements RowReader {
+        private final BufferedReader reader;
+        private final List<String> columns;
+        private long line = 1;
+
+        private CsvRowReader(InputStream feed) throws IOException {
+            this.reader = new BufferedReader(new InputStreamReader(feed, StandardCharsets.UTF_8));
+            List<String> header = readRecord();
+            if (header == null) {
+                throw new IllegalArgumentException("Product feed is empty");
+            }
+            this.columns = header.stream()
+                    .map(column -> column.trim().toLowerCase(Locale.ROOT))
+                    .collect(Collectors.toList());
+        }
+
+        @Override
+        public FeedRow next() throws IOException {
+            List<String> values;
+            long start;
+            do {
+                start = line;
+                values = readRecord();
+                if (values == null) {
+                    return null;
+                }
+            } while (values.size() == 1 && values.get(0).isBlank());
+
+            FeedRow row = new FeedRow(start);
+            ProductRequest request = new ProductRequest();
+            for (int i = 0; i < Math.min(columns.size(), values.size()); i++) {
+                String value = values.get(i).trim();
+                if (!value.isEmpty()) {
+                    try {
+                        set(request, columns.get(i), value);
+                    } catch (NumberFormatException e) {
+                        row.errors.add("Invalid " + columns.get(i) + ": " + value);
+                    }
+                }
+            }
+            row.request = request;
+            return row;
+        }
+
+        private static void set(ProductRequest request, String column, String value) {
+            switch (column) {
+                case "sku":
+                    request.setSku(value);
+                    break;
+                case "name":
+                    request.setName(value);
+                    break;
+                case "description":
+                    request.setDescription(value);
+                    break;
+                case "price":
+                    request.setPrice(new BigDecimal(value));
+                    break;
+                case "stockquantity":
+                    request.setStockQuantity(Integer.parseInt(value));
+                    break;
+                case "category":
+                    request.setCategory(value);
+                    break;
+                case "imageurl":
+                    request.setImageUrl(value);
+                    break;
+                case "discountpercentage":
+                    request.setDiscountPercentage(Double.parseDouble(value));
+                    break;
+                case "unit":
+                    request.setUnit(value);
+                    break;
+                case "brand":
+                    request.setBrand(value);
+                    break;
+                case "featured":
+                case "isfeatured":
+                    request.setFeatured(Boolean.parseBoolean(value));
+                    break;
+                case "nutritionalinfo":
+                    request.setNutritionalInfo(value);
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        // One record, which may span lines inside quotes; null at the end of the feed
+        private List<String> readRecord() throws IOException {
+            List<String> values = new ArrayList<>();
+            StringBuilder value = new StringBuilder();
+            boolean quoted = false;
+            boolean read = false;
+            int c;
+            while ((c = reader.read()) != -1) {
+                read = true;
+                char ch = (char) c;
+                if (quoted) {
+                    if (ch == '"') {
+                        reader.mark(1);
+                        int next = reader.read();
+                        if (next == '"') {
+                            value.append('"');
+                        } else {
+                            quoted = false;
+                            if (next != -1) {
+                                reader.reset();
+                            }
+                        }
+                    } else {
+                        if (ch == '\n') {
+                            line++;
+                        }
+                        value.append(ch);
+                    }
+                } else if (ch == '"') {
+                    quoted = true;
+                } else if (ch == ',') {
+                    values.add(value.toString());
+                    value.setLength(0);
+                } else if (ch == '\n') {
+                    line++;
+                    values.add(value.toString());
+                    return values;
+                } else if (ch != '\r') {
+                    value.append(ch);
+                }
+            }
+            if (!read) {
+                return null;
+            }
+            values.add(value.toString());
+            return values;
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+
+    // A JSON array of ProductRequest objects, or one object per line
+    private final class JsonRowReader implements RowReader {
+        private final MappingIterator<ProductRequest> rows;
+
+        private JsonRowReader(InputStream feed) throws IOException {
+            this.rows = objectMapper.readerFor(ProductRequest.class).readValues(feed);
+        }
+
+        @Override
+        public FeedRow next() throws IOException {
+            if (!rows.hasNextValue()) {
+                return null;
+            }
+            FeedRow row = new FeedRow(rows.getCurrentLocation().getLineNr());
+            try {
+                row.request = rows.nextValue();
+            } catch (JsonMappingException e) {
+                // The iterator skips past the broken object, so the rest of the feed still loads
+                row.errors.add("Invalid row: " + e.getOriginalMessage());
+            }
+            return row;
+        }
+
+        @Override
+        public void close() throws IOException {
+            rows.close();
+        }
+    }
+}
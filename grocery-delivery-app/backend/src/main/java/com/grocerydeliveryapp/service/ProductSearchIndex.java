@@ -0,0 +1,192 @@
+package com.grocerydeliveryapp.service;
+
+import com.grocerydeliveryapp.dto.product.ProductResponse;
+import com.grocerydeliveryapp.event.ProductChangedEvent;
+import com.grocerydeliveryapp.model.Product;
+import com.grocerydeliveryapp.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProductSearchIndex {
+
+    // How much a hit in each field counts towards the ranking
+    private static final int NAME_WEIGHT = 3;
+    private static final int BRAND_WEIGHT = 2;
+    private static final int CATEGORY_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+
+    private final ProductRepository productRepository;
+    private final EntityManagerFactory entityManagerFactory;
+
+    // token -> (product id -> field weight), sorted so prefixes are a range scan
+    private final ConcurrentSkipListMap<String, Map<Long, Integer>> postings = new ConcurrentSkipListMap<>();
+    private final Map<Long, IndexedProduct> documents = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<Product> products = productRepository.findAll();
+        synchronized (this) {
+            postings.clear();
+            documents.clear();
+            products.forEach(this::index);
+        }
+        log.info("Indexed {} products for search", products.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        Set<Long> missing = new HashSet<>(event.getProductIds());
+        for (Product product : loadFresh(event.getProductIds())) {
+            index(product);
+            missing.remove(product.getId());
+        }
+        // Whatever could not be loaded has been deleted
+        missing.forEach(this::remove);
+    }
+
+    // Reads through a persistence context of its own: the request's open-session-in-view one may
+    // still hold products whose stock the JDBC batch updates changed behind its back
+    private List<Product> loadFresh(Collection<Long> productIds) {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            return entityManager.createQuery("SELECT p FROM Product p WHERE p.id IN :ids", Product.class)
+                    .setParameter("ids", productIds)
+                    .getResultList();
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    public synchronized void index(Product product) {
+        remove(product.getId());
+
+        Map<String, Integer> tokens = new HashMap<>();
+        addTokens(tokens, product.getName(), NAME_WEIGHT);
+        addTokens(tokens, product.getBrand(), BRAND_WEIGHT);
+        addTokens(tokens, product.getCategory(), CATEGORY_WEIGHT);
+        addTokens(tokens, product.getDescription(), DESCRIPTION_WEIGHT);
+
+        tokens.forEach((token, weight) ->
+                postings.computeIfAbsent(token, key -> new ConcurrentHashMap<>()).put(product.getId(), weight));
+        documents.put(product.getId(), new IndexedProduct(ProductResponse.from(product), tokens.keySet()));
+    }
+
+    public synchronized void remove(Long productId) {
+        IndexedProduct previous = documents.remove(productId);
+        if (previous == null) {
+            return;
+        }
+        for (String token : previous.tokens) {
+            Map<Long, Integer> ids = postings.get(token);
+            if (ids != null) {
+                ids.remove(productId);
+                if (ids.isEmpty()) {
+                    postings.remove(token);
+                }
+            }
+        }
+    }
+
+    public Page<ProductResponse> search(String keyword, Pageable pageable) {
+        Set<String> terms = new LinkedHashSet<>(tokenize(keyword));
+        if (terms.isEmpty()) {
+            return Page.empty(pageable);
+        }
+
+        // Every term has to match (as a whole token or a prefix of one)
+        Map<Long, Integer> scores = null;
+        for (String term : terms) {
+            Map<Long, Integer> termScores = scoreTerm(term);
+            if (scores == null) {
+                scores = termScores;
+            } else {
+                scores.keySet().retainAll(termScores.keySet());
+                scores.replaceAll((id, score) -> score + termScores.get(id));
+            }
+            if (scores.isEmpty()) {
+                return Page.empty(pageable);
+            }
+        }
+
+        List<ProductResponse> ranked = new ArrayList<>(scores.size());
+        Map<Long, Integer> finalScores = scores;
+        finalScores.keySet().forEach(id -> {
+            IndexedProduct document = documents.get(id);
+            if (document != null) {
+                ranked.add(document.product);
+            }
+        });
+        ranked.sort(Comparator.<ProductResponse>comparingInt(product -> finalScores.get(product.getId())).reversed()
+                .thenComparing(ProductResponse::getName, Comparator.nullsLast(String::compareTo))
+                .thenComparing(ProductResponse::getId));
+
+        int from = (int) Math.min(pageable.getOffset(), ranked.size());
+        int to = Math.min(from + pageable.getPageSize(), ranked.size());
+        // Copies, so callers cannot change what the index hands out to everyone else
+        List<ProductResponse> content = new ArrayList<>(to - from);
+        ranked.subList(from, to).forEach(product -> content.add(product.toBuilder().build()));
+        return new PageImpl<>(content, pageable, ranked.size());
+    }
+
+    public int size() {
+        return documents.size();
+    }
+
+    private Map<Long, Integer> scoreTerm(String term) {
+        Map<Long, Integer> termScores = new HashMap<>();
+        ConcurrentNavigableMap<String, Map<Long, Integer>> matches =
+                postings.subMap(term, true, term + Character.MAX_VALUE, true);
+        matches.forEach((token, ids) -> {
+            // Whole-word hits rank above prefix hits
+            int multiplier = token.length() == term.length() ? 2 : 1;
+            ids.forEach((id, weight) -> termScores.merge(id, weight * multiplier, Math::max));
+        });
+        return termScores;
+    }
+
+    private void addTokens(Map<String, Integer> tokens, String text, int weight) {
+        for (String token : tokenize(text)) {
+            tokens.merge(token, weight, Math::max);
+        }
+    }
+
+    private List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return Collections.emptyList();
+        }
+        List<String> tokens = new ArrayList<>();
+        for (String token : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{Nd}]+")) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private static class IndexedProduct {
+        private final ProductResponse product;
+        private final Set<String> tokens;
+
+        private IndexedProduct(ProductResponse product, Set<String> tokens) {
+            this.product = product;
+            this.tokens = tokens;
+        }
+    }
+}
@@ -1,25 +1,38 @@
 package com.grocerydeliveryapp.service;
 
+import com.grocerydeliveryapp.dto.common.CursorPage;
+import com.grocerydeliveryapp.dto.common.PageCursor;
 import com.grocerydeliveryapp.dto.product.ProductRequest;
 import com.grocerydeliveryapp.dto.product.ProductResponse;
+import com.grocerydeliveryapp.config.CacheConfig;
+import com.grocerydeliveryapp.event.ProductChangedEvent;
 import com.grocerydeliveryapp.model.Product;
 import com.grocerydeliveryapp.repository.ProductRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import javax.persistence.EntityNotFoundException;
 import java.math.BigDecimal;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class ProductService {
 
     private final ProductRepository productRepository;
+    private final ProductSearchIndex productSearchIndex;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional(readOnly = true)
     public Page<ProductResponse> getAllProducts(Pageable pageable) {
@@ -27,18 +40,33 @@ public class ProductService {
                 .map(this::mapToProductResponse);
     }
 
+    @Transactional(readOnly = true)
+    public CursorPage<ProductResponse> scrollProducts(String after, int size) {
+        PageRequest limit = PageRequest.of(0, size);
+        Slice<Product> slice;
+        if (after == null || after.isBlank()) {
+            slice = productRepository.findFirstKeysetPage(limit);
+        } else {
+            PageCursor cursor = PageCursor.decode(after);
+            slice = productRepository.findKeysetPageAfter(cursor.getCreatedAt(), cursor.getId(), limit);
+        }
+        return CursorPage.of(slice, this::mapToProductResponse,
+                product -> new PageCursor(product.getCreatedAt(), product.getId()));
+    }
+
+    @Cacheable(cacheNames = CacheConfig.CATEGORY_PAGES,
+            key = "T(com.grocerydeliveryapp.config.CacheConfig).categoryPageKey(#category, #pageable)")
     @Transactional(readOnly = true)
     public Page<ProductResponse> getProductsByCategory(String category, Pageable pageable) {
         return productRepository.findByCategory(category, pageable)
                 .map(this::mapToProductResponse);
     }
 
-    @Transactional(readOnly = true)
     public Page<ProductResponse> searchProducts(String keyword, Pageable pageable) {
-        return productRepository.searchProducts(keyword, pageable)
-                .map(this::mapToProductResponse);
+        return productSearchIndex.search(keyword, pageable);
     }
 
+    @Cacheable(cacheNames = CacheConfig.PRODUCTS, key = "#id")
     @Transactional(readOnly = true)
     public ProductResponse getProductById(Long id) {
         Product product = productRepository.findById(id)
@@ -51,6 +79,8 @@ public class ProductService {
         Product product = new Product();
         updateProductFromRequest(product, request);
         Product savedProduct = productRepository.save(product);
+        eventPublisher.publishEvent(new ProductChangedEvent(
+                Set.of(savedProduct.getId()), Set.of(savedProduct.getCategory()), true));
         return mapToProductResponse(savedProduct);
     }
 
@@ -58,19 +88,25 @@ public class ProductService {
     public ProductResponse updateProduct(Long id, ProductRequest request) {
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Product not found with id: " + id));
+        String previousCategory = product.getCategory();
         updateProductFromRequest(product, request);
         Product updatedProduct = productRepository.save(product);
+        // A category move affects the pages of both the old and the new category
+        eventPublisher.publishEvent(new ProductChangedEvent(
+                Set.of(id), Stream.of(previousCategory, updatedProduct.getCategory()).collect(Collectors.toSet()), true));
         return mapToProductResponse(updatedProduct);
     }
 
     @Transactional
     public void deleteProduct(Long id) {
-        if (!productRepository.existsById(id)) {
-            throw new EntityNotFoundException("Product not found with id: " + id);
-        }
-        productRepository.deleteById(id);
+        Product product = productRepository.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Product not found with id: " + id));
+        productRepository.delete(product);
+        eventPublisher.publishEvent(new ProductChangedEvent(
+                Set.of(id), Set.of(product.getCategory()), true));
     }
 
+    @Cacheable(CacheConfig.FEATURED_PRODUCTS)
     @Transactional(readOnly = true)
     public List<ProductResponse> getFeaturedProducts() {
         return productRepository.findByIsFeaturedTrue()
@@ -85,6 +121,7 @@ public class ProductService {
                 .map(this::mapToProductResponse);
     }
 
+    @Cacheable(CacheConfig.DISCOUNTED_PRODUCTS)
     @Transactional(readOnly = true)
     public List<ProductResponse> getProductsOnDiscount() {
         return productRepository.findByDiscountPercentageGreaterThan(0.0)
@@ -106,21 +143,22 @@ public class ProductService {
 
     @Transactional
     public void updateStock(Long productId, Integer quantity) {
+        if (productRepository.decrementStock(productId, quantity) > 0) {
+            eventPublisher.publishEvent(ProductChangedEvent.stockChanged(Collections.singleton(productId)));
+            return;
+        }
+
+        // Nothing was updated, so work out why for the caller
         Product product = productRepository.findById(productId)
                 .orElseThrow(() -> new EntityNotFoundException("Product not found with id: " + productId));
-        
-        if (product.getStockQuantity() < quantity) {
-            throw new IllegalStateException("Insufficient stock for product: " + product.getName());
-        }
-        
-        product.setStockQuantity(product.getStockQuantity() - quantity);
-        if (product.getStockQuantity() == 0) {
-            product.setAvailable(false);
-        }
-        productRepository.save(product);
+        throw new IllegalStateException("Insufficient stock for product: " + product.getName());
     }
 
     private void updateProductFromRequest(Product product, ProductRequest request) {
+        // Clients that predate SKUs send none; keep the one the product already has
+        if (request.getSku() != null) {
+            product.setSku(request.getSku());
+        }
         product.setName(request.getName());
         product.setDescription(request.getDescription());
         product.setPrice(request.getPrice());
@@ -136,25 +174,6 @@ public class ProductService {
     }
 
     private ProductResponse mapToProductResponse(Product product) {
-        ProductResponse response = ProductResponse.builder()
-                .id(product.getId())
-                .name(product.getName())
-                .description(product.getDescription())
-                .price(product.getPrice())
-                .stockQuantity(product.getStockQuantity())
-                .category(product.getCategory())
-                .imageUrl(product.getImageUrl())
-                .isAvailable(product.isAvailable())
-                .discountPercentage(product.getDiscountPercentage())
-                .unit(product.getUnit())
-                .brand(product.getBrand())
-                .isFeatured(product.isFeatured())
-                .nutritionalInfo(product.getNutritionalInfo())
-                .createdAt(product.getCreatedAt())
-                .updatedAt(product.getUpdatedAt())
-                .build();
-
-        response.calculateDerivedFields();
-        return response;
+        return ProductResponse.from(product);
     }
 }
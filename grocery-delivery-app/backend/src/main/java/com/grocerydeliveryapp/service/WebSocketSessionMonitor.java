@@ -0,0 +1,79 @@
+package com.grocerydeliveryapp.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SubProtocolWebSocketHandler;
+
+@Slf4j
+@Component
+public class WebSocketSessionMonitor {
+
+    private final Counter droppedSessions;
+
+    public WebSocketSessionMonitor(MeterRegistry meterRegistry,
+                                   @Qualifier("clientInboundChannelExecutor") TaskExecutor inboundExecutor,
+                                   @Qualifier("clientOutboundChannelExecutor") TaskExecutor outboundExecutor,
+                                   @Qualifier("subProtocolWebSocketHandler") WebSocketHandler webSocketHandler) {
+        registerQueueDepth(meterRegistry, "inbound", inboundExecutor);
+        registerQueueDepth(meterRegistry, "outbound", outboundExecutor);
+
+        SubProtocolWebSocketHandler handler = unwrap(webSocketHandler);
+        if (handler != null) {
+            Gauge.builder("websocket.sessions.active", handler, h -> h.getStats().getWebSocketSessions())
+                    .description("Open WebSocket sessions on this node")
+                    .register(meterRegistry);
+        }
+
+        droppedSessions = Counter.builder("websocket.sessions.dropped")
+                .description("Sessions closed for exceeding the send buffer or send time limit")
+                .register(meterRegistry);
+    }
+
+    @EventListener
+    public void onSessionDisconnect(SessionDisconnectEvent event) {
+        // SESSION_NOT_RELIABLE is how the transport reports a slow consumer it gave up on
+        if (CloseStatus.SESSION_NOT_RELIABLE.equalsCode(event.getCloseStatus())) {
+            droppedSessions.increment();
+            log.warn("Dropped slow WebSocket session {}", event.getSessionId());
+        }
+    }
+
+    public double getDroppedCount() {
+        return droppedSessions.count();
+    }
+
+    // The channel executors are declared as plain TaskExecutors; only a thread pool has a queue to watch
+    private void registerQueueDepth(MeterRegistry meterRegistry, String channel, TaskExecutor taskExecutor) {
+        if (!(taskExecutor instanceof ThreadPoolTaskExecutor)) {
+            log.debug("No queue gauges for the {} channel: {} is not a thread pool", channel, taskExecutor);
+            return;
+        }
+        ThreadPoolTaskExecutor executor = (ThreadPoolTaskExecutor) taskExecutor;
+        Gauge.builder("websocket.channel.queue.depth", executor,
+                        e -> e.getThreadPoolExecutor().getQueue().size())
+                .description("Messages waiting for a client channel thread")
+                .tag("channel", channel)
+                .register(meterRegistry);
+        Gauge.builder("websocket.channel.active.threads", executor, ThreadPoolTaskExecutor::getActiveCount)
+                .tag("channel", channel)
+                .register(meterRegistry);
+    }
+
+    private SubProtocolWebSocketHandler unwrap(WebSocketHandler handler) {
+        WebSocketHandler last = handler instanceof WebSocketHandlerDecorator
+                ? ((WebSocketHandlerDecorator) handler).getLastHandler()
+                : handler;
+        return last instanceof SubProtocolWebSocketHandler ? (SubProtocolWebSocketHandler) last : null;
+    }
+}
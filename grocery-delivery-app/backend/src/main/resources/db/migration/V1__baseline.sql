@@ -0,0 +1,130 @@
+-- Baseline schema: what the entities mapped to under ddl-auto=update, now owned by migrations.
+-- Hibernate only validates it from here on (spring.jpa.hibernate.ddl-auto=validate)
+
+create sequence email_outbox_seq start with 1 increment by 50;
+create sequence order_items_seq start with 1 increment by 50;
+create sequence stock_reservations_seq start with 1 increment by 50;
+
+create table users (
+    id bigint generated by default as identity,
+    address varchar(255),
+    created_at timestamp,
+    email varchar(255),
+    is_email_verified boolean not null,
+    otp varchar(255),
+    otp_expiry_time timestamp,
+    password varchar(255),
+    phone_number varchar(255),
+    token_version bigint not null,
+    updated_at timestamp,
+    username varchar(255),
+    primary key (id),
+    constraint uk_users_username unique (username),
+    constraint uk_users_email unique (email)
+);
+
+create table user_roles (
+    user_id bigint not null,
+    roles varchar(255),
+    constraint fk_user_roles_user foreign key (user_id) references users (id)
+);
+
+create table products (
+    id bigint generated by default as identity,
+    brand varchar(255),
+    category varchar(255),
+    created_at timestamp,
+    description varchar(255),
+    discount_percentage double,
+    image_url varchar(255),
+    is_available boolean not null,
+    is_featured boolean not null,
+    name varchar(255),
+    nutritional_info varchar(1000),
+    price decimal(19,2),
+    stock_quantity integer,
+    unit varchar(255),
+    updated_at timestamp,
+    primary key (id)
+);
+
+create table orders (
+    id bigint generated by default as identity,
+    actual_delivery_time timestamp,
+    cancellation_reason varchar(255),
+    created_at timestamp,
+    delivery_address varchar(255),
+    delivery_charge decimal(19,2),
+    delivery_instructions varchar(255),
+    delivery_partner_name varchar(255),
+    delivery_partner_phone varchar(255),
+    estimated_delivery_time timestamp,
+    feedback varchar(255),
+    is_rated boolean,
+    payment_method varchar(255),
+    payment_status varchar(255),
+    payment_transaction_id varchar(255),
+    rating integer,
+    status varchar(255),
+    tax_amount decimal(19,2),
+    total_amount decimal(19,2),
+    transaction_id varchar(255),
+    updated_at timestamp,
+    user_id bigint not null,
+    primary key (id),
+    constraint fk_orders_user foreign key (user_id) references users (id)
+);
+
+create table order_items (
+    id bigint not null,
+    discount_at_time decimal(19,2),
+    price_at_time decimal(19,2),
+    quantity integer,
+    subtotal decimal(19,2),
+    product_id bigint not null,
+    order_id bigint not null,
+    primary key (id),
+    constraint fk_order_items_product foreign key (product_id) references products (id),
+    constraint fk_order_items_order foreign key (order_id) references orders (id)
+);
+
+create table stock_reservations (
+    id bigint not null,
+    created_at timestamp,
+    expires_at timestamp,
+    order_id bigint not null,
+    product_id bigint not null,
+    quantity integer,
+    status varchar(255),
+    updated_at timestamp,
+    primary key (id)
+);
+
+create table payment_idempotency_records (
+    idempotency_key varchar(255) not null,
+    created_at timestamp not null,
+    response_body clob not null,
+    primary key (idempotency_key)
+);
+
+create table email_outbox (
+    id bigint not null,
+    attempts integer not null,
+    body clob,
+    created_at timestamp,
+    last_error varchar(1000),
+    next_attempt_at timestamp not null,
+    recipient varchar(255) not null,
+    sent_at timestamp,
+    status varchar(255) not null,
+    subject varchar(255) not null,
+    template_model clob,
+    template_name varchar(255),
+    primary key (id)
+);
+
+-- Indexes already declared on the entities
+create index idx_orders_user_created_at_id on orders (user_id, created_at, id);
+create index idx_products_created_at_id on products (created_at, id);
+create index idx_payment_idempotency_created_at on payment_idempotency_records (created_at);
+create index idx_email_outbox_status_next_attempt on email_outbox (status, next_attempt_at);
@@ -0,0 +1,45 @@
+-- One index per hot repository predicate, equality columns first, then the range or sort column.
+-- Low-selectivity filters on their own (payment_method, rating) are left to the table scan
+
+-- OrderRepository
+-- findByStatus, countByStatus, findByStatusIn; admin lists page by created_at within a status
+create index idx_orders_status_created_at on orders (status, created_at);
+-- findByUserAndStatus
+create index idx_orders_user_status on orders (user_id, status);
+-- findDelayedOrders, findOrdersForDeliveryToday, findActiveDeliveryDeadlines: range on the ETA
+create index idx_orders_eta_status on orders (estimated_delivery_time, status);
+-- findByCreatedAtBetween
+create index idx_orders_created_at on orders (created_at);
+-- findByPaymentStatus
+create index idx_orders_payment_status on orders (payment_status);
+-- findByDeliveryPartnerName; assigned orders are listed per partner and status
+create index idx_orders_partner_status on orders (delivery_partner_name, status);
+
+-- Foreign keys are not indexed automatically everywhere; loading items by order and checking
+-- a product's order lines both need them
+create index idx_order_items_order on order_items (order_id);
+create index idx_order_items_product on order_items (product_id);
+create index idx_user_roles_user on user_roles (user_id);
+
+-- ProductRepository
+-- findByCategory, countByCategory, findByCategoryIn, findByCategoryAndIsAvailableTrue and the
+-- category branch of findProductsWithFilters, ordered by price within a category
+create index idx_products_category_available_price on products (category, is_available, price);
+-- findByBrand
+create index idx_products_brand on products (brand);
+-- findAvailableProductsSortedByPrice, findByPriceBetween
+create index idx_products_available_price on products (is_available, price);
+create index idx_products_price on products (price);
+-- findByIsFeaturedTrue
+create index idx_products_featured on products (is_featured);
+-- findProductsWithLowStock
+create index idx_products_stock_quantity on products (stock_quantity);
+
+-- StockReservationRepository
+-- findByOrderIdAndStatusIn, transitionStatus
+create index idx_stock_reservations_order_status on stock_reservations (order_id, status);
+-- findOrderIdsWithExpiredReservations
+create index idx_stock_reservations_status_expires on stock_reservations (status, expires_at);
+
+-- EmailOutboxRepository.deleteSentBefore
+create index idx_email_outbox_status_sent_at on email_outbox (status, sent_at);
@@ -0,0 +1,8 @@
+-- Running order statistics, one row per counter. Each node adds the changes it has seen since
+-- its last checkpoint, so the table holds the cluster-wide totals (see OrderStatisticsService)
+create table order_statistics (
+    stat_key varchar(100) not null,
+    stat_value bigint not null,
+    updated_at timestamp not null,
+    constraint pk_order_statistics primary key (stat_key)
+);
@@ -0,0 +1,4 @@
+-- Supplier stock keeping unit; the natural key catalog imports upsert on. Products created
+-- through the API may leave it empty, and a unique index allows any number of nulls
+alter table products add column sku varchar(64);
+create unique index uk_products_sku on products (sku);
@@ -0,0 +1,3 @@
+-- What the original request asked for (order, amount, method), so a key reused for a
+-- different payment is refused instead of replaying the wrong bill. Older rows keep null
+alter table payment_idempotency_records add column request_fingerprint varchar(255);
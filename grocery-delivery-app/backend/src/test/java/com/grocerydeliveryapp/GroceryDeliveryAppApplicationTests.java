@@ -0,0 +1,30 @@
+package com.grocerydeliveryapp;
+
+import com.grocerydeliveryapp.service.WebSocketSessionMonitor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class GroceryDeliveryAppApplicationTests {
+
+    @Autowired
+    private WebSocketSessionMonitor webSocketSessionMonitor;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void contextLoads() {
+        // Assert: the monitor wired itself to the broker's channel executors
+        assertNotNull(webSocketSessionMonitor);
+        assertNotNull(meterRegistry.find("websocket.sessions.active").gauge());
+        assertNotNull(meterRegistry.find("websocket.channel.queue.depth").tag("channel", "inbound").gauge());
+        assertNotNull(meterRegistry.find("websocket.channel.queue.depth").tag("channel", "outbound").gauge());
+    }
+}
@@ -0,0 +1,119 @@
+package com.grocerydeliveryapp.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.MimeTypeUtils;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+public class CompactPayloadInterceptorTest {
+
+    private static final byte[] JSON = "{\"v\":1,\"id\":7,\"status\":\"PREPARING\"}".getBytes(StandardCharsets.UTF_8);
+
+    private final MessageChannel channel = mock(MessageChannel.class);
+    private CompactPayloadInterceptor interceptor;
+
+    @BeforeEach
+    void setUp() {
+        interceptor = new CompactPayloadInterceptor(100);
+    }
+
+    @Test
+    void sessionThatAskedForSmileGetsBinaryTrackingPayload() throws Exception {
+        // Arrange
+        interceptor.preSend(connect("s1", "smile"), channel);
+
+        // Act
+        Message<?> sent = interceptor.preSend(broadcast("s1", "/topic/order/7"), channel);
+
+        // Assert
+        assertEquals(MimeTypeUtils.APPLICATION_OCTET_STREAM, sent.getHeaders().get(MessageHeaders.CONTENT_TYPE));
+        JsonNode decoded = new SmileMapper().readTree((byte[]) sent.getPayload());
+        assertEquals(7, decoded.get("id").asInt());
+        assertEquals("PREPARING", decoded.get("status").asText());
+    }
+
+    @Test
+    void subscribersShareOneTranscodedCopy() {
+        // Arrange
+        interceptor.preSend(connect("s1", "smile"), channel);
+        interceptor.preSend(connect("s2", "smile"), channel);
+
+        // Act
+        Message<?> first = interceptor.preSend(broadcast("s1", "/topic/order/7"), channel);
+        Message<?> second = interceptor.preSend(broadcast("s2", "/topic/order/7"), channel);
+
+        // Assert
+        assertSame(first.getPayload(), second.getPayload());
+    }
+
+    @Test
+    void sessionsWithoutNegotiationStayOnJson() {
+        // Arrange
+        interceptor.preSend(connect("s1", null), channel);
+        Message<?> message = broadcast("s1", "/topic/order/7");
+
+        // Act
+        Message<?> sent = interceptor.preSend(message, channel);
+
+        // Assert
+        assertSame(message, sent);
+    }
+
+    @Test
+    void nonTrackingDestinationsAreLeftAlone() {
+        // Arrange
+        interceptor.preSend(connect("s1", "smile"), channel);
+        Message<?> message = broadcast("s1", "/queue/user/1/orders/7");
+
+        // Act
+        Message<?> sent = interceptor.preSend(message, channel);
+
+        // Assert
+        assertSame(message, sent);
+    }
+
+    @Test
+    void disconnectForgetsTheSession() {
+        // Arrange
+        interceptor.preSend(connect("s1", "smile"), channel);
+        SimpMessageHeaderAccessor disconnect = SimpMessageHeaderAccessor.create(SimpMessageType.DISCONNECT);
+        disconnect.setSessionId("s1");
+
+        // Act
+        interceptor.preSend(MessageBuilder.createMessage(new byte[0], disconnect.getMessageHeaders()), channel);
+
+        // Assert
+        assertFalse(interceptor.isCompact("s1"));
+    }
+
+    private Message<byte[]> connect(String sessionId, String format) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.CONNECT);
+        accessor.setSessionId(sessionId);
+        if (format != null) {
+            accessor.setNativeHeader(CompactPayloadInterceptor.FORMAT_HEADER, format);
+        }
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+
+    private Message<byte[]> broadcast(String sessionId, String destination) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setSessionId(sessionId);
+        accessor.setDestination(destination);
+        accessor.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        return MessageBuilder.createMessage(JSON, accessor.getMessageHeaders());
+    }
+}
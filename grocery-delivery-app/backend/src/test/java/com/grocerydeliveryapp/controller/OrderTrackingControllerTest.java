@@ -0,0 +1,100 @@
+package com.grocerydeliveryapp.controller;
+
+import com.grocerydeliveryapp.dto.order.CourierLocationPing;
+import com.grocerydeliveryapp.service.CourierLocationBroadcaster;
+import com.grocerydeliveryapp.service.OrderService;
+import com.grocerydeliveryapp.service.OrderTrackingBroadcaster;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.HashMap;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class OrderTrackingControllerTest {
+
+    @Mock
+    private OrderService orderService;
+
+    @Mock
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Mock
+    private CourierLocationBroadcaster locationBroadcaster;
+
+    @Mock
+    private OrderTrackingBroadcaster trackingBroadcaster;
+
+    @InjectMocks
+    private OrderTrackingController controller;
+
+    private CourierLocationPing ping;
+    private SimpMessageHeaderAccessor headers;
+
+    @BeforeEach
+    void setUp() {
+        ping = new CourierLocationPing();
+        ping.setLatitude(52.52);
+        ping.setLongitude(13.40);
+        ping.setTimestamp(1_000L);
+
+        headers = SimpMessageHeaderAccessor.create();
+        headers.setSessionId("session-1");
+        headers.setSessionAttributes(new HashMap<>());
+    }
+
+    @Test
+    void assignedCourierPingIsRecordedAndTheAssignmentLookedUpOnce() {
+        // Arrange
+        when(orderService.isAssignedCourier(7L, "courier")).thenReturn(true);
+
+        // Act
+        controller.receiveLocation(7L, ping, courier("courier", "ROLE_DELIVERY_PARTNER"), headers);
+        controller.receiveLocation(7L, ping, courier("courier", "ROLE_DELIVERY_PARTNER"), headers);
+
+        // Assert
+        verify(locationBroadcaster, times(2)).record(7L, 52.52, 13.40, 1_000L);
+        verify(orderService, times(1)).isAssignedCourier(7L, "courier");
+    }
+
+    @Test
+    void anonymousPingIsRejected() {
+        assertThrows(AccessDeniedException.class, () -> controller.receiveLocation(7L, ping, null, headers));
+        verifyNoInteractions(locationBroadcaster, orderService);
+    }
+
+    @Test
+    void customerCannotReportALocation() {
+        assertThrows(AccessDeniedException.class,
+                () -> controller.receiveLocation(7L, ping, courier("customer", "ROLE_USER"), headers));
+        verifyNoInteractions(locationBroadcaster, orderService);
+    }
+
+    @Test
+    void courierNotAssignedToTheOrderIsRejected() {
+        // Arrange
+        when(orderService.isAssignedCourier(7L, "other-courier")).thenReturn(false);
+
+        // Act & Assert
+        assertThrows(AccessDeniedException.class, () -> controller.receiveLocation(
+                7L, ping, courier("other-courier", "ROLE_DELIVERY_PARTNER"), headers));
+        verify(locationBroadcaster, never()).record(anyLong(), anyDouble(), anyDouble(), anyLong());
+    }
+
+    private UsernamePasswordAuthenticationToken courier(String username, String role) {
+        return new UsernamePasswordAuthenticationToken(username, null, List.of(new SimpleGrantedAuthority(role)));
+    }
+}
@@ -0,0 +1,104 @@
+package com.grocerydeliveryapp.event;
+
+import com.grocerydeliveryapp.dto.order.OrderResponse;
+import com.grocerydeliveryapp.model.OrderStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OrderEventBusTest {
+
+    private OrderEventBus bus;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (bus != null) {
+            bus.destroy();
+        }
+    }
+
+    @Test
+    void eventsOfOneOrderArriveInPublishOrder() throws InterruptedException {
+        // Arrange
+        List<OrderStatusChangedEvent> received = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch done = new CountDownLatch(200);
+        bus = new OrderEventBus(List.of(event -> {
+            received.add(event);
+            done.countDown();
+        }), 4, 1000);
+        OrderStatus[] statuses = OrderStatus.values();
+
+        // Act
+        for (int i = 0; i < 100; i++) {
+            bus.onOrderStatusChanged(event(1L, statuses[i % statuses.length]));
+            bus.onOrderStatusChanged(event(2L, statuses[i % statuses.length]));
+        }
+
+        // Assert
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        List<OrderStatus> firstOrder = received.stream()
+                .filter(event -> event.getOrderId().equals(1L))
+                .map(OrderStatusChangedEvent::getNewStatus)
+                .collect(Collectors.toList());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(statuses[i % statuses.length], firstOrder.get(i));
+        }
+    }
+
+    @Test
+    void slowSubscriberDoesNotHoldUpOthers() throws InterruptedException {
+        // Arrange
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch delivered = new CountDownLatch(1);
+        OrderStatusSubscriber stuck = event -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        bus = new OrderEventBus(List.of(stuck, event -> delivered.countDown()), 1, 10);
+
+        // Act
+        bus.onOrderStatusChanged(event(7L, OrderStatus.CONFIRMED));
+
+        // Assert
+        assertTrue(delivered.await(5, TimeUnit.SECONDS));
+        release.countDown();
+    }
+
+    @Test
+    void fullLaneDropsInsteadOfBlocking() {
+        // Arrange
+        CountDownLatch release = new CountDownLatch(1);
+        bus = new OrderEventBus(List.of(event -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }), 1, 1);
+
+        // Act: one event running, one queued, the rest rejected
+        for (int i = 0; i < 5; i++) {
+            bus.onOrderStatusChanged(event(3L, OrderStatus.PREPARING));
+        }
+
+        // Assert
+        assertTrue(bus.getDroppedCount() >= 3);
+        release.countDown();
+    }
+
+    private OrderStatusChangedEvent event(Long orderId, OrderStatus status) {
+        OrderResponse order = OrderResponse.builder().id(orderId).status(status).build();
+        return new OrderStatusChangedEvent(42L, null, order);
+    }
+}
@@ -91,6 +91,13 @@ public class AuthControllerIntegrationTest extends BaseIntegrationTest {
                 .andExpect(status().isUnauthorized());
     }
 
+    @Test
+    void logoutAllWithoutTokenIsUnauthorized() throws Exception {
+        // Act & Assert
+        mockMvc.perform(post("/api/auth/logout-all"))
+                .andExpect(status().isUnauthorized());
+    }
+
     @Test
     void verifyOtpSuccess() throws Exception {
         // Arrange
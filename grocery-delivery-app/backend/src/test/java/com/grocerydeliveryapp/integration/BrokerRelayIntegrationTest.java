@@ -0,0 +1,125 @@
+package com.grocerydeliveryapp.integration;
+
+import com.grocerydeliveryapp.GroceryDeliveryAppApplication;
+import org.apache.activemq.artemis.core.config.Configuration;
+import org.apache.activemq.artemis.core.config.impl.ConfigurationImpl;
+import org.apache.activemq.artemis.core.server.embedded.EmbeddedActiveMQ;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+import org.springframework.web.socket.sockjs.client.SockJsClient;
+import org.springframework.web.socket.sockjs.client.WebSocketTransport;
+
+import java.lang.reflect.Type;
+import java.net.ServerSocket;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Two application nodes share one embedded STOMP broker: a client connected to one node
+// must receive what the other node publishes
+public class BrokerRelayIntegrationTest {
+
+    private static EmbeddedActiveMQ broker;
+    private static ConfigurableApplicationContext nodeA;
+    private static ConfigurableApplicationContext nodeB;
+
+    @BeforeAll
+    static void startBrokerAndNodes() throws Exception {
+        int stompPort = freePort();
+        Configuration config = new ConfigurationImpl()
+                .setPersistenceEnabled(false)
+                .setSecurityEnabled(false)
+                .addAcceptorConfiguration("stomp",
+                        "tcp://localhost:" + stompPort + "?protocols=STOMP;anycastPrefix=/queue/;multicastPrefix=/topic/");
+        broker = new EmbeddedActiveMQ().setConfiguration(config);
+        broker.start();
+
+        nodeA = startNode("relayNodeA", stompPort);
+        nodeB = startNode("relayNodeB", stompPort);
+    }
+
+    @AfterAll
+    static void stopAll() throws Exception {
+        if (nodeA != null) {
+            nodeA.close();
+        }
+        if (nodeB != null) {
+            nodeB.close();
+        }
+        if (broker != null) {
+            broker.stop();
+        }
+    }
+
+    @Test
+    void updatePublishedOnOneNodeReachesClientOnAnother() throws Exception {
+        // Arrange
+        int portA = ((ServletWebServerApplicationContext) nodeA).getWebServer().getPort();
+        WebSocketStompClient client = new WebSocketStompClient(
+                new SockJsClient(List.of(new WebSocketTransport(new StandardWebSocketClient()))));
+        client.setMessageConverter(new MappingJackson2MessageConverter());
+        StompSession session = client.connect("ws://localhost:" + portA + "/api/ws", new WebSocketHttpHeaders(),
+                new StompSessionHandlerAdapter() {}).get(10, TimeUnit.SECONDS);
+
+        CompletableFuture<Map<String, Object>> received = new CompletableFuture<>();
+        session.subscribe("/topic/order/99/location", new StompFrameHandler() {
+            @Override
+            public Type getPayloadType(StompHeaders headers) {
+                return Map.class;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public void handleFrame(StompHeaders headers, Object payload) {
+                received.complete((Map<String, Object>) payload);
+            }
+        });
+
+        // Act: keep publishing from node B until the subscription has reached the broker
+        SimpMessagingTemplate publisherB = nodeB.getBean(SimpMessagingTemplate.class);
+        long deadline = System.currentTimeMillis() + 15_000;
+        while (!received.isDone() && System.currentTimeMillis() < deadline) {
+            publisherB.convertAndSend("/topic/order/99/location", Map.of("id", 99, "lat", 12.9, "lng", 77.5));
+            Thread.sleep(200);
+        }
+
+        // Assert
+        assertTrue(received.isDone(), "client on node A never saw node B's update");
+        assertEquals(99, received.get().get("id"));
+        session.disconnect();
+    }
+
+    private static ConfigurableApplicationContext startNode(String name, int stompPort) {
+        return new SpringApplicationBuilder(GroceryDeliveryAppApplication.class)
+                .profiles("test")
+                .properties(
+                        "server.port=0",
+                        "spring.datasource.url=jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1",
+                        "app.websocket.broker=relay",
+                        "app.websocket.relay.host=localhost",
+                        "app.websocket.relay.port=" + stompPort)
+                .run();
+    }
+
+    private static int freePort() throws Exception {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -4,17 +4,29 @@ import com.grocerydeliveryapp.dto.order.OrderItemRequest;
 import com.grocerydeliveryapp.dto.order.OrderRequest;
 import com.grocerydeliveryapp.dto.order.OrderResponse;
 import com.grocerydeliveryapp.model.Order;
+import com.grocerydeliveryapp.model.OrderItem;
 import com.grocerydeliveryapp.model.OrderStatus;
 import com.grocerydeliveryapp.model.Product;
 import com.grocerydeliveryapp.repository.OrderRepository;
 import com.grocerydeliveryapp.repository.ProductRepository;
+import com.grocerydeliveryapp.service.OrderExportService;
+import com.grocerydeliveryapp.service.OrderService;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MvcResult;
 
+import javax.persistence.EntityManager;
+import java.io.ByteArrayOutputStream;
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
@@ -30,6 +42,15 @@ public class OrderControllerIntegrationTest extends BaseIntegrationTest {
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderExportService orderExportService;
+
+    @Autowired
+    private EntityManager entityManager;
+
     private Product testProduct;
     private Order testOrder;
     private OrderRequest orderRequest;
@@ -226,4 +247,99 @@ public class OrderControllerIntegrationTest extends BaseIntegrationTest {
         // Assert response is not empty
         assertTrue(result.getResponse().getContentLength() > 0);
     }
+
+    @Test
+    void getUserOrdersLoadsPageInConstantQueries() {
+        // Arrange
+        for (int i = 0; i < 10; i++) {
+            Product product = new Product();
+            product.setName("Batch Product " + i);
+            product.setPrice(new BigDecimal("10.00"));
+            product.setStockQuantity(10);
+            product.setAvailable(true);
+            product = productRepository.save(product);
+
+            Order order = createTestOrder();
+            OrderItem item = new OrderItem();
+            item.setProduct(product);
+            item.setQuantity(1);
+            item.setPriceAtTime(product.getPrice());
+            order.getOrderItems().add(item);
+            order.setDeliveryCharge(BigDecimal.ZERO);
+            order.setTaxAmount(BigDecimal.ZERO);
+            orderRepository.save(order);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics statistics = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+
+        // Act
+        Page<OrderResponse> page = orderService.getUserOrders(testUser.getId(), PageRequest.of(0, 10));
+
+        // Assert
+        assertEquals(10, page.getNumberOfElements());
+        // user (+ roles), order page, count, one batch of items, one batch of products
+        assertTrue(statistics.getPrepareStatementCount() <= 6,
+                "Expected a bounded number of queries but got " + statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void exportOrdersAsCsvAdminSuccess() throws Exception {
+        // Act
+        MvcResult result = mockMvc.perform(get("/api/orders/admin/export")
+                .header("Authorization", getAuthHeader(true))
+                .param("from", LocalDateTime.now().minusDays(1).toString())
+                .param("to", LocalDateTime.now().plusDays(1).toString())
+                .param("status", "PENDING"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("text/csv"))
+                .andReturn();
+
+        // Assert
+        String[] lines = result.getResponse().getContentAsString().split("\r\n");
+        assertTrue(lines[0].startsWith("id,createdAt,userId,status"));
+        assertTrue(Arrays.stream(lines).anyMatch(line -> line.startsWith(testOrder.getId() + ",")));
+    }
+
+    @Test
+    void exportOrdersWithEmptyRangeIsBadRequest() throws Exception {
+        LocalDateTime now = LocalDateTime.now();
+        mockMvc.perform(get("/api/orders/admin/export")
+                .header("Authorization", getAuthHeader(true))
+                .param("from", now.toString())
+                .param("to", now.minusDays(1).toString()))
+                .andExpect(status().isBadRequest())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_DISPOSITION))
+                .andExpect(jsonPath("$.message").value("Export range must end after it starts"));
+    }
+
+    @Test
+    void exportOrdersStreamsWithOneQuery() throws Exception {
+        // Arrange
+        for (int i = 0; i < 10; i++) {
+            orderRepository.save(createTestOrder());
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics statistics = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        long exported = orderExportService.exportOrders(LocalDateTime.now().minusDays(1),
+                LocalDateTime.now().plusDays(1), null, "CARD", OrderExportService.Format.NDJSON, out);
+
+        // Assert
+        assertEquals(11, exported);
+        assertEquals(11, out.toString().split("\n").length);
+        // Users are never loaded, only their ids read off the orders
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
 }
@@ -1,6 +1,7 @@
 package com.grocerydeliveryapp.integration;
 
 import com.grocerydeliveryapp.dto.order.OrderResponse;
+import com.grocerydeliveryapp.dto.order.OrderTrackingUpdate;
 import com.grocerydeliveryapp.model.Order;
 import com.grocerydeliveryapp.model.OrderStatus;
 import com.grocerydeliveryapp.repository.OrderRepository;
@@ -23,6 +24,7 @@ import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
@@ -72,7 +74,7 @@ public class OrderTrackingWebSocketTest extends BaseIntegrationTest {
     @Test
     void testOrderTracking() throws ExecutionException, InterruptedException, TimeoutException {
         // Create a future to store the received message
-        CompletableFuture<OrderResponse> completableFuture = new CompletableFuture<>();
+        CompletableFuture<Map<String, Object>> completableFuture = new CompletableFuture<>();
 
         // Connect to WebSocket
         StompSession session = stompClient.connect(websocketUrl, new WebSocketHttpHeaders(), 
@@ -82,12 +84,13 @@ public class OrderTrackingWebSocketTest extends BaseIntegrationTest {
         session.subscribe("/topic/order/" + testOrder.getId(), new StompFrameHandler() {
             @Override
             public Type getPayloadType(StompHeaders headers) {
-                return OrderResponse.class;
+                return Map.class;
             }
 
             @Override
+            @SuppressWarnings("unchecked")
             public void handleFrame(StompHeaders headers, Object payload) {
-                completableFuture.complete((OrderResponse) payload);
+                completableFuture.complete((Map<String, Object>) payload);
             }
         });
 
@@ -95,12 +98,14 @@ public class OrderTrackingWebSocketTest extends BaseIntegrationTest {
         session.send("/app/order.track/" + testOrder.getId(), null);
 
         // Wait for response
-        OrderResponse response = completableFuture.get(5, TimeUnit.SECONDS);
+        Map<String, Object> response = completableFuture.get(5, TimeUnit.SECONDS);
 
-        // Assert
+        // Assert: the public topic carries the slim tracking payload, not the full order
         assertNotNull(response);
-        assertEquals(testOrder.getId(), response.getId());
-        assertEquals(OrderStatus.PENDING, response.getStatus());
+        assertEquals(OrderTrackingUpdate.VERSION, response.get("v"));
+        assertEquals(testOrder.getId().intValue(), response.get("id"));
+        assertEquals(OrderStatus.PENDING.name(), response.get("status"));
+        assertFalse(response.containsKey("customerEmail"));
     }
 
     @Test
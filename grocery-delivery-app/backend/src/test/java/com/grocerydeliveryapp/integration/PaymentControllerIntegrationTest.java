@@ -41,7 +41,7 @@ public class PaymentControllerIntegrationTest extends BaseIntegrationTest {
         cardPaymentDetails = new HashMap<>();
         cardPaymentDetails.put("cardNumber", "4111111111111111");
         cardPaymentDetails.put("expiryMonth", "12");
-        cardPaymentDetails.put("expiryYear", "2025");
+        cardPaymentDetails.put("expiryYear", "2030");
         cardPaymentDetails.put("cvv", "123");
 
         // Setup UPI payment details
@@ -69,11 +69,14 @@ public class PaymentControllerIntegrationTest extends BaseIntegrationTest {
     @Test
     void processCardPaymentSuccess() throws Exception {
         // Act
-        MvcResult result = mockMvc.perform(post("/api/payments/process/{orderId}", testOrder.getId())
+        MvcResult asyncResult = mockMvc.perform(post("/api/payments/process/{orderId}", testOrder.getId())
                 .header("Authorization", getAuthHeader(false))
                 .param("paymentMethod", "CARD")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(toJson(cardPaymentDetails)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MvcResult result = mockMvc.perform(asyncDispatch(asyncResult))
                 .andExpect(status().isOk())
                 .andReturn();
 
@@ -101,11 +104,14 @@ public class PaymentControllerIntegrationTest extends BaseIntegrationTest {
     @Test
     void processUpiPaymentSuccess() throws Exception {
         // Act
-        MvcResult result = mockMvc.perform(post("/api/payments/process/{orderId}", testOrder.getId())
+        MvcResult asyncResult = mockMvc.perform(post("/api/payments/process/{orderId}", testOrder.getId())
                 .header("Authorization", getAuthHeader(false))
                 .param("paymentMethod", "UPI")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(toJson(upiPaymentDetails)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MvcResult result = mockMvc.perform(asyncDispatch(asyncResult))
                 .andExpect(status().isOk())
                 .andReturn();
 
@@ -133,9 +139,12 @@ public class PaymentControllerIntegrationTest extends BaseIntegrationTest {
     @Test
     void processCodPaymentSuccess() throws Exception {
         // Act
-        MvcResult result = mockMvc.perform(post("/api/payments/process/{orderId}", testOrder.getId())
+        MvcResult asyncResult = mockMvc.perform(post("/api/payments/process/{orderId}", testOrder.getId())
                 .header("Authorization", getAuthHeader(false))
                 .param("paymentMethod", "COD"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MvcResult result = mockMvc.perform(asyncDispatch(asyncResult))
                 .andExpect(status().isOk())
                 .andReturn();
 
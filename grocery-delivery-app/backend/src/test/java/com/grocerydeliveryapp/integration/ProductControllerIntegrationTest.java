@@ -1,15 +1,19 @@
 package com.grocerydeliveryapp.integration;
 
+import com.grocerydeliveryapp.dto.product.ProductImportReport;
 import com.grocerydeliveryapp.dto.product.ProductRequest;
 import com.grocerydeliveryapp.dto.product.ProductResponse;
 import com.grocerydeliveryapp.model.Product;
 import com.grocerydeliveryapp.repository.ProductRepository;
+import com.grocerydeliveryapp.service.ProductSearchIndex;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MvcResult;
 
+import javax.persistence.EntityManager;
 import java.math.BigDecimal;
 import java.util.List;
 
@@ -22,6 +26,12 @@ public class ProductControllerIntegrationTest extends BaseIntegrationTest {
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @Autowired
+    private EntityManager entityManager;
+
     private Product testProduct;
 
     @BeforeEach
@@ -39,6 +49,7 @@ public class ProductControllerIntegrationTest extends BaseIntegrationTest {
         testProduct.setBrand("Test Brand");
         testProduct.setAvailable(true);
         testProduct = productRepository.save(testProduct);
+        productSearchIndex.index(testProduct);
     }
 
     @Test
@@ -219,4 +230,71 @@ public class ProductControllerIntegrationTest extends BaseIntegrationTest {
         String content = result.getResponse().getContentAsString();
         assertTrue(content.contains("Test Product"));
     }
+
+    @Test
+    void importProductsUpsertsOnSku() throws Exception {
+        // Arrange
+        String feed = "sku,name,description,price,stockQuantity,category,unit\n" +
+                "FEED-1,Feed Apples,\"Crisp, red\",2.50,40,Fruits,kg\n" +
+                "FEED-2,Feed Pears,Ripe,3.00,0,Fruits,kg\n" +
+                "FEED-3,Feed Plums,,1.00,5,Fruits,kg\n";
+        String update = "sku,name,description,price,stockQuantity,category,unit\n" +
+                "FEED-1,Feed Apples,\"Crisp, red\",2.25,35,Fruits,kg\n";
+
+        // Act
+        ProductImportReport first = importFeed(feed);
+        ProductImportReport second = importFeed(update);
+
+        // Assert
+        assertEquals(2, first.getInserted());
+        assertEquals(1, first.getRejectedCount());
+        assertEquals(4, first.getRejected().get(0).getLine());
+        assertEquals(1, second.getUpdated());
+        Product apples = productRepository.findAll().stream()
+                .filter(product -> "FEED-1".equals(product.getSku()))
+                .findFirst().orElseThrow();
+        assertEquals(0, new BigDecimal("2.25").compareTo(apples.getPrice()));
+        assertEquals("Crisp, red", apples.getDescription());
+        // The search index was rebuilt from the imported rows
+        assertTrue(productSearchIndex.search("pears", PageRequest.of(0, 10))
+                .getContent().stream().anyMatch(product -> "FEED-2".equals(product.getSku())));
+    }
+
+    @Test
+    void adjustStockAppliesCountsAndDeltasInOrder() throws Exception {
+        // Arrange
+        testProduct.setSku("STOCK-1");
+        testProduct = productRepository.saveAndFlush(testProduct);
+        String adjustments = "{\"adjustments\": [" +
+                "{\"sku\": \"STOCK-1\", \"quantity\": 10, \"mode\": \"ABSOLUTE\"}," +
+                "{\"sku\": \"STOCK-1\", \"quantity\": -10, \"mode\": \"DELTA\"}," +
+                "{\"sku\": \"STOCK-1\", \"quantity\": -1, \"mode\": \"DELTA\"}," +
+                "{\"sku\": \"NO-SUCH-SKU\", \"quantity\": 5}]}";
+
+        // Act
+        mockMvc.perform(post("/api/products/admin/stock")
+                .header("Authorization", getAuthHeader(true))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(adjustments))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.applied").value(2))
+                .andExpect(jsonPath("$.rejected[0].reason").value("Stock would fall below zero"))
+                .andExpect(jsonPath("$.rejected[1].reason").value("Unknown SKU"));
+
+        // Assert: set to 10, then emptied, which took it off sale in the same statement
+        entityManager.clear();
+        Product product = productRepository.findById(testProduct.getId()).orElseThrow();
+        assertEquals(0, product.getStockQuantity());
+        assertFalse(product.isAvailable());
+    }
+
+    private ProductImportReport importFeed(String feed) throws Exception {
+        MvcResult result = mockMvc.perform(post("/api/products/admin/import")
+                .header("Authorization", getAuthHeader(true))
+                .contentType("text/csv")
+                .content(feed))
+                .andExpect(status().isOk())
+                .andReturn();
+        return fromJson(result.getResponse().getContentAsString(), ProductImportReport.class);
+    }
 }
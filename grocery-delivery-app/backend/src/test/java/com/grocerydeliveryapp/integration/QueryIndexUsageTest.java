@@ -0,0 +1,131 @@
+package com.grocerydeliveryapp.integration;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Runs EXPLAIN on the SQL behind the hot repository queries against the migrated schema and
+// checks each one is answered from its index rather than a table scan
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+public class QueryIndexUsageTest {
+
+    private static final String[] STATUSES = {"PENDING", "CONFIRMED", "PREPARING", "OUT_FOR_DELIVERY", "DELIVERED"};
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void seedRows() {
+        // Enough rows that the planner prefers an index over scanning
+        jdbcTemplate.update("INSERT INTO users (username, email, password, is_email_verified, token_version) " +
+                "VALUES ('explain-user', 'explain@example.com', 'x', true, 0)");
+        Long userId = jdbcTemplate.queryForObject("SELECT id FROM users WHERE username = 'explain-user'", Long.class);
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> orders = new ArrayList<>();
+        List<Object[]> products = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            orders.add(new Object[]{userId, STATUSES[i % STATUSES.length], "PAID", "partner-" + (i % 20),
+                    Timestamp.valueOf(now.minusMinutes(i)), Timestamp.valueOf(now.plusMinutes(i - 250))});
+            products.add(new Object[]{"Explain product " + i, "category-" + (i % 25), "brand-" + (i % 40),
+                    i % 7 != 0, i % 50 == 0, 1 + i % 100, i % 300});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO orders (user_id, status, payment_status, delivery_partner_name, " +
+                "created_at, estimated_delivery_time) VALUES (?, ?, ?, ?, ?, ?)", orders);
+        jdbcTemplate.batchUpdate("INSERT INTO products (name, category, brand, is_available, is_featured, price, " +
+                "stock_quantity, unit, description) VALUES (?, ?, ?, ?, ?, ?, ?, 'pcs', 'explain')", products);
+    }
+
+    @Test
+    void ordersByStatus() {
+        assertUsesIndex("SELECT * FROM orders WHERE status = 'PENDING'",
+                "IDX_ORDERS_STATUS_CREATED_AT");
+    }
+
+    @Test
+    void ordersByUserAndStatus() {
+        assertUsesIndex("SELECT * FROM orders WHERE user_id = 1 AND status = 'PENDING'",
+                "IDX_ORDERS_USER_STATUS");
+    }
+
+    @Test
+    void delayedOrders() {
+        assertUsesIndex("SELECT * FROM orders WHERE estimated_delivery_time < CURRENT_TIMESTAMP " +
+                        "AND status NOT IN ('DELIVERED', 'CANCELLED', 'REFUNDED')",
+                "IDX_ORDERS_ETA_STATUS");
+    }
+
+    @Test
+    void ordersCreatedBetween() {
+        assertUsesIndex("SELECT * FROM orders WHERE created_at BETWEEN TIMESTAMP '2024-01-01 00:00:00' " +
+                        "AND TIMESTAMP '2024-01-02 00:00:00'",
+                "IDX_ORDERS_CREATED_AT");
+    }
+
+    @Test
+    void ordersByPaymentStatus() {
+        assertUsesIndex("SELECT * FROM orders WHERE payment_status = 'FAILED'",
+                "IDX_ORDERS_PAYMENT_STATUS");
+    }
+
+    @Test
+    void ordersByDeliveryPartner() {
+        assertUsesIndex("SELECT * FROM orders WHERE delivery_partner_name = 'partner-3'",
+                "IDX_ORDERS_PARTNER_STATUS");
+    }
+
+    @Test
+    void availableProductsInCategory() {
+        assertUsesIndex("SELECT * FROM products WHERE category = 'category-3' AND is_available = TRUE",
+                "IDX_PRODUCTS_CATEGORY_AVAILABLE_PRICE");
+    }
+
+    @Test
+    void productsByBrand() {
+        assertUsesIndex("SELECT * FROM products WHERE brand = 'brand-7'",
+                "IDX_PRODUCTS_BRAND");
+    }
+
+    @Test
+    void productsByPriceRange() {
+        assertUsesIndex("SELECT * FROM products WHERE price BETWEEN 10 AND 12",
+                "IDX_PRODUCTS_PRICE");
+    }
+
+    @Test
+    void lowStockProducts() {
+        assertUsesIndex("SELECT * FROM products WHERE stock_quantity <= 2",
+                "IDX_PRODUCTS_STOCK_QUANTITY");
+    }
+
+    @Test
+    void reservationsOfOrder() {
+        assertUsesIndex("SELECT * FROM stock_reservations WHERE order_id = 1 AND status IN ('HELD', 'COMMITTED')",
+                "IDX_STOCK_RESERVATIONS_ORDER_STATUS");
+    }
+
+    @Test
+    void dueOutboxMessages() {
+        assertUsesIndex("SELECT * FROM email_outbox WHERE status = 'PENDING' AND next_attempt_at <= CURRENT_TIMESTAMP " +
+                        "ORDER BY next_attempt_at, id",
+                "IDX_EMAIL_OUTBOX_STATUS_NEXT_ATTEMPT");
+    }
+
+    private void assertUsesIndex(String sql, String index) {
+        String plan = String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class));
+        assertTrue(plan.toUpperCase().contains(index), "expected " + index + " in plan:\n" + plan);
+    }
+}
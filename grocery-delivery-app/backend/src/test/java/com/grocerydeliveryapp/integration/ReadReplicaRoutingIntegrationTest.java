@@ -0,0 +1,105 @@
+package com.grocerydeliveryapp.integration;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Two in-memory H2 databases stand in for the primary and the replica; H2's DATABASE()
+// tells which one a statement actually ran on
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing_primary;DB_CLOSE_DELAY=-1",
+        "app.datasource.replica.url=jdbc:h2:mem:routing_replica;DB_CLOSE_DELAY=-1",
+        "app.datasource.replica.username=sa",
+        "app.datasource.replica.password="
+})
+@ActiveProfiles("test")
+public class ReadReplicaRoutingIntegrationTest {
+
+    // A real replica gets its schema through replication; the stand-in is migrated directly
+    @TestConfiguration
+    static class ReplicaSchemaConfig {
+        @Bean
+        static BeanPostProcessor migrateReplica() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if ("replicaDataSource".equals(beanName)) {
+                        Flyway.configure().dataSource((DataSource) bean).load().migrate();
+                    }
+                    return bean;
+                }
+            };
+        }
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void readOnlyTransactionRunsOnReplica() {
+        // Arrange
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        // Act
+        String database = readOnly.execute(status -> currentDatabase());
+
+        // Assert
+        assertEquals("ROUTING_REPLICA", database);
+    }
+
+    @Test
+    void readWriteTransactionRunsOnPrimary() {
+        // Act
+        String database = new TransactionTemplate(transactionManager).execute(status -> currentDatabase());
+
+        // Assert
+        assertEquals("ROUTING_PRIMARY", database);
+    }
+
+    @Test
+    void workOutsideTransactionsRunsOnPrimary() {
+        assertEquals("ROUTING_PRIMARY", currentDatabase());
+    }
+
+    @Test
+    void writesLandOnPrimaryNotReplica() {
+        // Arrange
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        // Act
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> jdbcTemplate.update(
+                "INSERT INTO users (username, email, password, is_email_verified, token_version) " +
+                "VALUES ('routing-user', 'routing@example.com', 'x', true, 0)"));
+
+        Integer onReplica = readOnly.execute(status -> countRoutingUsers());
+
+        // Assert
+        assertEquals(1, countRoutingUsers());
+        assertEquals(0, onReplica);
+    }
+
+    private int countRoutingUsers() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users WHERE username = 'routing-user'", Integer.class);
+    }
+
+    private String currentDatabase() {
+        return jdbcTemplate.queryForObject("SELECT DATABASE()", String.class).toUpperCase();
+    }
+}
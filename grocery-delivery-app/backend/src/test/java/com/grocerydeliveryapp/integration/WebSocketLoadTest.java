@@ -0,0 +1,193 @@
+package com.grocerydeliveryapp.integration;
+
+import com.grocerydeliveryapp.service.WebSocketSessionMonitor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.messaging.converter.StringMessageConverter;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Opens thousands of STOMP subscriptions against /ws and checks that a burst of updates reaches
+// every healthy subscriber while a stalled client is evicted instead of backing up the others.
+// Excluded from the default build; run with: mvn test -Pload-test
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "app.websocket.transport.send-time-limit-ms=2000"
+})
+@ActiveProfiles("test")
+public class WebSocketLoadTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Value("${load.connections:200}")
+    private int connections;
+
+    @Value("${load.subscriptions-per-connection:10}")
+    private int subscriptionsPerConnection;
+
+    @Value("${load.messages-per-topic:5}")
+    private int messagesPerTopic;
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Autowired
+    private WebSocketSessionMonitor sessionMonitor;
+
+    @Autowired
+    @Qualifier("clientInboundChannelExecutor")
+    private ThreadPoolTaskExecutor inboundExecutor;
+
+    @Autowired
+    @Qualifier("clientOutboundChannelExecutor")
+    private ThreadPoolTaskExecutor outboundExecutor;
+
+    private WebSocketStompClient stompClient;
+    private final List<StompSession> sessions = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        stompClient = new WebSocketStompClient(new StandardWebSocketClient());
+        stompClient.setMessageConverter(new StringMessageConverter());
+        stompClient.setInboundMessageSizeLimit(64 * 1024);
+    }
+
+    @AfterEach
+    void tearDown() {
+        sessions.stream().filter(StompSession::isConnected).forEach(StompSession::disconnect);
+        sessions.clear();
+    }
+
+    @Test
+    void burstReachesEverySubscription() throws Exception {
+        // Arrange: each connection watches its own slice of orders
+        int topics = connections * subscriptionsPerConnection;
+        CountDownLatch delivered = new CountDownLatch(topics * messagesPerTopic);
+        for (int c = 0; c < connections; c++) {
+            StompSession session = connect();
+            for (int s = 0; s < subscriptionsPerConnection; s++) {
+                session.subscribe(topic(c * subscriptionsPerConnection + s), countingHandler(delivered));
+            }
+        }
+        awaitSubscriptions();
+        double droppedBefore = sessionMonitor.getDroppedCount();
+
+        // Act
+        for (int m = 0; m < messagesPerTopic; m++) {
+            for (int t = 0; t < topics; t++) {
+                messagingTemplate.convertAndSend(topic(t), "{\"id\":" + t + ",\"seq\":" + m + "}");
+            }
+        }
+
+        // Assert
+        assertTrue(delivered.await(60, TimeUnit.SECONDS),
+                delivered.getCount() + " of " + topics * messagesPerTopic + " messages never arrived");
+        assertEquals(droppedBefore, sessionMonitor.getDroppedCount());
+        assertEquals(0, outboundExecutor.getThreadPoolExecutor().getQueue().size());
+    }
+
+    @Test
+    void stalledClientIsDroppedWithoutBlockingOthers() throws Exception {
+        // Arrange: one client stops reading after its first frame, one keeps up
+        CountDownLatch stalled = new CountDownLatch(1);
+        StompSession slow = connect();
+        slow.subscribe("/topic/order/1/location", new StompFrameHandler() {
+            @Override
+            public Type getPayloadType(StompHeaders headers) {
+                return String.class;
+            }
+
+            @Override
+            public void handleFrame(StompHeaders headers, Object payload) {
+                stalled.countDown();
+                try {
+                    // Blocks the client's read loop, so the server's socket fills up
+                    Thread.sleep(30_000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        int burst = 2000;
+        CountDownLatch fastDelivered = new CountDownLatch(burst);
+        StompSession fast = connect();
+        fast.subscribe("/topic/order/2/location", countingHandler(fastDelivered));
+        awaitSubscriptions();
+        double droppedBefore = sessionMonitor.getDroppedCount();
+
+        // Act
+        String padding = "x".repeat(4000);
+        for (int i = 0; i < burst; i++) {
+            messagingTemplate.convertAndSend("/topic/order/1/location", "{\"seq\":" + i + ",\"p\":\"" + padding + "\"}");
+            messagingTemplate.convertAndSend("/topic/order/2/location", "{\"seq\":" + i + "}");
+        }
+
+        // Assert
+        assertTrue(stalled.await(10, TimeUnit.SECONDS));
+        assertTrue(fastDelivered.await(30, TimeUnit.SECONDS), "healthy client was held up by the stalled one");
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (sessionMonitor.getDroppedCount() == droppedBefore && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100);
+        }
+        assertEquals(droppedBefore + 1, sessionMonitor.getDroppedCount());
+        assertTrue(fast.isConnected());
+    }
+
+    private StompSession connect() throws Exception {
+        StompSession session = stompClient.connect("ws://localhost:" + port + "/api/ws/websocket",
+                new WebSocketHttpHeaders(), new StompSessionHandlerAdapter() {}).get(10, TimeUnit.SECONDS);
+        sessions.add(session);
+        return session;
+    }
+
+    private void awaitSubscriptions() throws InterruptedException {
+        // SUBSCRIBE frames are fire-and-forget; wait for the inbound channel to work through them
+        long deadline = System.currentTimeMillis() + 30_000;
+        do {
+            Thread.sleep(250);
+        } while ((inboundExecutor.getActiveCount() > 0 || !inboundExecutor.getThreadPoolExecutor().getQueue().isEmpty())
+                && System.currentTimeMillis() < deadline);
+    }
+
+    private String topic(int orderId) {
+        return "/topic/order/" + orderId + "/location";
+    }
+
+    private StompFrameHandler countingHandler(CountDownLatch latch) {
+        return new StompFrameHandler() {
+            @Override
+            public Type getPayloadType(StompHeaders headers) {
+                return String.class;
+            }
+
+            @Override
+            public void handleFrame(StompHeaders headers, Object payload) {
+                latch.countDown();
+            }
+        };
+    }
+}
@@ -0,0 +1,81 @@
+package com.grocerydeliveryapp.security;
+
+import com.grocerydeliveryapp.event.UserSecurityChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class AuthenticatedPrincipalCacheTest {
+
+    @Mock
+    private TokenVersionRegistry tokenVersionRegistry;
+
+    private AuthenticatedPrincipalCache principalCache;
+    private UserDetails userDetails;
+
+    @BeforeEach
+    void setUp() {
+        principalCache = new AuthenticatedPrincipalCache(tokenVersionRegistry, 100, 300);
+        userDetails = User.withUsername("testuser")
+                .password("password")
+                .authorities("ROLE_USER")
+                .build();
+    }
+
+    @Test
+    void getReturnsCachedPrincipal() {
+        // Arrange
+        principalCache.put("token-1", userDetails, new Date(System.currentTimeMillis() + 60_000), null);
+
+        // Act & Assert
+        assertSame(userDetails, principalCache.get("token-1"));
+        assertNull(principalCache.get("token-2"));
+    }
+
+    @Test
+    void expiredTokenIsNotServed() {
+        // Arrange
+        principalCache.put("token-1", userDetails, new Date(System.currentTimeMillis() - 1_000), null);
+
+        // Act & Assert
+        assertNull(principalCache.get("token-1"));
+    }
+
+    @Test
+    void securityChangeEvictsAllTokensOfUser() {
+        // Arrange
+        Date expiry = new Date(System.currentTimeMillis() + 60_000);
+        principalCache.put("token-1", userDetails, expiry, null);
+        principalCache.put("token-2", userDetails, expiry, null);
+
+        // Act
+        principalCache.onUserSecurityChanged(new UserSecurityChangedEvent("testuser"));
+
+        // Assert
+        assertNull(principalCache.get("token-1"));
+        assertNull(principalCache.get("token-2"));
+    }
+
+    @Test
+    void tokenRevokedElsewhereIsNotServed() {
+        // Arrange: logout-all on another instance bumped the version past the cached token's
+        principalCache.put("token-1", userDetails, new Date(System.currentTimeMillis() + 60_000), 2L);
+        when(tokenVersionRegistry.isCurrent("testuser", 2L)).thenReturn(true, false);
+
+        // Act & Assert
+        assertSame(userDetails, principalCache.get("token-1"));
+        assertNull(principalCache.get("token-1"));
+        assertNull(principalCache.get("token-1"));
+        verify(tokenVersionRegistry, times(2)).isCurrent("testuser", 2L);
+    }
+}
@@ -1,5 +1,7 @@
 package com.grocerydeliveryapp.security;
 
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -12,13 +14,20 @@ import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import javax.servlet.ServletException;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -31,6 +40,12 @@ public class JwtAuthenticationFilterTest {
     @Mock
     private CustomUserDetailsService userDetailsService;
 
+    @Mock
+    private AuthenticatedPrincipalCache principalCache;
+
+    @Mock
+    private TokenVersionRegistry tokenVersionRegistry;
+
     @InjectMocks
     private JwtAuthenticationFilter jwtAuthenticationFilter;
 
@@ -39,6 +54,8 @@ public class JwtAuthenticationFilterTest {
     private MockFilterChain filterChain;
     private UserDetails userDetails;
     private String token;
+    private Date expiry;
+    private ParsedToken parsedToken;
 
     @BeforeEach
     void setUp() {
@@ -52,15 +69,17 @@ public class JwtAuthenticationFilterTest {
                 .authorities("ROLE_USER")
                 .build();
         token = "Bearer valid.jwt.token";
+        expiry = new Date(System.currentTimeMillis() + 60_000);
+        parsedToken = new ParsedToken("testuser", expiry, List.of("ROLE_USER"), null);
     }
 
     @Test
     void doFilterInternalWithValidToken() throws ServletException, IOException {
         // Arrange
         request.addHeader("Authorization", token);
-        when(jwtUtil.extractUsername(anyString())).thenReturn("testuser");
+        when(jwtUtil.parse("valid.jwt.token")).thenReturn(parsedToken);
         when(userDetailsService.loadUserByUsername("testuser")).thenReturn(userDetails);
-        when(jwtUtil.validateToken(anyString(), any(UserDetails.class))).thenReturn(true);
+        when(jwtUtil.validateToken(parsedToken, userDetails)).thenReturn(true);
 
         // Act
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
@@ -68,9 +87,84 @@ public class JwtAuthenticationFilterTest {
         // Assert
         assertNotNull(SecurityContextHolder.getContext().getAuthentication());
         assertEquals("testuser", SecurityContextHolder.getContext().getAuthentication().getName());
+        verify(principalCache).put("valid.jwt.token", userDetails, expiry, null);
         verify(filterChain).doFilter(request, response);
     }
 
+    @Test
+    void doFilterInternalWithSelfContainedToken() throws ServletException, IOException {
+        // Arrange
+        request.addHeader("Authorization", token);
+        ParsedToken stamped = new ParsedToken("testuser", expiry, List.of("ROLE_USER"), 2L);
+        when(jwtUtil.parse("valid.jwt.token")).thenReturn(stamped);
+        when(tokenVersionRegistry.isCurrent("testuser", 2L)).thenReturn(true);
+
+        // Act
+        jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
+
+        // Assert
+        assertEquals("testuser", SecurityContextHolder.getContext().getAuthentication().getName());
+        assertTrue(SecurityContextHolder.getContext().getAuthentication().getAuthorities().stream()
+                .anyMatch(authority -> authority.getAuthority().equals("ROLE_USER")));
+        verify(userDetailsService, never()).loadUserByUsername(anyString());
+    }
+
+    @Test
+    void doFilterInternalWithRevokedTokenVersion() throws ServletException, IOException {
+        // Arrange
+        request.addHeader("Authorization", token);
+        ParsedToken stamped = new ParsedToken("testuser", expiry, List.of("ROLE_USER"), 1L);
+        when(jwtUtil.parse("valid.jwt.token")).thenReturn(stamped);
+        when(tokenVersionRegistry.isCurrent("testuser", 1L)).thenReturn(false);
+
+        // Act
+        jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
+
+        // Assert
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        verify(principalCache, never()).put(anyString(), any(UserDetails.class), any(Date.class), any());
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    void doFilterInternalWithTokenIssuedBeforeTheKeyWasCached() throws ServletException, IOException {
+        // Arrange: a real JwtUtil and a token signed the way the old createToken did
+        String secret = "groceryDeliveryAppSecretKey2023SecureKeyWithHighEntropy";
+        ReflectionTestUtils.setField(jwtAuthenticationFilter, "jwtUtil", new JwtUtil(secret, 3600000));
+        String legacyToken = Jwts.builder()
+                .setClaims(new HashMap<>())
+                .setSubject("testuser")
+                .setIssuedAt(new Date())
+                .setExpiration(expiry)
+                .signWith(SignatureAlgorithm.HS256, secret)
+                .compact();
+        request.addHeader("Authorization", "Bearer " + legacyToken);
+        when(userDetailsService.loadUserByUsername("testuser")).thenReturn(userDetails);
+
+        // Act
+        jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
+
+        // Assert
+        assertEquals("testuser", SecurityContextHolder.getContext().getAuthentication().getName());
+        verify(principalCache).put(eq(legacyToken), eq(userDetails), any(Date.class), isNull());
+        verify(tokenVersionRegistry, never()).isCurrent(anyString(), anyLong());
+    }
+
+    @Test
+    void doFilterInternalWithCachedPrincipal() throws ServletException, IOException {
+        // Arrange
+        request.addHeader("Authorization", token);
+        when(principalCache.get("valid.jwt.token")).thenReturn(userDetails);
+
+        // Act
+        jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
+
+        // Assert
+        assertEquals("testuser", SecurityContextHolder.getContext().getAuthentication().getName());
+        verify(jwtUtil, never()).parse(anyString());
+        verify(userDetailsService, never()).loadUserByUsername(anyString());
+    }
+
     @Test
     void doFilterInternalWithNoAuthHeader() throws ServletException, IOException {
         // Act
@@ -79,7 +173,7 @@ public class JwtAuthenticationFilterTest {
         // Assert
         assertNull(SecurityContextHolder.getContext().getAuthentication());
         verify(filterChain).doFilter(request, response);
-        verify(jwtUtil, never()).extractUsername(anyString());
+        verify(jwtUtil, never()).parse(anyString());
     }
 
     @Test
@@ -93,16 +187,16 @@ public class JwtAuthenticationFilterTest {
         // Assert
         assertNull(SecurityContextHolder.getContext().getAuthentication());
         verify(filterChain).doFilter(request, response);
-        verify(jwtUtil, never()).extractUsername(anyString());
+        verify(jwtUtil, never()).parse(anyString());
     }
 
     @Test
     void doFilterInternalWithExpiredToken() throws ServletException, IOException {
         // Arrange
         request.addHeader("Authorization", token);
-        when(jwtUtil.extractUsername(anyString())).thenReturn("testuser");
+        when(jwtUtil.parse("valid.jwt.token")).thenReturn(parsedToken);
         when(userDetailsService.loadUserByUsername("testuser")).thenReturn(userDetails);
-        when(jwtUtil.validateToken(anyString(), any(UserDetails.class))).thenReturn(false);
+        when(jwtUtil.validateToken(any(ParsedToken.class), any(UserDetails.class))).thenReturn(false);
 
         // Act
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
@@ -116,7 +210,7 @@ public class JwtAuthenticationFilterTest {
     void doFilterInternalWithInvalidUser() throws ServletException, IOException {
         // Arrange
         request.addHeader("Authorization", token);
-        when(jwtUtil.extractUsername(anyString())).thenReturn("testuser");
+        when(jwtUtil.parse("valid.jwt.token")).thenReturn(parsedToken);
         when(userDetailsService.loadUserByUsername("testuser"))
                 .thenThrow(new RuntimeException("User not found"));
 
@@ -139,7 +233,7 @@ public class JwtAuthenticationFilterTest {
         // Assert
         assertNull(SecurityContextHolder.getContext().getAuthentication());
         verify(filterChain).doFilter(request, response);
-        verify(jwtUtil, never()).extractUsername(anyString());
+        verify(jwtUtil, never()).parse(anyString());
     }
 
     @Test
@@ -158,7 +252,7 @@ public class JwtAuthenticationFilterTest {
         // Assert
         assertNotNull(SecurityContextHolder.getContext().getAuthentication());
         verify(filterChain).doFilter(request, response);
-        verify(jwtUtil, never()).extractUsername(anyString());
+        verify(jwtUtil, never()).parse(anyString());
     }
 
     @Test
@@ -172,7 +266,7 @@ public class JwtAuthenticationFilterTest {
 
         // Assert
         verify(filterChain).doFilter(request, response);
-        verify(jwtUtil, never()).extractUsername(anyString());
+        verify(jwtUtil, never()).parse(anyString());
     }
 
     @Test
@@ -186,14 +280,14 @@ public class JwtAuthenticationFilterTest {
 
         // Assert
         verify(filterChain).doFilter(request, response);
-        verify(jwtUtil, never()).extractUsername(anyString());
+        verify(jwtUtil, never()).parse(anyString());
     }
 
     @Test
     void doFilterInternalWithMalformedToken() throws ServletException, IOException {
         // Arrange
         request.addHeader("Authorization", "Bearer malformed.token");
-        when(jwtUtil.extractUsername(anyString())).thenThrow(new RuntimeException("Invalid token"));
+        when(jwtUtil.parse(anyString())).thenThrow(new RuntimeException("Invalid token"));
 
         // Act
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
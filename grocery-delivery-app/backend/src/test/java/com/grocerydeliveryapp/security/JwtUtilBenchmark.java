@@ -0,0 +1,83 @@
+package com.grocerydeliveryapp.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+// Cost of authenticating one request on a principal cache miss.
+// Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+//           -Dexec.mainClass=com.grocerydeliveryapp.security.JwtUtilBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtUtilBenchmark {
+
+    // Valid base64 as well, since the legacy path decoded the secret as base64
+    private static final String SECRET = "benchmarkSecretKeyThatIsLongEnoughForHs256xx";
+
+    private JwtUtil jwtUtil;
+    private UserDetails userDetails;
+    private String token;
+    private String legacyToken;
+
+    @Setup
+    @SuppressWarnings("deprecation")
+    public void setUp() {
+        jwtUtil = new JwtUtil(SECRET, TimeUnit.HOURS.toMillis(1));
+        userDetails = User.withUsername("benchmark")
+                .password("password")
+                .authorities("ROLE_USER")
+                .build();
+        token = jwtUtil.generateToken(userDetails);
+        // Signed the way the old createToken did, so the legacy parser accepts it
+        long now = System.currentTimeMillis();
+        legacyToken = Jwts.builder()
+                .setClaims(new HashMap<>())
+                .setSubject(userDetails.getUsername())
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + TimeUnit.HOURS.toMillis(1)))
+                .signWith(SignatureAlgorithm.HS256, SECRET)
+                .compact();
+    }
+
+    // What the filter used to do: extractUsername, then validateToken, which extracted the
+    // username and the expiry again. Three parses, each on a fresh parser given the raw secret
+    @Benchmark
+    public boolean parsePerClaim() {
+        String username = legacyClaims().getSubject();
+        return username != null
+                && legacyClaims().getSubject().equals(userDetails.getUsername())
+                && !legacyClaims().getExpiration().before(new Date());
+    }
+
+    @Benchmark
+    public boolean singleParse() {
+        ParsedToken parsed = jwtUtil.parse(token);
+        return jwtUtil.validateToken(parsed, userDetails) && parsed.getExpiration() != null;
+    }
+
+    // The old extractAllClaims: the parser base64-decodes the secret and derives the key on every call
+    @SuppressWarnings("deprecation")
+    private Claims legacyClaims() {
+        return Jwts.parser().setSigningKey(SECRET).parseClaimsJws(legacyToken).getBody();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtUtilBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
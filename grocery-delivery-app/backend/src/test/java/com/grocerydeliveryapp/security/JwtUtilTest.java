@@ -2,6 +2,8 @@ package com.grocerydeliveryapp.security;
 
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.SignatureException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -73,6 +75,58 @@ public class JwtUtilTest {
         assertTrue(isValid);
     }
 
+    @Test
+    void parseReturnsSubjectExpiryAndAuthorities() {
+        // Arrange
+        String token = jwtUtil.generateToken(userDetails);
+
+        // Act
+        ParsedToken parsed = jwtUtil.parse(token);
+
+        // Assert
+        assertEquals("testuser", parsed.getSubject());
+        assertTrue(parsed.getExpiration().after(new Date()));
+        assertEquals(1, parsed.getAuthorities().size());
+        assertEquals("ROLE_USER", parsed.getAuthorities().get(0).getAuthority());
+        assertTrue(jwtUtil.validateToken(parsed, userDetails));
+    }
+
+    @Test
+    void generateTokenWithVersionIsSelfContained() {
+        // Arrange
+        String token = jwtUtil.generateToken(userDetails, 3L);
+
+        // Act
+        ParsedToken parsed = jwtUtil.parse(token);
+
+        // Assert
+        assertTrue(parsed.isSelfContained());
+        assertEquals(3L, parsed.getVersion());
+        assertFalse(jwtUtil.parse(jwtUtil.generateToken(userDetails)).isSelfContained());
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    void tokenSignedWithTheLegacyKeyStillVerifies() {
+        // Arrange: signed the way tokens were issued before the key was cached, with the shipped secret
+        String secret = "groceryDeliveryAppSecretKey2023SecureKeyWithHighEntropy";
+        long now = System.currentTimeMillis();
+        String legacyToken = Jwts.builder()
+                .setClaims(new HashMap<>())
+                .setSubject("testuser")
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + EXPIRATION_TIME))
+                .signWith(SignatureAlgorithm.HS256, secret)
+                .compact();
+
+        // Act
+        ParsedToken parsed = new JwtUtil(secret, EXPIRATION_TIME).parse(legacyToken);
+
+        // Assert
+        assertEquals("testuser", parsed.getSubject());
+        assertFalse(parsed.isSelfContained());
+    }
+
     @Test
     void validateTokenFailureExpired() {
         // Arrange
@@ -146,7 +200,7 @@ public class JwtUtilTest {
         String token = jwtUtil.generateToken(claims, userDetails);
 
         // Act
-        String customClaim = jwtUtil.extractClaim(token, claims -> claims.get("customClaim", String.class));
+        String customClaim = jwtUtil.extractClaim(token, extracted -> extracted.get("customClaim", String.class));
 
         // Assert
         assertEquals("customValue", customClaim);
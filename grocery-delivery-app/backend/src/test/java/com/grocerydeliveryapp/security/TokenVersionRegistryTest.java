@@ -0,0 +1,69 @@
+package com.grocerydeliveryapp.security;
+
+import com.grocerydeliveryapp.event.UserSecurityChangedEvent;
+import com.grocerydeliveryapp.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TokenVersionRegistryTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Test
+    void versionIsLoadedOnceWhileFresh() {
+        // Arrange
+        TokenVersionRegistry registry = new TokenVersionRegistry(userRepository, 100, 60);
+        when(userRepository.findTokenVersionByUsername("testuser")).thenReturn(Optional.of(2L));
+
+        // Act & Assert
+        assertTrue(registry.isCurrent("testuser", 2L));
+        assertTrue(registry.isCurrent("testuser", 2L));
+        verify(userRepository, times(1)).findTokenVersionByUsername("testuser");
+    }
+
+    @Test
+    void bumpMadeElsewhereIsSeenOnceTheEntryExpires() {
+        // Arrange: another instance bumps the version between the two checks
+        TokenVersionRegistry registry = new TokenVersionRegistry(userRepository, 100, 0);
+        when(userRepository.findTokenVersionByUsername("testuser"))
+                .thenReturn(Optional.of(2L), Optional.of(3L));
+
+        // Act & Assert
+        assertTrue(registry.isCurrent("testuser", 2L));
+        assertFalse(registry.isCurrent("testuser", 2L));
+    }
+
+    @Test
+    void localSecurityChangeReloadsImmediately() {
+        // Arrange
+        TokenVersionRegistry registry = new TokenVersionRegistry(userRepository, 100, 60);
+        when(userRepository.findTokenVersionByUsername("testuser"))
+                .thenReturn(Optional.of(2L), Optional.of(3L));
+        registry.currentVersion("testuser");
+
+        // Act
+        registry.onUserSecurityChanged(new UserSecurityChangedEvent("testuser"));
+
+        // Assert
+        assertEquals(3L, registry.currentVersion("testuser"));
+    }
+
+    @Test
+    void unknownUserMatchesNoToken() {
+        // Arrange
+        TokenVersionRegistry registry = new TokenVersionRegistry(userRepository, 100, 60);
+        when(userRepository.findTokenVersionByUsername("ghost")).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertFalse(registry.isCurrent("ghost", 0L));
+    }
+}
@@ -3,6 +3,7 @@ package com.grocerydeliveryapp.service;
 import com.grocerydeliveryapp.dto.auth.LoginRequest;
 import com.grocerydeliveryapp.dto.auth.RegisterRequest;
 import com.grocerydeliveryapp.dto.auth.AuthResponse;
+import com.grocerydeliveryapp.event.UserSecurityChangedEvent;
 import com.grocerydeliveryapp.model.User;
 import com.grocerydeliveryapp.repository.UserRepository;
 import com.grocerydeliveryapp.security.JwtUtil;
@@ -12,11 +13,13 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import javax.persistence.EntityNotFoundException;
 import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.any;
@@ -41,6 +44,9 @@ public class AuthServiceTest {
     @Mock
     private EmailService emailService;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private AuthService authService;
 
@@ -108,7 +114,7 @@ public class AuthServiceTest {
         when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
                 .thenReturn(authentication);
         when(userRepository.findByUsername(anyString())).thenReturn(Optional.of(testUser));
-        when(jwtUtil.generateToken(any())).thenReturn("testToken");
+        when(jwtUtil.generateToken(any(), anyLong())).thenReturn("testToken");
 
         // Act
         AuthResponse response = authService.login(loginRequest);
@@ -120,6 +126,29 @@ public class AuthServiceTest {
         assertTrue(response.isEmailVerified());
     }
 
+    @Test
+    void revokeTokensBumpsVersionAndPublishesChange() {
+        // Arrange
+        when(userRepository.incrementTokenVersion("testuser")).thenReturn(1);
+
+        // Act
+        AuthResponse response = authService.revokeTokens("testuser");
+
+        // Assert
+        assertNotNull(response.getMessage());
+        verify(eventPublisher).publishEvent(any(UserSecurityChangedEvent.class));
+    }
+
+    @Test
+    void revokeTokensUnknownUser() {
+        // Arrange
+        when(userRepository.incrementTokenVersion("ghost")).thenReturn(0);
+
+        // Act & Assert
+        assertThrows(EntityNotFoundException.class, () -> authService.revokeTokens("ghost"));
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
     @Test
     void loginFailureInvalidCredentials() {
         // Arrange
@@ -0,0 +1,96 @@
+package com.grocerydeliveryapp.service;
+
+import com.grocerydeliveryapp.dto.order.LocationUpdate;
+import com.grocerydeliveryapp.dto.order.OrderResponse;
+import com.grocerydeliveryapp.event.OrderStatusChangedEvent;
+import com.grocerydeliveryapp.model.OrderStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class CourierLocationBroadcasterTest {
+
+    @Mock
+    private SimpMessagingTemplate messagingTemplate;
+
+    private CourierLocationBroadcaster broadcaster;
+
+    @BeforeEach
+    void setUp() {
+        broadcaster = new CourierLocationBroadcaster(messagingTemplate, new SimpleMeterRegistry(), 10_000);
+    }
+
+    @Test
+    void pingsBetweenTicksAreCoalescedIntoLatest() {
+        // Arrange
+        long now = System.currentTimeMillis();
+        broadcaster.record(1L, 12.90, 77.50, now - 300);
+        broadcaster.record(1L, 12.91, 77.51, now - 200);
+        broadcaster.record(1L, 12.92, 77.52, now - 100);
+
+        // Act
+        broadcaster.flush();
+
+        // Assert
+        ArgumentCaptor<Object> payload = ArgumentCaptor.forClass(Object.class);
+        verify(messagingTemplate, times(1)).convertAndSend(eq("/topic/order/1/location"), payload.capture());
+        LocationUpdate update = (LocationUpdate) payload.getValue();
+        assertEquals(12.92, update.getLat());
+        assertEquals(now - 100, update.getTs());
+    }
+
+    @Test
+    void latePingDoesNotOverwriteNewerPosition() {
+        // Arrange
+        long now = System.currentTimeMillis();
+        broadcaster.record(1L, 12.92, 77.52, now);
+        broadcaster.flush();
+
+        // Act
+        broadcaster.record(1L, 12.80, 77.40, now - 1000);
+        broadcaster.flush();
+
+        // Assert
+        verify(messagingTemplate, times(1)).convertAndSend(anyString(), any(Object.class));
+        assertEquals(0, broadcaster.pendingCount());
+    }
+
+    @Test
+    void positionsOlderThanMaxAgeAreDropped() {
+        // Arrange
+        broadcaster.record(2L, 12.90, 77.50, System.currentTimeMillis() - 60_000);
+
+        // Act
+        broadcaster.flush();
+
+        // Assert
+        verify(messagingTemplate, never()).convertAndSend(anyString(), any(Object.class));
+    }
+
+    @Test
+    void deliveredOrderIsForgotten() {
+        // Arrange
+        broadcaster.record(3L, 12.90, 77.50, System.currentTimeMillis());
+        OrderResponse delivered = OrderResponse.builder().id(3L).status(OrderStatus.DELIVERED).build();
+
+        // Act
+        broadcaster.onOrderStatusChanged(new OrderStatusChangedEvent(1L, OrderStatus.OUT_FOR_DELIVERY, delivered));
+        broadcaster.flush();
+
+        // Assert
+        assertEquals(0, broadcaster.pendingCount());
+        verify(messagingTemplate, never()).convertAndSend(anyString(), any(Object.class));
+    }
+}
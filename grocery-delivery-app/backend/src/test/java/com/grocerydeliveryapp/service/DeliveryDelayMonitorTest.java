@@ -0,0 +1,138 @@
+package com.grocerydeliveryapp.service;
+
+import com.grocerydeliveryapp.dto.order.OrderResponse;
+import com.grocerydeliveryapp.event.OrderStatusChangedEvent;
+import com.grocerydeliveryapp.model.OrderStatus;
+import com.grocerydeliveryapp.repository.DeliveryDeadline;
+import com.grocerydeliveryapp.repository.OrderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class DeliveryDelayMonitorTest {
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private OrderTrackingBroadcaster trackingBroadcaster;
+
+    private DeliveryDelayMonitor monitor;
+
+    @BeforeEach
+    void setUp() {
+        monitor = new DeliveryDelayMonitor(orderRepository, trackingBroadcaster, true, 15);
+    }
+
+    @Test
+    void orderPastItsEtaIsNotifiedOnce() {
+        // Arrange
+        LocalDateTime eta = LocalDateTime.now().minusSeconds(1);
+        monitor.onOrderStatusChanged(event(1L, OrderStatus.OUT_FOR_DELIVERY, eta));
+        DeliveryDeadline current = deadline(1L, OrderStatus.OUT_FOR_DELIVERY, eta);
+        when(orderRepository.findDeliveryDeadline(1L)).thenReturn(Optional.of(current));
+
+        // Act
+        monitor.checkDeadlines();
+        monitor.checkDeadlines();
+
+        // Assert
+        verify(trackingBroadcaster, times(1)).sendDeliveryDelayNotification(eq(1L), eq(10L), anyString(), eq(15));
+        assertTrue(monitor.isDelayed(1L));
+        // Still watched, against the extended estimate
+        assertEquals(1, monitor.getWatchedCount());
+    }
+
+    @Test
+    void ordersNotYetDueAreNeverLoaded() {
+        // Arrange
+        monitor.onOrderStatusChanged(event(1L, OrderStatus.CONFIRMED, LocalDateTime.now().plusMinutes(30)));
+
+        // Act
+        monitor.checkDeadlines();
+
+        // Assert
+        verifyNoInteractions(orderRepository, trackingBroadcaster);
+    }
+
+    @Test
+    void deliveredOrderLeavesTheIndex() {
+        // Arrange
+        LocalDateTime eta = LocalDateTime.now().minusSeconds(1);
+        monitor.onOrderStatusChanged(event(1L, OrderStatus.OUT_FOR_DELIVERY, eta));
+
+        // Act
+        monitor.onOrderStatusChanged(event(1L, OrderStatus.DELIVERED, eta));
+        monitor.checkDeadlines();
+
+        // Assert
+        assertEquals(0, monitor.getWatchedCount());
+        verifyNoInteractions(trackingBroadcaster);
+    }
+
+    @Test
+    void rowWithLaterEtaIsRearmedInsteadOfNotified() {
+        // Arrange: another node pushed the ETA back after this index was built
+        LocalDateTime eta = LocalDateTime.now().minusSeconds(1);
+        monitor.onOrderStatusChanged(event(1L, OrderStatus.PREPARING, eta));
+        DeliveryDeadline pushedBack = deadline(1L, OrderStatus.PREPARING, LocalDateTime.now().plusMinutes(20));
+        when(orderRepository.findDeliveryDeadline(1L)).thenReturn(Optional.of(pushedBack));
+
+        // Act
+        monitor.checkDeadlines();
+
+        // Assert
+        verifyNoInteractions(trackingBroadcaster);
+        assertFalse(monitor.isDelayed(1L));
+        assertEquals(1, monitor.getWatchedCount());
+    }
+
+    @Test
+    void rebuildListsOverdueOrdersWithoutRenotifying() {
+        // Arrange
+        LocalDateTime now = LocalDateTime.now();
+        DeliveryDeadline overdue = deadline(1L, OrderStatus.OUT_FOR_DELIVERY, now.minusMinutes(10));
+        DeliveryDeadline onTime = deadline(2L, OrderStatus.PREPARING, now.plusMinutes(10));
+        when(orderRepository.findActiveDeliveryDeadlines(DeliveryDelayMonitor.FINISHED))
+                .thenReturn(List.of(overdue, onTime));
+
+        // Act
+        monitor.rebuild();
+        monitor.checkDeadlines();
+
+        // Assert
+        assertEquals(List.of(1L), monitor.getDelayedOrderIds(PageRequest.of(0, 10)).getContent());
+        assertEquals(2, monitor.getWatchedCount());
+        verifyNoInteractions(trackingBroadcaster);
+    }
+
+    private OrderStatusChangedEvent event(Long orderId, OrderStatus status, LocalDateTime eta) {
+        OrderResponse order = OrderResponse.builder()
+                .id(orderId)
+                .status(status)
+                .estimatedDeliveryTime(eta)
+                .build();
+        return new OrderStatusChangedEvent(10L, null, order);
+    }
+
+    private DeliveryDeadline deadline(Long orderId, OrderStatus status, LocalDateTime eta) {
+        DeliveryDeadline deadline = mock(DeliveryDeadline.class);
+        lenient().when(deadline.getId()).thenReturn(orderId);
+        lenient().when(deadline.getUserId()).thenReturn(10L);
+        lenient().when(deadline.getStatus()).thenReturn(status);
+        lenient().when(deadline.getEstimatedDeliveryTime()).thenReturn(eta);
+        return deadline;
+    }
+}
@@ -0,0 +1,211 @@
+package com.grocerydeliveryapp.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.grocerydeliveryapp.model.EmailOutboxMessage;
+import com.grocerydeliveryapp.model.EmailOutboxStatus;
+import com.grocerydeliveryapp.repository.EmailOutboxRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.mail.Session;
+import javax.mail.internet.MimeMessage;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class EmailDispatcherTest {
+
+    @Mock
+    private EmailOutboxRepository outboxRepository;
+
+    @Mock
+    private JavaMailSender mailSender;
+
+    @Mock
+    private EmailTemplateRenderer templateRenderer;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private EmailDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        dispatcher = new EmailDispatcher(outboxRepository, mailSender, templateRenderer, new ObjectMapper(),
+                transactionManager, 10, 3, 3, 1000, 60000, 72, 300000);
+        lenient().when(mailSender.createMimeMessage())
+                .thenAnswer(invocation -> new MimeMessage(Session.getInstance(new Properties())));
+    }
+
+    @Test
+    void sendsWholeBatchInOneCall() {
+        // Arrange
+        EmailOutboxMessage plain = message(1L, null);
+        EmailOutboxMessage templated = message(2L, "order-confirmation");
+        givenDue(plain, templated);
+        when(templateRenderer.renderAll(eq("order-confirmation"), anyList()))
+                .thenReturn(List.of(EmailTemplateRenderer.Result.rendered("<p>Thanks</p>")));
+
+        // Act
+        dispatcher.dispatch();
+
+        // Assert
+        ArgumentCaptor<MimeMessage> sent = ArgumentCaptor.forClass(MimeMessage.class);
+        verify(mailSender, times(1)).send(new MimeMessage[]{sent.capture()});
+        assertEquals(2, sent.getAllValues().size());
+        assertEquals(EmailOutboxStatus.SENT, plain.getStatus());
+        assertEquals(EmailOutboxStatus.SENT, templated.getStatus());
+        assertNotNull(plain.getSentAt());
+    }
+
+    @Test
+    void failedMessageIsRescheduledWithBackoff() {
+        // Arrange
+        EmailOutboxMessage ok = message(1L, null);
+        EmailOutboxMessage bounced = message(2L, null);
+        givenDue(ok, bounced);
+        doAnswer(invocation -> {
+            MimeMessage second = invocation.getArgument(1);
+            throw new MailSendException("Mailbox unavailable", null,
+                    Map.of(second, new RuntimeException("550 mailbox unavailable")));
+        }).when(mailSender).send((MimeMessage[]) any());
+
+        // Act
+        dispatcher.dispatch();
+
+        // Assert
+        assertEquals(EmailOutboxStatus.SENT, ok.getStatus());
+        assertEquals(EmailOutboxStatus.PENDING, bounced.getStatus());
+        assertEquals(1, bounced.getAttempts());
+        assertTrue(bounced.getNextAttemptAt().isAfter(LocalDateTime.now()));
+        assertNotNull(bounced.getLastError());
+    }
+
+    @Test
+    void messageIsAbandonedAfterMaxAttempts() {
+        // Arrange
+        EmailOutboxMessage message = message(1L, null);
+        message.setAttempts(2);
+        givenDue(message);
+        doThrow(new MailSendException("Connection refused")).when(mailSender).send((MimeMessage[]) any());
+
+        // Act
+        dispatcher.dispatch();
+
+        // Assert
+        assertEquals(EmailOutboxStatus.FAILED, message.getStatus());
+        assertEquals(3, message.getAttempts());
+    }
+
+    @Test
+    void renderFailureOnlyHoldsBackThatMessage() {
+        // Arrange
+        EmailOutboxMessage good = message(1L, "order-status-update");
+        EmailOutboxMessage broken = message(2L, "order-status-update");
+        givenDue(good, broken);
+        when(templateRenderer.renderAll(eq("order-status-update"), anyList())).thenReturn(List.of(
+                EmailTemplateRenderer.Result.rendered("<p>On its way</p>"),
+                EmailTemplateRenderer.Result.failed(new IllegalStateException("bad model"))));
+
+        // Act
+        dispatcher.dispatch();
+
+        // Assert
+        verify(templateRenderer, times(1)).renderAll(eq("order-status-update"), anyList());
+        assertEquals(EmailOutboxStatus.SENT, good.getStatus());
+        assertEquals(EmailOutboxStatus.PENDING, broken.getStatus());
+        assertEquals("bad model", broken.getLastError());
+    }
+
+    @Test
+    void sendsOutsideTheClaimAndRecordTransactions() {
+        // Arrange
+        EmailOutboxMessage message = message(1L, null);
+        givenDue(message);
+
+        // Act
+        dispatcher.dispatch();
+
+        // Assert: claim committed, then the send, then a fresh transaction records the outcome
+        InOrder inOrder = inOrder(transactionManager, outboxRepository, mailSender);
+        inOrder.verify(outboxRepository).lockDue(eq(EmailOutboxStatus.PENDING), any(LocalDateTime.class), any(Pageable.class));
+        inOrder.verify(transactionManager).commit(any());
+        inOrder.verify(mailSender).send((MimeMessage[]) any());
+        inOrder.verify(transactionManager).getTransaction(any());
+        inOrder.verify(outboxRepository).findAllById(Set.of(1L));
+        inOrder.verify(transactionManager).commit(any());
+        assertEquals(EmailOutboxStatus.SENT, message.getStatus());
+    }
+
+    @Test
+    void claimedMessagesAreLeasedUntilTheirOutcomeIsRecorded() {
+        // Arrange: the outcome never gets recorded
+        EmailOutboxMessage message = message(1L, null);
+        when(outboxRepository.lockDue(eq(EmailOutboxStatus.PENDING), any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(List.of(message));
+        when(outboxRepository.findAllById(any())).thenThrow(new DataAccessResourceFailureException("database down"));
+
+        // Act
+        assertThrows(DataAccessResourceFailureException.class, () -> dispatcher.dispatch());
+
+        // Assert: due again only once the lease has run out
+        assertEquals(EmailOutboxStatus.PENDING, message.getStatus());
+        assertTrue(message.getNextAttemptAt().isAfter(LocalDateTime.now().plusMinutes(4)));
+    }
+
+    @Test
+    void emptyOutboxSendsNothing() {
+        // Arrange
+        when(outboxRepository.lockDue(eq(EmailOutboxStatus.PENDING), any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(List.of());
+
+        // Act
+        dispatcher.dispatch();
+
+        // Assert
+        verify(mailSender, never()).send((MimeMessage[]) any());
+        verify(templateRenderer, never()).renderAll(anyString(), anyList());
+    }
+
+    private void givenDue(EmailOutboxMessage... messages) {
+        when(outboxRepository.lockDue(eq(EmailOutboxStatus.PENDING), any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(List.of(messages));
+        when(outboxRepository.findAllById(any())).thenReturn(List.of(messages));
+    }
+
+    private EmailOutboxMessage message(Long id, String templateName) {
+        EmailOutboxMessage message = new EmailOutboxMessage();
+        message.setId(id);
+        message.setRecipient("customer" + id + "@example.com");
+        message.setSubject("Subject " + id);
+        message.setStatus(EmailOutboxStatus.PENDING);
+        message.setNextAttemptAt(LocalDateTime.now());
+        if (templateName == null) {
+            message.setBody("Body " + id);
+        } else {
+            message.setTemplateName(templateName);
+            message.setTemplateModel("{\"orderNumber\":\"ORD-" + id + "\"}");
+        }
+        return message;
+    }
+}
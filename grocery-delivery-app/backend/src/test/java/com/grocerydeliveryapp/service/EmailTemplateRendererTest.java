@@ -0,0 +1,87 @@
+package com.grocerydeliveryapp.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.thymeleaf.ITemplateEngine;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.context.IContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ExecutorService;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class EmailTemplateRendererTest {
+
+    @Mock
+    private ITemplateEngine templateEngine;
+
+    private MeterRegistry meterRegistry;
+    private ExecutorService executor;
+    private EmailTemplateRenderer renderer;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        executor = Executors.newFixedThreadPool(2);
+        renderer = new EmailTemplateRenderer(templateEngine, meterRegistry, executor, 2);
+        when(templateEngine.process(eq("fragments/header"), any(Context.class))).thenReturn("<header/>");
+        when(templateEngine.process(eq("fragments/footer"), any(Context.class))).thenReturn("<footer/>");
+    }
+
+    @Test
+    void sharedFragmentsAreRenderedOnce() {
+        // Arrange
+        when(templateEngine.process(eq("welcome"), any(Context.class))).thenReturn("<p>Hi</p>");
+
+        // Act
+        renderer.render("welcome", Map.of("username", "a"));
+        renderer.render("welcome", Map.of("username", "b"));
+
+        // Assert
+        verify(templateEngine, times(1)).process(eq("fragments/footer"), any(Context.class));
+        verify(templateEngine, times(2)).process(eq("welcome"), any(Context.class));
+        assertEquals(2, meterRegistry.get("email.render").tag("template", "welcome").timer().count());
+    }
+
+    @Test
+    void renderAllKeepsOrderAcrossChunksAndIsolatesFailures() {
+        // Arrange
+        when(templateEngine.process(eq("order-status-update"), any(Context.class))).thenAnswer(invocation -> {
+            IContext context = invocation.getArgument(1);
+            Object orderNumber = context.getVariable("orderNumber");
+            if ("ORD-3".equals(orderNumber)) {
+                throw new IllegalStateException("broken model");
+            }
+            // The pre-rendered footer is available to every message
+            return orderNumber + context.getVariable("emailFooter").toString();
+        });
+        List<Map<String, Object>> models = new ArrayList<>();
+        for (int i = 1; i <= 5; i++) {
+            models.add(Map.of("orderNumber", "ORD-" + i));
+        }
+
+        // Act
+        List<EmailTemplateRenderer.Result> results = renderer.renderAll("order-status-update", models);
+
+        // Assert
+        assertEquals(5, results.size());
+        assertEquals("ORD-1<footer/>", results.get(0).getHtml());
+        assertEquals("ORD-5<footer/>", results.get(4).getHtml());
+        assertFalse(results.get(2).isSuccess());
+        assertTrue(results.get(3).isSuccess());
+        executor.shutdown();
+    }
+}
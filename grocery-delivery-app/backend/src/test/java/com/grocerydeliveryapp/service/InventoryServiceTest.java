@@ -0,0 +1,304 @@
+package com.grocerydeliveryapp.service;
+
+import com.grocerydeliveryapp.dto.product.StockAdjustmentRequest;
+import com.grocerydeliveryapp.dto.product.StockAdjustmentResponse;
+import com.grocerydeliveryapp.event.ProductChangedEvent;
+import com.grocerydeliveryapp.exception.OutOfStockException;
+import com.grocerydeliveryapp.model.*;
+import com.grocerydeliveryapp.repository.ProductRepository;
+import com.grocerydeliveryapp.repository.StockReservationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.IncorrectUpdateSemanticsDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+public class InventoryServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private StockReservationRepository reservationRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private InventoryService inventoryService;
+
+    private Product testProduct;
+    private Order testOrder;
+
+    @BeforeEach
+    void setUp() {
+        testProduct = new Product();
+        testProduct.setId(1L);
+        testProduct.setName("Test Product");
+        testProduct.setPrice(new BigDecimal("99.99"));
+        testProduct.setStockQuantity(100);
+
+        OrderItem firstLine = new OrderItem();
+        firstLine.setProduct(testProduct);
+        firstLine.setQuantity(2);
+
+        OrderItem secondLine = new OrderItem();
+        secondLine.setProduct(testProduct);
+        secondLine.setQuantity(3);
+
+        testOrder = new Order();
+        testOrder.setId(10L);
+        testOrder.setStatus(OrderStatus.PENDING);
+        testOrder.setPaymentMethod("CARD");
+        testOrder.setOrderItems(Arrays.asList(firstLine, secondLine));
+    }
+
+    @Test
+    void reserveAllSuccess() {
+        // Arrange
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenReturn(new int[]{1});
+
+        // Act & Assert
+        assertDoesNotThrow(() -> inventoryService.reserveAll(Map.of(1L, testProduct), Map.of(1L, 5)));
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), anyList());
+        verify(productRepository, never()).save(any(Product.class));
+    }
+
+    @Test
+    void reserveAllInsufficientStock() {
+        // Arrange
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenReturn(new int[]{0});
+
+        // Act & Assert
+        assertThrows(OutOfStockException.class,
+                () -> inventoryService.reserveAll(Map.of(1L, testProduct), Map.of(1L, 500)));
+    }
+
+    @Test
+    void reserveAllRollsBackAndStopsBatchingWhenTheDriverHidesRowCounts() {
+        // Arrange: first checkout gets SUCCESS_NO_INFO, the next one runs statement by statement
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenReturn(new int[]{Statement.SUCCESS_NO_INFO});
+        when(jdbcTemplate.update(anyString(), (Object[]) any())).thenReturn(0);
+
+        // Act & Assert
+        assertThrows(IncorrectUpdateSemanticsDataAccessException.class,
+                () -> inventoryService.reserveAll(Map.of(1L, testProduct), Map.of(1L, 500)));
+        assertThrows(OutOfStockException.class,
+                () -> inventoryService.reserveAll(Map.of(1L, testProduct), Map.of(1L, 500)));
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), anyList());
+        verify(jdbcTemplate, times(1)).update(anyString(), (Object[]) any());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void recordReservationsMergesLinesAndHoldsStock() {
+        // Arrange
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<StockReservation>> captor = ArgumentCaptor.forClass(List.class);
+
+        // Act
+        inventoryService.recordReservations(testOrder);
+
+        // Assert
+        verify(reservationRepository, times(1)).saveAll(captor.capture());
+        assertEquals(1, captor.getValue().size());
+        StockReservation reservation = captor.getValue().get(0);
+        assertEquals(10L, reservation.getOrderId());
+        assertEquals(1L, reservation.getProductId());
+        assertEquals(5, reservation.getQuantity());
+        assertEquals(ReservationStatus.HELD, reservation.getStatus());
+        assertNotNull(reservation.getExpiresAt());
+    }
+
+    @Test
+    void recordReservationsCommitsCashOnDelivery() {
+        // Arrange
+        testOrder.setPaymentMethod("COD");
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<StockReservation>> captor = ArgumentCaptor.forClass(List.class);
+
+        // Act
+        inventoryService.recordReservations(testOrder);
+
+        // Assert
+        verify(reservationRepository).saveAll(captor.capture());
+        StockReservation reservation = captor.getValue().get(0);
+        assertEquals(ReservationStatus.COMMITTED, reservation.getStatus());
+        assertNull(reservation.getExpiresAt());
+    }
+
+    @Test
+    void releaseReservationsRestocksProducts() {
+        // Arrange
+        StockReservation reservation = reservation(ReservationStatus.HELD);
+        when(reservationRepository.findByOrderIdAndStatusIn(eq(10L), any()))
+                .thenReturn(Collections.singletonList(reservation));
+        when(reservationRepository.claim(eq(100L), any(), eq(ReservationStatus.RELEASED))).thenReturn(1);
+
+        // Act
+        inventoryService.releaseReservations(10L);
+
+        // Assert
+        verify(productRepository, times(1)).incrementStock(1L, 5);
+        verify(eventPublisher, times(1)).publishEvent(any(ProductChangedEvent.class));
+        assertEquals(ReservationStatus.RELEASED, reservation.getStatus());
+    }
+
+    @Test
+    void releaseReservationsSkipsRowsAnotherReleaseAlreadyClaimed() {
+        // Arrange: a concurrent release moved the row on after it was read
+        when(reservationRepository.findByOrderIdAndStatusIn(eq(10L), any()))
+                .thenReturn(Collections.singletonList(reservation(ReservationStatus.COMMITTED)));
+        when(reservationRepository.claim(eq(100L), any(), eq(ReservationStatus.RELEASED))).thenReturn(0);
+
+        // Act
+        inventoryService.releaseReservations(10L);
+
+        // Assert
+        verify(productRepository, never()).incrementStock(any(), any());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void releaseExpiredHoldReturnsOnlyHeldStock() {
+        // Arrange
+        when(reservationRepository.findByOrderIdAndStatusIn(10L, List.of(ReservationStatus.HELD)))
+                .thenReturn(Collections.singletonList(reservation(ReservationStatus.HELD)));
+        when(reservationRepository.claim(100L, List.of(ReservationStatus.HELD), ReservationStatus.RELEASED)).thenReturn(1);
+
+        // Act
+        boolean released = inventoryService.releaseExpiredHold(10L);
+
+        // Assert
+        assertTrue(released);
+        verify(productRepository, times(1)).incrementStock(1L, 5);
+    }
+
+    @Test
+    void releaseExpiredHoldReportsAHoldCommittedMeanwhile() {
+        // Arrange: payment committed the hold between the sweep's query and its claim
+        when(reservationRepository.findByOrderIdAndStatusIn(10L, List.of(ReservationStatus.HELD)))
+                .thenReturn(Collections.singletonList(reservation(ReservationStatus.HELD)));
+        when(reservationRepository.claim(100L, List.of(ReservationStatus.HELD), ReservationStatus.RELEASED)).thenReturn(0);
+
+        // Act
+        boolean released = inventoryService.releaseExpiredHold(10L);
+
+        // Assert
+        assertFalse(released);
+        verify(productRepository, never()).incrementStock(any(), any());
+    }
+
+    @Test
+    void adjustStockRunsOneBatchAndPublishesOneEvent() {
+        // Arrange
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenReturn(new int[]{1, 1, 1});
+        when(productRepository.findIdsBySkuIn(any())).thenReturn(List.of(1L, 2L));
+        List<StockAdjustmentRequest.Adjustment> adjustments = List.of(
+                adjustment("SKU-1", 40, StockAdjustmentRequest.Mode.ABSOLUTE),
+                adjustment("SKU-2", -3, StockAdjustmentRequest.Mode.DELTA),
+                adjustment("SKU-1", 5, StockAdjustmentRequest.Mode.DELTA));
+
+        // Act
+        StockAdjustmentResponse response = inventoryService.adjustStock(adjustments);
+
+        // Assert
+        assertEquals(3, response.getApplied());
+        assertTrue(response.getRejected().isEmpty());
+        ArgumentCaptor<List<Object[]>> batch = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), batch.capture());
+        // keep = 0 replaces the level, keep = 1 adds to it
+        assertArrayEquals(new Object[]{0, 40, 0, 40, "SKU-1", 0, 40}, batch.getValue().get(0));
+        assertArrayEquals(new Object[]{1, -3, 1, -3, "SKU-2", 1, -3}, batch.getValue().get(1));
+        ArgumentCaptor<ProductChangedEvent> event = ArgumentCaptor.forClass(ProductChangedEvent.class);
+        verify(eventPublisher, times(1)).publishEvent(event.capture());
+        assertEquals(Set.of(1L, 2L), event.getValue().getProductIds());
+        assertFalse(event.getValue().isListingsChanged());
+    }
+
+    @Test
+    void adjustStockExplainsWhatWasNotApplied() {
+        // Arrange
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenReturn(new int[]{0, 0});
+        when(productRepository.findSkusIn(List.of("SKU-1", "SKU-9"))).thenReturn(List.of("SKU-1"));
+        List<StockAdjustmentRequest.Adjustment> adjustments = List.of(
+                adjustment("SKU-1", -500, StockAdjustmentRequest.Mode.DELTA),
+                adjustment("SKU-9", 10, StockAdjustmentRequest.Mode.ABSOLUTE),
+                adjustment("SKU-2", -1, StockAdjustmentRequest.Mode.ABSOLUTE));
+
+        // Act
+        StockAdjustmentResponse response = inventoryService.adjustStock(adjustments);
+
+        // Assert
+        assertEquals(0, response.getApplied());
+        assertEquals(List.of(
+                new StockAdjustmentResponse.RejectedAdjustment("SKU-2", "Stock count must not be negative"),
+                new StockAdjustmentResponse.RejectedAdjustment("SKU-1", "Stock would fall below zero"),
+                new StockAdjustmentResponse.RejectedAdjustment("SKU-9", "Unknown SKU")), response.getRejected());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void adjustStockDoesNotReportUncountedRowsAsApplied() {
+        // Arrange: the driver hides row counts, then the retried sync runs statement by statement
+        when(jdbcTemplate.batchUpdate(anyString(), anyList()))
+                .thenReturn(new int[]{Statement.SUCCESS_NO_INFO, Statement.SUCCESS_NO_INFO});
+        when(jdbcTemplate.update(anyString(), (Object[]) any())).thenReturn(1, 0);
+        when(productRepository.findSkusIn(List.of("SKU-2"))).thenReturn(List.of("SKU-2"));
+        when(productRepository.findIdsBySkuIn(Set.of("SKU-1"))).thenReturn(List.of(1L));
+        List<StockAdjustmentRequest.Adjustment> adjustments = List.of(
+                adjustment("SKU-1", 40, StockAdjustmentRequest.Mode.ABSOLUTE),
+                adjustment("SKU-2", -500, StockAdjustmentRequest.Mode.DELTA));
+
+        // Act
+        assertThrows(IncorrectUpdateSemanticsDataAccessException.class, () -> inventoryService.adjustStock(adjustments));
+        StockAdjustmentResponse response = inventoryService.adjustStock(adjustments);
+
+        // Assert
+        assertEquals(1, response.getApplied());
+        assertEquals(List.of(new StockAdjustmentResponse.RejectedAdjustment("SKU-2", "Stock would fall below zero")),
+                response.getRejected());
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), anyList());
+    }
+
+    private StockAdjustmentRequest.Adjustment adjustment(String sku, int quantity, StockAdjustmentRequest.Mode mode) {
+        StockAdjustmentRequest.Adjustment adjustment = new StockAdjustmentRequest.Adjustment();
+        adjustment.setSku(sku);
+        adjustment.setQuantity(quantity);
+        adjustment.setMode(mode);
+        return adjustment;
+    }
+
+    private StockReservation reservation(ReservationStatus status) {
+        StockReservation reservation = new StockReservation();
+        reservation.setId(100L);
+        reservation.setOrderId(10L);
+        reservation.setProductId(1L);
+        reservation.setQuantity(5);
+        reservation.setStatus(status);
+        return reservation;
+    }
+}
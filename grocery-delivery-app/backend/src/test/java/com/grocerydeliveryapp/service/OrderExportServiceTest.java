@@ -0,0 +1,103 @@
+package com.grocerydeliveryapp.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.grocerydeliveryapp.model.Order;
+import com.grocerydeliveryapp.model.OrderStatus;
+import com.grocerydeliveryapp.repository.OrderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.persistence.EntityManager;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class OrderExportServiceTest {
+
+    private static final LocalDateTime FROM = LocalDateTime.of(2024, 1, 1, 0, 0);
+    private static final LocalDateTime TO = LocalDateTime.of(2024, 2, 1, 0, 0);
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    private OrderExportService exportService;
+
+    @BeforeEach
+    void setUp() {
+        exportService = new OrderExportService(orderRepository, entityManager, new ObjectMapper());
+    }
+
+    @Test
+    void csvRowsAreEscapedAndEachOrderIsDetached() throws Exception {
+        // Arrange
+        Order plain = order(1L, null);
+        Order quoted = order(2L, "Customer said \"wrong address\", left");
+        when(orderRepository.streamForExport(FROM, TO, null, null)).thenReturn(Stream.of(plain, quoted));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        long exported = exportService.exportOrders(FROM, TO, null, null, OrderExportService.Format.CSV, out);
+
+        // Assert
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\r\n");
+        assertEquals(2, exported);
+        assertEquals(String.join(",", OrderExportService.COLUMNS), lines[0]);
+        assertTrue(lines[1].startsWith("1,2024-01-15T10:30,,CANCELLED,CARD,"));
+        assertTrue(lines[2].endsWith(",\"Customer said \"\"wrong address\"\", left\","));
+        verify(entityManager).detach(plain);
+        verify(entityManager).detach(quoted);
+    }
+
+    @Test
+    void ndjsonWritesOneObjectPerLine() throws Exception {
+        // Arrange
+        when(orderRepository.streamForExport(FROM, TO, OrderStatus.CANCELLED, "CARD"))
+                .thenReturn(Stream.of(order(1L, null), order(2L, null)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        exportService.exportOrders(FROM, TO, OrderStatus.CANCELLED, "CARD", OrderExportService.Format.NDJSON, out);
+
+        // Assert
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        JsonNode second = new ObjectMapper().readTree(lines[1]);
+        assertEquals(2, second.get("id").asLong());
+        assertEquals(0, new BigDecimal("42.50").compareTo(second.get("totalAmount").decimalValue()));
+        // Amounts keep their two-decimal scale on the wire
+        assertTrue(lines[1].contains("\"totalAmount\":42.50"));
+        assertFalse(second.has("cancellationReason"));
+    }
+
+    @Test
+    void emptyRangeIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> exportService.exportOrders(TO, FROM, null, null,
+                OrderExportService.Format.CSV, new ByteArrayOutputStream()));
+        verifyNoInteractions(orderRepository);
+    }
+
+    private Order order(Long id, String cancellationReason) {
+        Order order = new Order();
+        order.setId(id);
+        order.setStatus(OrderStatus.CANCELLED);
+        order.setPaymentMethod("CARD");
+        order.setTotalAmount(new BigDecimal("42.50"));
+        order.setCreatedAt(LocalDateTime.of(2024, 1, 15, 10, 30));
+        order.setCancellationReason(cancellationReason);
+        return order;
+    }
+}
@@ -3,6 +3,7 @@ package com.grocerydeliveryapp.service;
 import com.grocerydeliveryapp.dto.order.OrderItemRequest;
 import com.grocerydeliveryapp.dto.order.OrderRequest;
 import com.grocerydeliveryapp.dto.order.OrderResponse;
+import com.grocerydeliveryapp.event.OrderStatusChangedEvent;
 import com.grocerydeliveryapp.exception.OutOfStockException;
 import com.grocerydeliveryapp.model.*;
 import com.grocerydeliveryapp.repository.OrderRepository;
@@ -11,9 +12,11 @@ import com.grocerydeliveryapp.repository.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
@@ -21,8 +24,10 @@ import org.springframework.data.domain.Pageable;
 
 import javax.persistence.EntityNotFoundException;
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.any;
@@ -42,11 +47,14 @@ public class OrderServiceTest {
     private UserRepository userRepository;
 
     @Mock
-    private ProductService productService;
+    private InventoryService inventoryService;
 
     @Mock
     private EmailService emailService;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private OrderService orderService;
 
@@ -89,6 +97,11 @@ public class OrderServiceTest {
         testOrder.setUser(testUser);
         testOrder.setStatus(OrderStatus.PENDING);
         testOrder.setDeliveryAddress("123 Test St");
+        testOrder.setTransactionId("ORD-TEST0001");
+        testOrder.setEstimatedDeliveryTime(LocalDateTime.now().plusMinutes(45));
+        testOrder.setTotalAmount(new BigDecimal("239.97"));
+        testOrder.setDeliveryCharge(new BigDecimal("30.00"));
+        testOrder.setTaxAmount(new BigDecimal("9.99"));
         
         OrderItem orderItem = new OrderItem();
         orderItem.setProduct(testProduct);
@@ -101,7 +114,7 @@ public class OrderServiceTest {
     void createOrderSuccess() {
         // Arrange
         when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
-        when(productRepository.findById(1L)).thenReturn(Optional.of(testProduct));
+        when(productRepository.findAllById(any())).thenReturn(Collections.singletonList(testProduct));
         when(orderRepository.save(any(Order.class))).thenReturn(testOrder);
 
         // Act
@@ -111,7 +124,8 @@ public class OrderServiceTest {
         assertNotNull(response);
         assertEquals(OrderStatus.PENDING, response.getStatus());
         assertEquals(testUser.getUsername(), response.getCustomerName());
-        verify(productService, times(1)).updateStock(anyLong(), anyInt());
+        verify(inventoryService, times(1)).reserveAll(anyMap(), anyMap());
+        verify(inventoryService, times(1)).recordReservations(testOrder);
         verify(emailService, times(1)).sendOrderConfirmation(anyString(), anyString(), anyMap());
     }
 
@@ -119,7 +133,7 @@ public class OrderServiceTest {
     void createOrderProductNotFound() {
         // Arrange
         when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
-        when(productRepository.findById(1L)).thenReturn(Optional.empty());
+        when(productRepository.findAllById(any())).thenReturn(Collections.emptyList());
 
         // Act & Assert
         assertThrows(EntityNotFoundException.class, () -> {
@@ -133,7 +147,7 @@ public class OrderServiceTest {
         // Arrange
         testProduct.setStockQuantity(1); // Set stock less than requested quantity
         when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
-        when(productRepository.findById(1L)).thenReturn(Optional.of(testProduct));
+        when(productRepository.findAllById(any())).thenReturn(Collections.singletonList(testProduct));
 
         // Act & Assert
         assertThrows(IllegalStateException.class, () -> {
@@ -197,7 +211,26 @@ public class OrderServiceTest {
         assertNotNull(response);
         assertEquals(OrderStatus.CONFIRMED, response.getStatus());
         verify(emailService, times(1)).sendOrderStatusUpdate(
-            anyString(), anyString(), anyString(), anyString());
+            anyString(), anyString(), anyString(), any());
+
+        ArgumentCaptor<OrderStatusChangedEvent> event = ArgumentCaptor.forClass(OrderStatusChangedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals(OrderStatus.PENDING, event.getValue().getPreviousStatus());
+        assertEquals(OrderStatus.CONFIRMED, event.getValue().getNewStatus());
+        assertSame(response, event.getValue().getOrder());
+    }
+
+    @Test
+    void updateOrderStatusCancelledReleasesReservations() {
+        // Arrange
+        when(orderRepository.findById(1L)).thenReturn(Optional.of(testOrder));
+
+        // Act
+        OrderResponse response = orderService.updateOrderStatus(1L, OrderStatus.CANCELLED);
+
+        // Assert
+        assertEquals(OrderStatus.CANCELLED, response.getStatus());
+        verify(inventoryService, times(1)).releaseReservations(1L);
     }
 
     @Test
@@ -212,6 +245,7 @@ public class OrderServiceTest {
         // Assert
         assertNotNull(response);
         assertEquals(OrderStatus.CANCELLED, response.getStatus());
+        verify(inventoryService, times(1)).releaseReservations(1L);
         verify(emailService, times(1)).sendEmail(anyString(), anyString(), anyString());
     }
 
@@ -226,4 +260,102 @@ public class OrderServiceTest {
         });
         verify(orderRepository, never()).save(any(Order.class));
     }
+
+    @Test
+    void updateOrderPaymentStatusPaidCommitsReservations() {
+        // Arrange
+        when(orderRepository.findById(1L)).thenReturn(Optional.of(testOrder));
+
+        // Act
+        orderService.updateOrderPaymentStatus(1L, "PAID", "TXN-1");
+
+        // Assert
+        assertEquals("PAID", testOrder.getPaymentStatus());
+        assertEquals("TXN-1", testOrder.getPaymentTransactionId());
+        verify(inventoryService, times(1)).commitReservations(1L);
+        verify(inventoryService, never()).releaseReservations(anyLong());
+    }
+
+    @Test
+    void updateOrderPaymentStatusFailedReleasesReservations() {
+        // Arrange
+        when(orderRepository.findById(1L)).thenReturn(Optional.of(testOrder));
+
+        // Act
+        orderService.updateOrderPaymentStatus(1L, "FAILED", "TXN-1");
+
+        // Assert
+        assertEquals(OrderStatus.CANCELLED, testOrder.getStatus());
+        verify(inventoryService, times(1)).releaseReservations(1L);
+        verify(inventoryService, never()).commitReservations(anyLong());
+    }
+
+    @Test
+    void cancelExpiredOrdersCancelsPendingOrdersAndPublishes() {
+        // Arrange
+        when(inventoryService.findOrdersWithExpiredHolds()).thenReturn(List.of(1L));
+        when(orderRepository.findById(1L)).thenReturn(Optional.of(testOrder));
+        when(inventoryService.releaseExpiredHold(1L)).thenReturn(true);
+
+        // Act
+        orderService.cancelExpiredOrders();
+
+        // Assert
+        assertEquals(OrderStatus.CANCELLED, testOrder.getStatus());
+        assertEquals("EXPIRED", testOrder.getPaymentStatus());
+        verify(orderRepository, times(1)).save(testOrder);
+
+        ArgumentCaptor<OrderStatusChangedEvent> event = ArgumentCaptor.forClass(OrderStatusChangedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals(OrderStatus.PENDING, event.getValue().getPreviousStatus());
+        assertEquals(OrderStatus.CANCELLED, event.getValue().getNewStatus());
+    }
+
+    @Test
+    void cancelExpiredOrdersLeavesOrdersThatMovedOn() {
+        // Arrange: the order was confirmed after its hold expired
+        testOrder.setStatus(OrderStatus.CONFIRMED);
+        when(inventoryService.findOrdersWithExpiredHolds()).thenReturn(List.of(1L));
+        when(orderRepository.findById(1L)).thenReturn(Optional.of(testOrder));
+
+        // Act
+        orderService.cancelExpiredOrders();
+
+        // Assert
+        assertEquals(OrderStatus.CONFIRMED, testOrder.getStatus());
+        verify(inventoryService, never()).releaseExpiredHold(anyLong());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void cancelExpiredOrdersReturnsHoldsOfCancelledOrders() {
+        // Arrange: cancelled before this release-on-cancel existed, so its hold was never returned
+        testOrder.setStatus(OrderStatus.CANCELLED);
+        when(inventoryService.findOrdersWithExpiredHolds()).thenReturn(List.of(1L));
+        when(orderRepository.findById(1L)).thenReturn(Optional.of(testOrder));
+
+        // Act
+        orderService.cancelExpiredOrders();
+
+        // Assert
+        verify(inventoryService, times(1)).releaseExpiredHold(1L);
+        verify(orderRepository, never()).save(any(Order.class));
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void cancelExpiredOrdersKeepsOrdersWhoseHoldWasCommittedMeanwhile() {
+        // Arrange
+        when(inventoryService.findOrdersWithExpiredHolds()).thenReturn(List.of(1L));
+        when(orderRepository.findById(1L)).thenReturn(Optional.of(testOrder));
+        when(inventoryService.releaseExpiredHold(1L)).thenReturn(false);
+
+        // Act
+        orderService.cancelExpiredOrders();
+
+        // Assert
+        assertEquals(OrderStatus.PENDING, testOrder.getStatus());
+        verify(orderRepository, never()).save(any(Order.class));
+        verifyNoInteractions(eventPublisher);
+    }
 }
@@ -0,0 +1,163 @@
+package com.grocerydeliveryapp.service;
+
+import com.grocerydeliveryapp.dto.order.OrderResponse;
+import com.grocerydeliveryapp.dto.order.OrderStatisticsResponse;
+import com.grocerydeliveryapp.event.OrderStatusChangedEvent;
+import com.grocerydeliveryapp.model.OrderStatus;
+import com.grocerydeliveryapp.repository.OrderRepository;
+import com.grocerydeliveryapp.repository.StatusTotals;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class OrderStatisticsServiceTest {
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private OrderStatisticsService statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = new OrderStatisticsService(orderRepository, jdbcTemplate, transactionManager);
+    }
+
+    @Test
+    void transitionsMoveCountsAndRevenueWithoutTouchingTheDatabase() {
+        // Act
+        statistics.onOrderStatusChanged(event(1L, null, OrderStatus.PENDING, "250.00"));
+        statistics.onOrderStatusChanged(event(1L, OrderStatus.PENDING, OrderStatus.DELIVERED, "250.00"));
+        statistics.onOrderStatusChanged(event(2L, null, OrderStatus.PENDING, "99.99"));
+        statistics.recordRating(4);
+
+        OrderStatisticsResponse response = statistics.getStatistics();
+
+        // Assert
+        assertEquals(2, response.getTotalOrders());
+        assertEquals(1, response.getOrdersByStatus().get(OrderStatus.PENDING));
+        assertEquals(1, response.getOrdersByStatus().get(OrderStatus.DELIVERED));
+        assertEquals(new BigDecimal("250.00"), response.getRevenue());
+        assertEquals(4.0, response.getAverageRating());
+        assertEquals(24, response.getOrdersPerHour().size());
+        assertEquals(2, response.getOrdersPerHour().get(23).getOrders());
+        verifyNoInteractions(jdbcTemplate, orderRepository);
+    }
+
+    @Test
+    void checkpointAddsDeltasAndServesTheSharedTotals() {
+        // Arrange: another node has already counted three delivered orders
+        statistics.onOrderStatusChanged(event(1L, OrderStatus.OUT_FOR_DELIVERY, OrderStatus.DELIVERED, "10.00"));
+        when(jdbcTemplate.queryForList(anyString())).thenReturn(List.of(
+                row(OrderStatisticsService.COUNT_PREFIX + "DELIVERED", 4L),
+                row(OrderStatisticsService.COUNT_PREFIX + "OUT_FOR_DELIVERY", 0L)));
+
+        // Act
+        statistics.checkpoint();
+        OrderStatisticsResponse response = statistics.getStatistics();
+
+        // Assert
+        verify(jdbcTemplate).update(startsWith("UPDATE"), eq(1L), any(LocalDateTime.class),
+                eq(OrderStatisticsService.COUNT_PREFIX + "DELIVERED"));
+        verify(jdbcTemplate).update(startsWith("UPDATE"), eq(-1L), any(LocalDateTime.class),
+                eq(OrderStatisticsService.COUNT_PREFIX + "OUT_FOR_DELIVERY"));
+        assertEquals(4, response.getOrdersByStatus().get(OrderStatus.DELIVERED));
+        assertEquals(0, response.getOrdersByStatus().get(OrderStatus.OUT_FOR_DELIVERY));
+        assertNotNull(response.getCheckpointedAt());
+    }
+
+    @Test
+    void failedCheckpointKeepsTheDeltasForTheNextOne() {
+        // Arrange
+        statistics.onOrderStatusChanged(event(1L, null, OrderStatus.PENDING, "10.00"));
+        when(jdbcTemplate.update(anyString(), any(), any(), any()))
+                .thenThrow(new DataAccessResourceFailureException("database down"));
+
+        // Act
+        statistics.checkpoint();
+
+        // Assert
+        assertEquals(1, statistics.getStatistics().getOrdersByStatus().get(OrderStatus.PENDING));
+        assertNull(statistics.getStatistics().getCheckpointedAt());
+    }
+
+    @Test
+    void reconcileOverwritesCountersWithTheOrdersTable() {
+        // Arrange: the shared table says five delivered orders, but an event was dropped and
+        // one of them is really still out for delivery
+        String delivered = OrderStatisticsService.COUNT_PREFIX + "DELIVERED";
+        when(jdbcTemplate.queryForList(anyString())).thenReturn(
+                List.of(row(delivered, 5L)),
+                List.of(row(delivered, 5L)),
+                List.of(row(delivered, 4L), row(OrderStatisticsService.COUNT_PREFIX + "OUT_FOR_DELIVERY", 1L)));
+        when(orderRepository.sumByStatus()).thenReturn(List.of(
+                totals(OrderStatus.DELIVERED, 4L, "400.00"),
+                totals(OrderStatus.OUT_FOR_DELIVERY, 1L, "100.00")));
+
+        // Act
+        statistics.reconcile();
+        OrderStatisticsResponse response = statistics.getStatistics();
+
+        // Assert
+        verify(jdbcTemplate).update(startsWith("UPDATE order_statistics SET stat_value = ?"),
+                eq(4L), any(LocalDateTime.class), eq(delivered));
+        verify(jdbcTemplate).update(startsWith("UPDATE order_statistics SET stat_value = ?"),
+                eq(40000L), any(LocalDateTime.class), eq(OrderStatisticsService.AMOUNT_PREFIX + "DELIVERED"));
+        assertEquals(4, response.getOrdersByStatus().get(OrderStatus.DELIVERED));
+        assertEquals(1, response.getOrdersByStatus().get(OrderStatus.OUT_FOR_DELIVERY));
+    }
+
+    private OrderStatusChangedEvent event(Long orderId, OrderStatus previous, OrderStatus status, String total) {
+        OrderResponse order = OrderResponse.builder()
+                .id(orderId)
+                .status(status)
+                .totalAmount(new BigDecimal(total))
+                .createdAt(LocalDateTime.now())
+                .build();
+        return new OrderStatusChangedEvent(10L, previous, order);
+    }
+
+    private Map<String, Object> row(String key, long value) {
+        return Map.of("stat_key", key, "stat_value", value);
+    }
+
+    // A plain projection value, so it can be built inside another stubbing
+    private StatusTotals totals(OrderStatus status, long orders, String amount) {
+        return new StatusTotals() {
+            @Override
+            public OrderStatus getStatus() {
+                return status;
+            }
+
+            @Override
+            public Long getOrders() {
+                return orders;
+            }
+
+            @Override
+            public BigDecimal getAmount() {
+                return new BigDecimal(amount);
+            }
+        };
+    }
+}
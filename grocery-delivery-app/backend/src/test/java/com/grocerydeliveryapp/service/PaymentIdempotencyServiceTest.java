@@ -0,0 +1,171 @@
+package com.grocerydeliveryapp.service;
+
+import com.grocerydeliveryapp.exception.IdempotencyKeyMismatchException;
+import com.grocerydeliveryapp.exception.PaymentException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+public class PaymentIdempotencyServiceTest {
+
+    @Mock
+    private IdempotencyStore idempotencyStore;
+
+    private PaymentIdempotencyService paymentIdempotencyService;
+
+    private static final String FINGERPRINT =
+            PaymentIdempotencyService.fingerprint(10L, new BigDecimal("42.50"), "CARD");
+
+    @BeforeEach
+    void setUp() {
+        paymentIdempotencyService = new PaymentIdempotencyService(idempotencyStore, 100, 1440);
+    }
+
+    @Test
+    void duplicateRequestJoinsInFlightPayment() {
+        // Arrange
+        when(idempotencyStore.find("1:10:abc")).thenReturn(Optional.empty());
+        CompletableFuture<Map<String, Object>> gateway = new CompletableFuture<>();
+        AtomicInteger attempts = new AtomicInteger();
+
+        // Act
+        CompletableFuture<Map<String, Object>> first = paymentIdempotencyService.execute("1:10:abc", FINGERPRINT, () -> {
+            attempts.incrementAndGet();
+            return gateway;
+        });
+        CompletableFuture<Map<String, Object>> retry = paymentIdempotencyService.execute("1:10:abc", FINGERPRINT, () -> {
+            attempts.incrementAndGet();
+            return CompletableFuture.completedFuture(Map.of());
+        });
+        gateway.complete(Map.of("transactionId", "TXN-1"));
+
+        // Assert
+        assertEquals(1, attempts.get());
+        assertSame(first, retry);
+        assertEquals("TXN-1", retry.join().get("transactionId"));
+        verify(idempotencyStore, times(1)).save(eq("1:10:abc"), eq(FINGERPRINT), any());
+    }
+
+    @Test
+    void completedPaymentIsReplayedFromStore() {
+        // Arrange
+        when(idempotencyStore.find("1:10:abc")).thenReturn(Optional.of(
+                new IdempotencyStore.StoredPayment(FINGERPRINT, Map.of("transactionId", "TXN-1"))));
+
+        // Act
+        Map<String, Object> bill = paymentIdempotencyService.execute("1:10:abc", FINGERPRINT,
+                () -> fail("gateway must not be called")).join();
+
+        // Assert
+        assertEquals("TXN-1", bill.get("transactionId"));
+        verify(idempotencyStore, never()).save(anyString(), any(), any());
+    }
+
+    @Test
+    void billIsReturnedAndReplayedWhenTheStoreFailsToSaveIt() {
+        // Arrange
+        when(idempotencyStore.find("1:10:abc")).thenReturn(Optional.empty());
+        doThrow(new DataAccessResourceFailureException("database down"))
+                .when(idempotencyStore).save(eq("1:10:abc"), eq(FINGERPRINT), any());
+
+        // Act
+        CompletableFuture<Map<String, Object>> first = paymentIdempotencyService.execute("1:10:abc", FINGERPRINT,
+                () -> CompletableFuture.completedFuture(Map.of("transactionId", "TXN-1")));
+        CompletableFuture<Map<String, Object>> retry = paymentIdempotencyService.execute("1:10:abc", FINGERPRINT,
+                () -> fail("gateway must not be called"));
+
+        // Assert
+        assertEquals("TXN-1", first.join().get("transactionId"));
+        assertSame(first, retry);
+    }
+
+    @Test
+    void failedPaymentCanBeRetriedWithSameKey() {
+        // Arrange
+        when(idempotencyStore.find("1:10:abc")).thenReturn(Optional.empty());
+        CompletableFuture<Map<String, Object>> failed =
+                CompletableFuture.failedFuture(PaymentException.gatewayError("TXN-1", "timeout"));
+
+        // Act
+        CompletableFuture<Map<String, Object>> first = paymentIdempotencyService.execute("1:10:abc", FINGERPRINT, () -> failed);
+        Map<String, Object> second = paymentIdempotencyService.execute("1:10:abc", FINGERPRINT,
+                () -> CompletableFuture.completedFuture(Map.of("transactionId", "TXN-2"))).join();
+
+        // Assert
+        assertThrows(CompletionException.class, first::join);
+        assertEquals("TXN-2", second.get("transactionId"));
+    }
+
+    @Test
+    void validationFailureReleasesKey() {
+        // Arrange
+        when(idempotencyStore.find("1:10:abc")).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(PaymentException.class, () -> paymentIdempotencyService.execute("1:10:abc", FINGERPRINT, () -> {
+            throw PaymentException.invalidCard("Invalid card number");
+        }));
+        Map<String, Object> bill = paymentIdempotencyService.execute("1:10:abc", FINGERPRINT,
+                () -> CompletableFuture.completedFuture(Map.of("transactionId", "TXN-2"))).join();
+        assertEquals("TXN-2", bill.get("transactionId"));
+    }
+
+    @Test
+    void keyReusedForADifferentAmountIsRefused() {
+        // Arrange
+        when(idempotencyStore.find("1:10:abc")).thenReturn(Optional.empty());
+        paymentIdempotencyService.execute("1:10:abc", FINGERPRINT, CompletableFuture::new);
+        String otherAmount = PaymentIdempotencyService.fingerprint(10L, new BigDecimal("99.00"), "CARD");
+
+        // Act & Assert
+        assertThrows(IdempotencyKeyMismatchException.class, () -> paymentIdempotencyService.execute(
+                "1:10:abc", otherAmount, () -> fail("gateway must not be called")));
+    }
+
+    @Test
+    void storedPaymentForADifferentRequestIsNotReplayed() {
+        // Arrange: completed on another instance for a different payment method
+        when(idempotencyStore.find("1:10:abc")).thenReturn(Optional.of(new IdempotencyStore.StoredPayment(
+                PaymentIdempotencyService.fingerprint(10L, new BigDecimal("42.50"), "UPI"),
+                Map.of("transactionId", "TXN-1"))));
+
+        // Act & Assert
+        assertThrows(IdempotencyKeyMismatchException.class, () -> paymentIdempotencyService.execute(
+                "1:10:abc", FINGERPRINT, () -> fail("gateway must not be called")));
+    }
+
+    @Test
+    void paymentStoredBeforeFingerprintsWereKeptIsStillReplayed() throws Exception {
+        // Arrange
+        when(idempotencyStore.find("1:10:abc")).thenReturn(Optional.of(
+                new IdempotencyStore.StoredPayment(null, Map.of("transactionId", "TXN-1"))));
+
+        // Act
+        Map<String, Object> bill = paymentIdempotencyService.execute("1:10:abc", FINGERPRINT,
+                () -> fail("gateway must not be called")).get();
+
+        // Assert
+        assertEquals("TXN-1", bill.get("transactionId"));
+    }
+
+    @Test
+    void fingerprintIgnoresAmountScaleAndMethodCase() {
+        assertEquals(FINGERPRINT, PaymentIdempotencyService.fingerprint(10L, new BigDecimal("42.5"), "card"));
+    }
+}
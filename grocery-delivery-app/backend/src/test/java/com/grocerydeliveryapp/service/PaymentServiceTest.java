@@ -16,6 +16,8 @@ import java.math.BigDecimal;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
@@ -28,6 +30,9 @@ public class PaymentServiceTest {
     @Mock
     private EmailService emailService;
 
+    @Mock
+    private PaymentGateway paymentGateway;
+
     @InjectMocks
     private PaymentService paymentService;
 
@@ -69,7 +74,7 @@ public class PaymentServiceTest {
         cardPaymentDetails = new HashMap<>();
         cardPaymentDetails.put("cardNumber", "4111111111111111");
         cardPaymentDetails.put("expiryMonth", "12");
-        cardPaymentDetails.put("expiryYear", "2025");
+        cardPaymentDetails.put("expiryYear", "2030");
         cardPaymentDetails.put("cvv", "123");
 
         // Setup UPI payment details
@@ -79,8 +84,12 @@ public class PaymentServiceTest {
 
     @Test
     void processCardPaymentSuccess() {
+        // Arrange
+        when(paymentGateway.charge(anyString(), eq("CARD"), any(BigDecimal.class)))
+                .thenReturn(CompletableFuture.completedFuture(null));
+
         // Act
-        Map<String, Object> result = paymentService.processPayment(testOrder, "CARD", cardPaymentDetails);
+        Map<String, Object> result = paymentService.processPayment(testOrder, "CARD", cardPaymentDetails).join();
 
         // Assert
         assertNotNull(result);
@@ -100,13 +109,33 @@ public class PaymentServiceTest {
         });
 
         assertEquals(PaymentException.PaymentErrorType.INVALID_CARD, exception.getErrorType());
+        verify(paymentGateway, never()).charge(anyString(), anyString(), any());
+        verify(emailService, never()).sendOrderConfirmation(anyString(), anyString(), anyMap());
+    }
+
+    @Test
+    void processCardPaymentGatewayFailure() {
+        // Arrange
+        when(paymentGateway.charge(anyString(), eq("CARD"), any(BigDecimal.class)))
+                .thenReturn(CompletableFuture.failedFuture(PaymentException.gatewayError("TXN-1", "declined")));
+
+        // Act
+        CompletableFuture<Map<String, Object>> result = paymentService.processPayment(testOrder, "CARD", cardPaymentDetails);
+
+        // Assert
+        CompletionException exception = assertThrows(CompletionException.class, result::join);
+        assertTrue(exception.getCause() instanceof PaymentException);
         verify(emailService, never()).sendOrderConfirmation(anyString(), anyString(), anyMap());
     }
 
     @Test
     void processUpiPaymentSuccess() {
+        // Arrange
+        when(paymentGateway.charge(anyString(), eq("UPI"), any(BigDecimal.class)))
+                .thenReturn(CompletableFuture.completedFuture(null));
+
         // Act
-        Map<String, Object> result = paymentService.processPayment(testOrder, "UPI", upiPaymentDetails);
+        Map<String, Object> result = paymentService.processPayment(testOrder, "UPI", upiPaymentDetails).join();
 
         // Assert
         assertNotNull(result);
@@ -132,12 +161,13 @@ public class PaymentServiceTest {
     @Test
     void processCodPaymentSuccess() {
         // Act
-        Map<String, Object> result = paymentService.processPayment(testOrder, "COD", new HashMap<>());
+        Map<String, Object> result = paymentService.processPayment(testOrder, "COD", new HashMap<>()).join();
 
         // Assert
         assertNotNull(result);
         assertNotNull(result.get("transactionId"));
         assertEquals("COD", result.get("paymentMethod"));
+        verify(paymentGateway, never()).charge(anyString(), anyString(), any());
         verify(emailService, times(1)).sendOrderConfirmation(anyString(), anyString(), anyMap());
     }
 
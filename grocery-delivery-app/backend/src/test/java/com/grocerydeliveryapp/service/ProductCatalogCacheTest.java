@@ -0,0 +1,81 @@
+package com.grocerydeliveryapp.service;
+
+import com.grocerydeliveryapp.config.CacheConfig;
+import com.grocerydeliveryapp.dto.product.ProductResponse;
+import com.grocerydeliveryapp.event.ProductChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProductCatalogCacheTest {
+
+    private CaffeineCacheManager cacheManager;
+    private ProductCatalogCache productCatalogCache;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager = new CaffeineCacheManager(
+                CacheConfig.PRODUCTS,
+                CacheConfig.FEATURED_PRODUCTS,
+                CacheConfig.DISCOUNTED_PRODUCTS,
+                CacheConfig.CATEGORY_PAGES);
+        productCatalogCache = new ProductCatalogCache(cacheManager);
+
+        ProductResponse apple = product(1L, "Fruits");
+        ProductResponse banana = product(2L, "Fruits");
+        ProductResponse milk = product(3L, "Dairy");
+
+        cacheManager.getCache(CacheConfig.PRODUCTS).put(1L, apple);
+        cacheManager.getCache(CacheConfig.PRODUCTS).put(3L, milk);
+        cacheManager.getCache(CacheConfig.FEATURED_PRODUCTS).put("featured", List.of(milk));
+        cacheManager.getCache(CacheConfig.CATEGORY_PAGES).put(
+                CacheConfig.categoryPageKey("Fruits", PageRequest.of(0, 10)),
+                new PageImpl<>(List.of(apple, banana)));
+        cacheManager.getCache(CacheConfig.CATEGORY_PAGES).put(
+                CacheConfig.categoryPageKey("Dairy", PageRequest.of(0, 10)),
+                new PageImpl<>(List.of(milk)));
+    }
+
+    @Test
+    void stockChangeEvictsOnlyEntriesContainingProduct() {
+        // Act
+        productCatalogCache.onProductChanged(ProductChangedEvent.stockChanged(Set.of(1L)));
+
+        // Assert
+        Cache categoryPages = cacheManager.getCache(CacheConfig.CATEGORY_PAGES);
+        assertNull(cacheManager.getCache(CacheConfig.PRODUCTS).get(1L));
+        assertNotNull(cacheManager.getCache(CacheConfig.PRODUCTS).get(3L));
+        assertNull(categoryPages.get(CacheConfig.categoryPageKey("Fruits", PageRequest.of(0, 10))));
+        assertNotNull(categoryPages.get(CacheConfig.categoryPageKey("Dairy", PageRequest.of(0, 10))));
+        assertNotNull(cacheManager.getCache(CacheConfig.FEATURED_PRODUCTS).get("featured"));
+    }
+
+    @Test
+    void listingChangeEvictsCategoryPagesAndLists() {
+        // Act
+        productCatalogCache.onProductChanged(new ProductChangedEvent(Set.of(4L), Set.of("Dairy"), true));
+
+        // Assert
+        Cache categoryPages = cacheManager.getCache(CacheConfig.CATEGORY_PAGES);
+        assertNull(categoryPages.get(CacheConfig.categoryPageKey("Dairy", PageRequest.of(0, 10))));
+        assertNotNull(categoryPages.get(CacheConfig.categoryPageKey("Fruits", PageRequest.of(0, 10))));
+        assertNull(cacheManager.getCache(CacheConfig.FEATURED_PRODUCTS).get("featured"));
+        assertNotNull(cacheManager.getCache(CacheConfig.PRODUCTS).get(1L));
+    }
+
+    private ProductResponse product(Long id, String category) {
+        return ProductResponse.builder()
+                .id(id)
+                .name("Product " + id)
+                .category(category)
+                .build();
+    }
+}
@@ -0,0 +1,192 @@
+package com.grocerydeliveryapp.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.grocerydeliveryapp.dto.product.ProductImportReport;
+import com.grocerydeliveryapp.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.validation.Validation;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ProductImportServiceTest {
+
+    private static final String HEADER = "sku,name,description,price,stockQuantity,category,unit\n";
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ProductCatalogCache productCatalogCache;
+
+    @Mock
+    private ProductSearchIndex productSearchIndex;
+
+    private ProductImportService importService;
+
+    @BeforeEach
+    void setUp() {
+        importService = importService(1000);
+    }
+
+    @Test
+    void validRowsAreUpsertedAndInvalidOnesReported() throws Exception {
+        // Arrange: A-1 already exists, A-2 is new, A-3 has no price
+        when(jdbcTemplate.batchUpdate(startsWith("UPDATE"), anyList())).thenReturn(new int[]{1, 0});
+        String feed = HEADER +
+                "A-1,Apples,\"Crisp, \"\"red\"\"\",2.50,40,Fruits,kg\n" +
+                "A-2,Pears,Ripe,3.00,0,Fruits,kg\n" +
+                "A-3,Plums,Sweet,,5,Fruits,kg\n";
+
+        // Act
+        ProductImportReport report = importService.importProducts(csv(feed), ProductImportService.Format.CSV);
+
+        // Assert
+        assertEquals(3, report.getTotalRows());
+        assertEquals(1, report.getInserted());
+        assertEquals(1, report.getUpdated());
+        assertEquals(1, report.getRejectedCount());
+        assertEquals(4, report.getRejected().get(0).getLine());
+        assertEquals(List.of("Price is required"), report.getRejected().get(0).getErrors());
+
+        ArgumentCaptor<List<Object[]>> updates = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(startsWith("UPDATE"), updates.capture());
+        assertEquals("Crisp, \"red\"", updates.getValue().get(0)[1]);
+
+        ArgumentCaptor<List<Object[]>> inserts = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(startsWith("INSERT"), inserts.capture());
+        assertEquals(1, inserts.getValue().size());
+        assertEquals("A-2", inserts.getValue().get(0)[13]);
+
+        verify(productCatalogCache, times(1)).evictAll();
+        verify(productSearchIndex, times(1)).rebuild();
+    }
+
+    @Test
+    void feedIsWrittenOneChunkAtATime() throws Exception {
+        // Arrange
+        importService = importService(2);
+        when(jdbcTemplate.batchUpdate(startsWith("UPDATE"), anyList()))
+                .thenAnswer(invocation -> new int[((List<?>) invocation.getArgument(1)).size()]);
+        StringBuilder feed = new StringBuilder(HEADER);
+        for (int i = 1; i <= 5; i++) {
+            feed.append("B-").append(i).append(",Bread ").append(i).append(",Fresh,1.00,10,Bakery,loaf\n");
+        }
+
+        // Act
+        ProductImportReport report = importService.importProducts(csv(feed.toString()), ProductImportService.Format.CSV);
+
+        // Assert
+        assertEquals(5, report.getInserted());
+        assertEquals(3, report.getChunks().size());
+        assertEquals(1, report.getChunks().get(2).getRows());
+        verify(jdbcTemplate, times(3)).batchUpdate(startsWith("UPDATE"), anyList());
+    }
+
+    @Test
+    void repeatedSkuInAChunkKeepsTheLastRow() throws Exception {
+        // Arrange
+        when(jdbcTemplate.batchUpdate(startsWith("UPDATE"), anyList())).thenReturn(new int[]{1});
+        String feed = HEADER +
+                "C-1,Cheese,Old,5.00,3,Dairy,pack\n" +
+                "C-1,Cheese,New,6.00,3,Dairy,pack\n";
+
+        // Act
+        ProductImportReport report = importService.importProducts(csv(feed), ProductImportService.Format.CSV);
+
+        // Assert
+        assertEquals(1, report.getUpdated());
+        assertEquals(List.of("Superseded by line 3"), report.getRejected().get(0).getErrors());
+    }
+
+    @Test
+    void rowCountsTheDriverDoesNotReportAreResolvedBySku() throws Exception {
+        // Arrange: the driver answers SUCCESS_NO_INFO for every row; only F-1 already exists
+        when(jdbcTemplate.batchUpdate(startsWith("UPDATE"), anyList()))
+                .thenReturn(new int[]{Statement.SUCCESS_NO_INFO, Statement.SUCCESS_NO_INFO});
+        when(productRepository.findSkusIn(Set.of("F-1", "F-2"))).thenReturn(List.of("F-1"));
+        String feed = HEADER +
+                "F-1,Flour,Plain,1.20,30,Bakery,kg\n" +
+                "F-2,Figs,Dried,4.80,8,Fruits,pack\n";
+
+        // Act
+        ProductImportReport report = importService.importProducts(csv(feed), ProductImportService.Format.CSV);
+
+        // Assert
+        assertEquals(1, report.getInserted());
+        assertEquals(1, report.getUpdated());
+        assertEquals(1, report.getChunks().get(0).getUpdated());
+        ArgumentCaptor<List<Object[]>> inserts = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(startsWith("INSERT"), inserts.capture());
+        assertEquals(1, inserts.getValue().size());
+        assertEquals("F-2", inserts.getValue().get(0)[13]);
+    }
+
+    @Test
+    void jsonRowThatCannotBeMappedIsRejectedAndTheRestLoads() throws Exception {
+        // Arrange
+        when(jdbcTemplate.batchUpdate(startsWith("UPDATE"), anyList())).thenReturn(new int[]{0});
+        String feed = "[\n" +
+                "{\"sku\": \"D-1\", \"name\": \"Milk\", \"description\": \"Whole\", \"price\": \"lots\"," +
+                " \"stockQuantity\": 1, \"category\": \"Dairy\", \"unit\": \"l\"},\n" +
+                "{\"sku\": \"D-2\", \"name\": \"Cream\", \"description\": \"Double\", \"price\": 2.10," +
+                " \"stockQuantity\": 4, \"category\": \"Dairy\", \"unit\": \"ml\"}\n" +
+                "]";
+
+        // Act
+        ProductImportReport report = importService.importProducts(csv(feed), ProductImportService.Format.JSON);
+
+        // Assert
+        assertEquals(2, report.getTotalRows());
+        assertEquals(1, report.getInserted());
+        assertEquals(1, report.getRejectedCount());
+    }
+
+    @Test
+    void chunkThatFailsToWriteIsRejectedWithoutRebuilding() throws Exception {
+        // Arrange
+        when(jdbcTemplate.batchUpdate(startsWith("UPDATE"), anyList()))
+                .thenThrow(new DataAccessResourceFailureException("database down"));
+        String feed = HEADER + "E-1,Eggs,Free range,4.00,12,Dairy,dozen\n";
+
+        // Act
+        ProductImportReport report = importService.importProducts(csv(feed), ProductImportService.Format.CSV);
+
+        // Assert
+        assertEquals(1, report.getRejectedCount());
+        assertTrue(report.getRejected().get(0).getErrors().get(0).startsWith("Could not be written"));
+        verifyNoInteractions(productCatalogCache, productSearchIndex);
+    }
+
+    private ProductImportService importService(int chunkSize) {
+        return new ProductImportService(jdbcTemplate, productRepository, transactionManager,
+                Validation.buildDefaultValidatorFactory().getValidator(), new ObjectMapper(),
+                productCatalogCache, productSearchIndex, Runnable::run, chunkSize, 100);
+    }
+
+    private ByteArrayInputStream csv(String feed) {
+        return new ByteArrayInputStream(feed.getBytes(StandardCharsets.UTF_8));
+    }
+}
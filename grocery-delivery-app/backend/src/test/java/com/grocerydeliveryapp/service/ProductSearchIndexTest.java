@@ -0,0 +1,152 @@
+package com.grocerydeliveryapp.service;
+
+import com.grocerydeliveryapp.dto.product.ProductResponse;
+import com.grocerydeliveryapp.event.ProductChangedEvent;
+import com.grocerydeliveryapp.model.Product;
+import com.grocerydeliveryapp.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.TypedQuery;
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import static org.mockito.Mockito.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ProductSearchIndexTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private EntityManagerFactory entityManagerFactory;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private TypedQuery<Product> query;
+
+    @InjectMocks
+    private ProductSearchIndex productSearchIndex;
+
+    @BeforeEach
+    void setUp() {
+        productSearchIndex.index(product(1L, "Fresh Milk", "Full cream milk", "Dairy", "Amul"));
+        productSearchIndex.index(product(2L, "Milk Bread", "Soft sandwich bread", "Bakery", "Modern"));
+        productSearchIndex.index(product(3L, "Basmati Rice", "Long grain rice, great with milk curries", "Grains", "India Gate"));
+    }
+
+    @Test
+    void searchRanksNameMatchesFirst() {
+        // Act
+        Page<ProductResponse> result = productSearchIndex.search("milk", PageRequest.of(0, 10));
+
+        // Assert
+        assertEquals(3, result.getTotalElements());
+        assertEquals(3L, result.getContent().get(2).getId());
+    }
+
+    @Test
+    void searchMatchesPrefixesAndRequiresAllTerms() {
+        // Act
+        Page<ProductResponse> prefix = productSearchIndex.search("bre", PageRequest.of(0, 10));
+        Page<ProductResponse> bothTerms = productSearchIndex.search("milk dairy", PageRequest.of(0, 10));
+
+        // Assert
+        assertEquals(List.of(2L), prefix.map(ProductResponse::getId).getContent());
+        assertEquals(List.of(1L), bothTerms.map(ProductResponse::getId).getContent());
+    }
+
+    @Test
+    void searchPaginatesResults() {
+        // Act
+        Page<ProductResponse> secondPage = productSearchIndex.search("milk", PageRequest.of(1, 2));
+
+        // Assert
+        assertEquals(3, secondPage.getTotalElements());
+        assertEquals(1, secondPage.getNumberOfElements());
+    }
+
+    @Test
+    void reindexReplacesOldTokens() {
+        // Act
+        productSearchIndex.index(product(2L, "Wheat Bread", "Soft sandwich bread", "Bakery", "Modern"));
+
+        // Assert
+        assertTrue(productSearchIndex.search("milk bread", PageRequest.of(0, 10)).isEmpty());
+        assertEquals(1, productSearchIndex.search("wheat", PageRequest.of(0, 10)).getTotalElements());
+    }
+
+    @Test
+    void productChangedEventRemovesDeletedProducts() {
+        // Arrange
+        givenFreshlyLoaded(Collections.emptyList());
+
+        // Act
+        productSearchIndex.onProductChanged(new ProductChangedEvent(Set.of(1L), Set.of("Dairy"), true));
+
+        // Assert
+        assertEquals(2, productSearchIndex.size());
+        assertTrue(productSearchIndex.search("amul", PageRequest.of(0, 10)).isEmpty());
+    }
+
+    @Test
+    void productChangedEventReloadsOutsideTheRequestPersistenceContext() {
+        // Arrange: the batch decrement sold the last unit
+        Product soldOut = product(1L, "Fresh Milk", "Full cream milk", "Dairy", "Amul");
+        soldOut.setStockQuantity(0);
+        givenFreshlyLoaded(List.of(soldOut));
+
+        // Act
+        productSearchIndex.onProductChanged(new ProductChangedEvent(Set.of(1L), Set.of("Dairy"), false));
+
+        // Assert
+        ProductResponse indexed = productSearchIndex.search("amul", PageRequest.of(0, 10)).getContent().get(0);
+        assertEquals(0, indexed.getStockQuantity());
+        assertEquals("Out of Stock", indexed.getStockStatus());
+        verify(entityManager).close();
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void searchHandsOutCopies() {
+        // Act
+        productSearchIndex.search("amul", PageRequest.of(0, 10)).getContent().get(0).setStockQuantity(0);
+
+        // Assert
+        assertEquals(10, productSearchIndex.search("amul", PageRequest.of(0, 10)).getContent().get(0).getStockQuantity());
+    }
+
+    private void givenFreshlyLoaded(List<Product> products) {
+        when(entityManagerFactory.createEntityManager()).thenReturn(entityManager);
+        when(entityManager.createQuery(anyString(), eq(Product.class))).thenReturn(query);
+        when(query.setParameter(eq("ids"), any())).thenReturn(query);
+        when(query.getResultList()).thenReturn(products);
+    }
+
+    private Product product(Long id, String name, String description, String category, String brand) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName(name);
+        product.setDescription(description);
+        product.setCategory(category);
+        product.setBrand(brand);
+        product.setPrice(new BigDecimal("49.00"));
+        product.setStockQuantity(10);
+        product.setAvailable(true);
+        return product;
+    }
+}
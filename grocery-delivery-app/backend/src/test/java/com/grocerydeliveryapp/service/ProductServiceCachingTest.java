@@ -0,0 +1,94 @@
+package com.grocerydeliveryapp.service;
+
+import com.grocerydeliveryapp.config.CacheConfig;
+import com.grocerydeliveryapp.model.Product;
+import com.grocerydeliveryapp.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+// Calls ProductService through its Spring proxy so the cache annotations are actually evaluated
+@SpringJUnitConfig(ProductServiceCachingTest.CachingConfig.class)
+public class ProductServiceCachingTest {
+
+    @Configuration
+    @EnableCaching
+    @Import(ProductService.class)
+    static class CachingConfig {
+
+        @Bean
+        CacheManager cacheManager() {
+            return new ConcurrentMapCacheManager(CacheConfig.PRODUCTS, CacheConfig.FEATURED_PRODUCTS,
+                    CacheConfig.DISCOUNTED_PRODUCTS, CacheConfig.CATEGORY_PAGES);
+        }
+    }
+
+    @MockBean
+    private ProductRepository productRepository;
+
+    @MockBean
+    private ProductSearchIndex productSearchIndex;
+
+    @MockBean
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCache(CacheConfig.CATEGORY_PAGES).clear();
+    }
+
+    @Test
+    void categoryPagesAreServedFromTheCache() {
+        // Arrange
+        Pageable pageable = PageRequest.of(0, 10);
+        when(productRepository.findByCategory("Fruits", pageable)).thenReturn(new PageImpl<>(List.of()));
+
+        // Act
+        productService.getProductsByCategory("Fruits", pageable);
+        productService.getProductsByCategory("Fruits", pageable);
+
+        // Assert
+        verify(productRepository, times(1)).findByCategory("Fruits", pageable);
+        assertNotNull(cacheManager.getCache(CacheConfig.CATEGORY_PAGES)
+                .get(CacheConfig.categoryPageKey("Fruits", pageable)));
+    }
+
+    @Test
+    void scrollingIsNotCached() {
+        // Arrange
+        when(productRepository.findFirstKeysetPage(any(Pageable.class)))
+                .thenReturn(new SliceImpl<Product>(List.of()));
+
+        // Act
+        productService.scrollProducts(null, 20);
+        productService.scrollProducts(null, 20);
+
+        // Assert
+        verify(productRepository, times(2)).findFirstKeysetPage(any(Pageable.class));
+    }
+}
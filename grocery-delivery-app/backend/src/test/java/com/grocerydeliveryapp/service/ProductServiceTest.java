@@ -1,23 +1,30 @@
 package com.grocerydeliveryapp.service;
 
+import com.grocerydeliveryapp.dto.common.CursorPage;
+import com.grocerydeliveryapp.dto.common.PageCursor;
 import com.grocerydeliveryapp.dto.product.ProductRequest;
 import com.grocerydeliveryapp.dto.product.ProductResponse;
+import com.grocerydeliveryapp.event.ProductChangedEvent;
 import com.grocerydeliveryapp.exception.OutOfStockException;
 import com.grocerydeliveryapp.model.Product;
 import com.grocerydeliveryapp.repository.ProductRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
 
 import javax.persistence.EntityNotFoundException;
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
@@ -32,6 +39,12 @@ public class ProductServiceTest {
     @Mock
     private ProductRepository productRepository;
 
+    @Mock
+    private ProductSearchIndex productSearchIndex;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private ProductService productService;
 
@@ -126,6 +139,7 @@ public class ProductServiceTest {
         assertEquals(productRequest.getName(), result.getName());
         assertEquals(productRequest.getPrice(), result.getPrice());
         verify(productRepository, times(1)).save(any(Product.class));
+        verify(eventPublisher, times(1)).publishEvent(any(ProductChangedEvent.class));
     }
 
     @Test
@@ -133,9 +147,11 @@ public class ProductServiceTest {
         // Arrange
         when(productRepository.findById(1L)).thenReturn(Optional.of(testProduct));
         when(productRepository.save(any(Product.class))).thenReturn(testProduct);
+        ArgumentCaptor<ProductChangedEvent> captor = ArgumentCaptor.forClass(ProductChangedEvent.class);
 
         productRequest.setName("Updated Product");
         productRequest.setPrice(new BigDecimal("149.99"));
+        productRequest.setCategory("New Category");
 
         // Act
         ProductResponse result = productService.updateProduct(1L, productRequest);
@@ -145,26 +161,46 @@ public class ProductServiceTest {
         assertEquals(productRequest.getName(), result.getName());
         assertEquals(productRequest.getPrice(), result.getPrice());
         verify(productRepository, times(1)).save(any(Product.class));
+        verify(eventPublisher).publishEvent(captor.capture());
+        assertTrue(captor.getValue().getCategories().containsAll(List.of("Test Category", "New Category")));
+        assertTrue(captor.getValue().isListingsChanged());
     }
 
     @Test
-    void updateStockSuccess() {
+    void updateProductWithoutSkuKeepsTheExistingOne() {
         // Arrange
+        testProduct.setSku("SKU-1");
         when(productRepository.findById(1L)).thenReturn(Optional.of(testProduct));
         when(productRepository.save(any(Product.class))).thenReturn(testProduct);
+        productRequest.setSku(null);
+
+        // Act
+        ProductResponse result = productService.updateProduct(1L, productRequest);
+
+        // Assert
+        assertEquals("SKU-1", testProduct.getSku());
+        assertEquals("SKU-1", result.getSku());
+    }
+
+    @Test
+    void updateStockSuccess() {
+        // Arrange
+        when(productRepository.decrementStock(1L, 10)).thenReturn(1);
 
         // Act
         productService.updateStock(1L, 10);
 
         // Assert
-        assertEquals(90, testProduct.getStockQuantity());
-        assertTrue(testProduct.isAvailable());
-        verify(productRepository, times(1)).save(testProduct);
+        verify(productRepository, times(1)).decrementStock(1L, 10);
+        verify(productRepository, never()).findById(anyLong());
+        verify(productRepository, never()).save(any(Product.class));
+        verify(eventPublisher, times(1)).publishEvent(any(ProductChangedEvent.class));
     }
 
     @Test
     void updateStockInsufficientQuantity() {
         // Arrange
+        when(productRepository.decrementStock(1L, 150)).thenReturn(0);
         when(productRepository.findById(1L)).thenReturn(Optional.of(testProduct));
 
         // Act & Assert
@@ -174,6 +210,18 @@ public class ProductServiceTest {
         verify(productRepository, never()).save(any(Product.class));
     }
 
+    @Test
+    void updateStockProductNotFound() {
+        // Arrange
+        when(productRepository.decrementStock(1L, 10)).thenReturn(0);
+        when(productRepository.findById(1L)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(EntityNotFoundException.class, () -> {
+            productService.updateStock(1L, 10);
+        });
+    }
+
     @Test
     void getProductsByPriceRangeSuccess() {
         // Arrange
@@ -211,4 +259,45 @@ public class ProductServiceTest {
         assertEquals(testProduct.getName(), result.get(0).getName());
         assertEquals(testProduct.getDiscountPercentage(), result.get(0).getDiscountPercentage());
     }
+
+    @Test
+    void scrollProductsReturnsCursorForNextPage() {
+        // Arrange
+        testProduct.setCreatedAt(LocalDateTime.of(2024, 1, 15, 10, 30));
+        when(productRepository.findFirstKeysetPage(PageRequest.of(0, 1)))
+                .thenReturn(new SliceImpl<>(List.of(testProduct), PageRequest.of(0, 1), true));
+
+        // Act
+        CursorPage<ProductResponse> result = productService.scrollProducts(null, 1);
+
+        // Assert
+        assertTrue(result.isHasNext());
+        assertEquals(1, result.getSize());
+        PageCursor cursor = PageCursor.decode(result.getNextCursor());
+        assertEquals(testProduct.getCreatedAt(), cursor.getCreatedAt());
+        assertEquals(testProduct.getId(), cursor.getId());
+    }
+
+    @Test
+    void scrollProductsContinuesAfterCursor() {
+        // Arrange
+        LocalDateTime createdAt = LocalDateTime.of(2024, 1, 15, 10, 30);
+        String after = new PageCursor(createdAt, 5L).encode();
+        when(productRepository.findKeysetPageAfter(createdAt, 5L, PageRequest.of(0, 10)))
+                .thenReturn(new SliceImpl<>(List.of(testProduct), PageRequest.of(0, 10), false));
+
+        // Act
+        CursorPage<ProductResponse> result = productService.scrollProducts(after, 10);
+
+        // Assert
+        assertFalse(result.isHasNext());
+        assertNull(result.getNextCursor());
+        verify(productRepository, never()).findFirstKeysetPage(any(Pageable.class));
+    }
+
+    @Test
+    void scrollProductsRejectsMalformedCursor() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> productService.scrollProducts("not-a-cursor", 10));
+    }
 }